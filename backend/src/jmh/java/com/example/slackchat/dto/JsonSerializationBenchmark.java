@@ -0,0 +1,76 @@
+package com.example.slackchat.dto;
+
+import com.example.slackchat.model.Channel;
+import com.example.slackchat.model.Message;
+import com.example.slackchat.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing the message and channel lists the REST endpoints return, with an ObjectMapper built the
+ * way Spring MVC builds it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"50", "500"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<MessageSummary> messages;
+    private List<ChannelSummary> channels;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        User user = new User("benchmark", "benchmark@example.com", "password");
+        user.setId(1L);
+        user.setDisplayName("Benchmark User");
+
+        messages = new ArrayList<>(size);
+        channels = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            Channel channel = new Channel("channel-" + i, "Channel number " + i, user);
+            channel.setId((long) i);
+            channels.add(ChannelSummary.from(channel));
+
+            Message message = new Message("Message " + i + " with a typical amount of chat text in it", user, channel);
+            message.setId(600_000_000_000_000_000L + i);
+            message.setCreatedAt(now.minusSeconds(i));
+            messages.add(MessageSummary.from(message));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeMessages() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(messages);
+    }
+
+    @Benchmark
+    public byte[] serializeChannels() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(channels);
+    }
+}
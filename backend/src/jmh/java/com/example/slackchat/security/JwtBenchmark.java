@@ -0,0 +1,67 @@
+package com.example.slackchat.security;
+
+import com.example.slackchat.model.User;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token generation, full signature verification, and verification served from the verified-token cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    static final String SECRET = "benchmarkSecretKeyForSlackChatApplicationThatIsLongEnoughForHS256Algorithm";
+
+    private JwtUtils jwtUtils;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = newJwtUtils();
+        user = new User("benchmark", "benchmark@example.com", "password");
+        user.setId(1L);
+        token = jwtUtils.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims parseAndVerifySignature() {
+        return jwtUtils.extractClaim(token, claims -> claims);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyTokenCached() {
+        return jwtUtils.verifyToken(token);
+    }
+
+    static JwtUtils newJwtUtils() {
+        JwtUtils utils = new JwtUtils();
+        ReflectionTestUtils.setField(utils, "secret", SECRET);
+        ReflectionTestUtils.setField(utils, "expiration", 86400000L);
+        ReflectionTestUtils.setField(utils, "maxCachedTokens", 10000);
+        utils.init();
+        return utils;
+    }
+}
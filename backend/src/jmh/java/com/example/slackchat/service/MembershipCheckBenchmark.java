@@ -0,0 +1,76 @@
+package com.example.slackchat.service;
+
+import com.example.slackchat.repository.ChannelRepository;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The membership check MessageController.createMessage runs before every send, against a warmed index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MembershipCheckBenchmark {
+
+    private static final int CHANNELS = 100;
+
+    @Param({"100", "10000"})
+    private int membersPerChannel;
+
+    private ChannelService channelService;
+    private long[] channelIds;
+    private long[] userIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Object[]> memberships = new ArrayList<>(CHANNELS * membersPerChannel);
+        for (long channelId = 1; channelId <= CHANNELS; channelId++) {
+            for (int i = 0; i < membersPerChannel; i++) {
+                memberships.add(new Object[]{channelId, (long) random.nextInt(1_000_000)});
+            }
+        }
+        ChannelRepository channelRepository = Mockito.mock(ChannelRepository.class);
+        Mockito.when(channelRepository.findAllMemberships()).thenReturn(memberships);
+
+        ChannelMembershipIndex index = new ChannelMembershipIndex(channelRepository, true);
+        index.afterSingletonsInstantiated();
+        channelService = new ChannelService();
+        ReflectionTestUtils.setField(channelService, "channelMembershipIndex", index);
+
+        // Half hits, half misses
+        channelIds = new long[4096];
+        userIds = new long[4096];
+        for (int i = 0; i < channelIds.length; i++) {
+            Object[] membership = memberships.get(random.nextInt(memberships.size()));
+            channelIds[i] = (Long) membership[0];
+            userIds[i] = i % 2 == 0 ? (Long) membership[1] : 1_000_000 + i;
+        }
+    }
+
+    @Benchmark
+    public boolean isMember() {
+        int i = next++ & (channelIds.length - 1);
+        return channelService.isMember(channelIds[i], userIds[i]);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.slackchat.service;
+
+import com.example.slackchat.SlackChatApplication;
+import com.example.slackchat.dto.MessageSummary;
+import com.example.slackchat.model.Channel;
+import com.example.slackchat.model.Message;
+import com.example.slackchat.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MessageService against the full application context on embedded H2.
+ * Sends go through the ingestion pipeline, so a lone sender also pays the batching linger; the threaded
+ * variant shows the throughput side of that trade.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageServiceBenchmark {
+
+    private static final int HISTORY_MESSAGES = 1000;
+
+    private ConfigurableApplicationContext context;
+    private MessageService messageService;
+    private User sender;
+    private Channel channel;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SlackChatApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.example=WARN");
+        messageService = context.getBean(MessageService.class);
+        sender = context.getBean(UserService.class).createUser("benchmark", "benchmark@example.com", "password");
+        channel = context.getBean(ChannelService.class).createChannel("benchmark", "Benchmark channel", sender);
+        for (int i = 0; i < HISTORY_MESSAGES; i++) {
+            messageService.createMessage("history " + i, sender, channel);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Message createMessage() {
+        return messageService.createMessage("benchmark message", sender, channel);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Message createMessageConcurrent() {
+        return messageService.createMessage("benchmark message", sender, channel);
+    }
+
+    // Served from RecentMessageCache after the first call
+    @Benchmark
+    public List<MessageSummary> readRecentMessages() {
+        return messageService.findRecentMessagesByChannelId(channel.getId(), 50);
+    }
+
+    // Always goes to the database
+    @Benchmark
+    public List<MessageSummary> readLatestPage() {
+        return messageService.findMessagesBefore(channel.getId(), null, 50);
+    }
+}
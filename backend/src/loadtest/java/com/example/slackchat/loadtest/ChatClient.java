@@ -0,0 +1,91 @@
+package com.example.slackchat.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Non-blocking REST client that times every call into per-endpoint stats.
+ * Latency is measured from when the request was supposed to start, not when it was sent, so a backed-up
+ * server shows up as latency instead of as a silently lower request rate.
+ */
+public class ChatClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http;
+    private final URI baseUri;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, EndpointStats> stats = new ConcurrentSkipListMap<>();
+
+    public ChatClient(URI baseUri) {
+        this.baseUri = baseUri;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    // endpoint is the route template used for grouping, e.g. "POST /api/channels/{id}/join"
+    public CompletableFuture<JsonNode> call(String endpoint, String method, String path, Object body, String token,
+                                            long intendedStartNanos) {
+        EndpointStats endpointStats = stats.computeIfAbsent(endpoint, EndpointStats::new);
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        try {
+            request.method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+
+        return http.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, failure) -> {
+                    long latency = System.nanoTime() - intendedStartNanos;
+                    if (failure != null) {
+                        endpointStats.record(latency, EndpointStats.NO_RESPONSE);
+                        return null;
+                    }
+                    endpointStats.record(latency, response.statusCode());
+                    if (response.statusCode() / 100 != 2) {
+                        return null;
+                    }
+                    try {
+                        return response.body().length == 0 ? objectMapper.nullNode()
+                                : objectMapper.readTree(response.body());
+                    } catch (Exception e) {
+                        return null;
+                    }
+                });
+    }
+
+    public JsonNode callAndWait(String endpoint, String method, String path, Object body, String token) {
+        return call(endpoint, method, path, body, token, System.nanoTime()).join();
+    }
+
+    public List<EndpointStats.Snapshot> snapshots() {
+        List<EndpointStats.Snapshot> snapshots = new ArrayList<>(stats.size());
+        for (EndpointStats endpointStats : stats.values()) {
+            snapshots.add(endpointStats.snapshot());
+        }
+        return snapshots;
+    }
+}
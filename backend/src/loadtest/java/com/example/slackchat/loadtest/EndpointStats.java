@@ -0,0 +1,130 @@
+package com.example.slackchat.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram, error counts and completion window for one endpoint.
+ */
+public class EndpointStats {
+
+    // Status used for requests that never got a response
+    public static final int NO_RESPONSE = -1;
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final String endpoint;
+    private final Recorder recorder = new Recorder(MAX_TRACKABLE_NANOS, 3);
+    private final Histogram histogram = new Histogram(MAX_TRACKABLE_NANOS, 3);
+    private final LongAdder errors = new LongAdder();
+    private final Map<Integer, LongAdder> errorsByStatus = new ConcurrentHashMap<>();
+    private final AtomicLong firstCompletion = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastCompletion = new AtomicLong(Long.MIN_VALUE);
+
+    public EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void record(long latencyNanos, int status) {
+        recorder.recordValue(Math.min(Math.max(latencyNanos, 0), MAX_TRACKABLE_NANOS));
+        if (status < 200 || status >= 300) {
+            errors.increment();
+            errorsByStatus.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+        long now = System.nanoTime();
+        firstCompletion.accumulateAndGet(now, Math::min);
+        lastCompletion.accumulateAndGet(now, Math::max);
+    }
+
+    public synchronized Snapshot snapshot() {
+        histogram.add(recorder.getIntervalHistogram());
+        long count = histogram.getTotalCount();
+        double seconds = count < 2 ? 0 : (lastCompletion.get() - firstCompletion.get()) / 1e9;
+        Map<Integer, Long> statuses = new TreeMap<>();
+        errorsByStatus.forEach((status, adder) -> statuses.put(status, adder.sum()));
+        return new Snapshot(endpoint, count, errors.sum(), statuses, seconds > 0 ? count / seconds : 0,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    public static class Snapshot {
+        private final String endpoint;
+        private final long requests;
+        private final long errors;
+        private final Map<Integer, Long> errorsByStatus;
+        private final double requestsPerSecond;
+        private final double p50Millis;
+        private final double p99Millis;
+        private final double p999Millis;
+        private final double maxMillis;
+
+        public Snapshot(String endpoint, long requests, long errors, Map<Integer, Long> errorsByStatus,
+                        double requestsPerSecond, double p50Millis, double p99Millis, double p999Millis,
+                        double maxMillis) {
+            this.endpoint = endpoint;
+            this.requests = requests;
+            this.errors = errors;
+            this.errorsByStatus = errorsByStatus;
+            this.requestsPerSecond = requestsPerSecond;
+            this.p50Millis = p50Millis;
+            this.p99Millis = p99Millis;
+            this.p999Millis = p999Millis;
+            this.maxMillis = maxMillis;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getErrorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+
+        public Map<Integer, Long> getErrorsByStatus() {
+            return errorsByStatus;
+        }
+
+        public double getRequestsPerSecond() {
+            return requestsPerSecond;
+        }
+
+        public double getP50Millis() {
+            return p50Millis;
+        }
+
+        public double getP99Millis() {
+            return p99Millis;
+        }
+
+        public double getP999Millis() {
+            return p999Millis;
+        }
+
+        public double getMaxMillis() {
+            return maxMillis;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.slackchat.loadtest;
+
+import com.example.slackchat.SlackChatApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives simulated chat users against the REST API: sign up, sign in and join channels, then send
+ * messages, read history and refresh the sidebar at fixed per-user rates for a set duration.
+ * Boots the application on in-memory H2 unless -Dloadtest.target-url points at a running instance;
+ * the in-process application can run on virtual threads and behind a simulated slow database.
+ * Prints per-endpoint throughput, latency percentiles and error rates, and writes them as JSON.
+ */
+public class LoadTest {
+
+    private static final String PASSWORD = "loadtest-password";
+
+    private final LoadTestConfig config;
+    private final ChatClient client;
+    // Keeps usernames unique when re-running against the same target
+    private final String runId = Long.toString(System.currentTimeMillis() % 60_466_176L, 36);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    public LoadTest(LoadTestConfig config, ChatClient client) {
+        this.config = config;
+        this.client = client;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        ConfigurableApplicationContext application = null;
+        URI baseUri;
+        if (config.getTargetUrl() == null) {
+            application = bootApplication(config);
+            baseUri = URI.create("http://localhost:" + application.getEnvironment().getProperty("local.server.port"));
+        } else {
+            baseUri = URI.create(config.getTargetUrl());
+        }
+
+        boolean passed;
+        try {
+            passed = new LoadTest(config, new ChatClient(baseUri)).run();
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+        // Fails the Maven build so a capacity check can gate a rollout
+        if (!passed) {
+            throw new IllegalStateException("Load test failed");
+        }
+    }
+
+    private static ConfigurableApplicationContext bootApplication(LoadTestConfig config) {
+        // Command line arguments, because default properties lose to application.yml
+        List<String> args = new ArrayList<>(List.of("--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example=WARN",
+                // Setup creates every channel as one admin
+                "--chat.rate-limit.channel-writes-per-user.per-second=0"));
+        if (config.getVirtualThreads() != null) {
+            args.add("--spring.threads.virtual.enabled=" + config.getVirtualThreads());
+        }
+        if (config.getPoolSize() != null) {
+            args.add("--spring.datasource.hikari.maximum-pool-size=" + config.getPoolSize());
+        }
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(SlackChatApplication.class).profiles("test");
+        if (config.getDbLatencyMillis() > 0) {
+            builder.initializers(context -> context.getBeanFactory()
+                    .addBeanPostProcessor(new SlowDataSourcePostProcessor(config.getDbLatencyMillis())));
+        }
+        return builder.run(args.toArray(new String[0]));
+    }
+
+    public boolean run() throws InterruptedException, IOException {
+        System.out.println("Load test: " + config);
+
+        String adminToken = signUpAndSignIn("lt" + runId + "admin");
+        if (adminToken == null) {
+            System.err.println("Could not create the admin user, aborting");
+            return false;
+        }
+        List<Long> channelIds = createChannels(adminToken);
+
+        long onboardingStart = System.nanoTime();
+        List<SimulatedUser> users = onboardUsers(channelIds);
+        System.out.printf("Onboarded %d/%d users in %.1fs%n", users.size(), config.getUsers(),
+                (System.nanoTime() - onboardingStart) / 1e9);
+
+        runSteadyState(users);
+
+        List<EndpointStats.Snapshot> snapshots = client.snapshots();
+        printReport(snapshots);
+        System.out.println("Max in-flight requests: " + maxInFlight.get());
+        writeReport(snapshots);
+
+        long requests = snapshots.stream().mapToLong(EndpointStats.Snapshot::getRequests).sum();
+        long errors = snapshots.stream().mapToLong(EndpointStats.Snapshot::getErrors).sum();
+        double errorRate = requests == 0 ? 1 : (double) errors / requests;
+        if (errorRate > config.getMaxErrorRate()) {
+            System.err.printf("Error rate %.3f%% is above the allowed %.3f%%%n", errorRate * 100,
+                    config.getMaxErrorRate() * 100);
+            return false;
+        }
+        return true;
+    }
+
+    private String signUpAndSignIn(String username) {
+        JsonNode signup = client.callAndWait("POST /api/auth/signup", "POST", "/api/auth/signup",
+                Map.of("username", username, "email", username + "@loadtest.example", "password", PASSWORD), null);
+        if (signup == null) {
+            return null;
+        }
+        JsonNode signin = client.callAndWait("POST /api/auth/signin", "POST", "/api/auth/signin",
+                Map.of("username", username, "password", PASSWORD), null);
+        return signin == null ? null : signin.path("accessToken").asText(null);
+    }
+
+    private List<Long> createChannels(String adminToken) {
+        List<Long> channelIds = new ArrayList<>(config.getChannels());
+        for (int i = 0; i < config.getChannels(); i++) {
+            JsonNode channel = client.callAndWait("POST /api/channels", "POST", "/api/channels",
+                    Map.of("name", "lt-" + runId + "-" + i, "description", "Load test channel " + i), adminToken);
+            if (channel != null) {
+                channelIds.add(channel.path("id").asLong());
+            }
+        }
+        return channelIds;
+    }
+
+    private List<SimulatedUser> onboardUsers(List<Long> channelIds) throws InterruptedException {
+        List<SimulatedUser> users = Collections.synchronizedList(new ArrayList<>(config.getUsers()));
+        ExecutorService onboarding = Executors.newFixedThreadPool(config.getOnboardingConcurrency());
+        for (int i = 0; i < config.getUsers(); i++) {
+            String username = "lt" + runId + "u" + i;
+            onboarding.execute(() -> {
+                String token = signUpAndSignIn(username);
+                if (token == null) {
+                    return;
+                }
+                List<Long> shuffled = new ArrayList<>(channelIds);
+                Collections.shuffle(shuffled);
+                List<Long> joined = new ArrayList<>();
+                for (Long channelId : shuffled.subList(0, Math.min(config.getChannelsPerUser(), shuffled.size()))) {
+                    if (client.callAndWait("POST /api/channels/{id}/join", "POST",
+                            "/api/channels/" + channelId + "/join", null, token) != null) {
+                        joined.add(channelId);
+                    }
+                }
+                if (!joined.isEmpty()) {
+                    users.add(new SimulatedUser(username, token, joined));
+                }
+            });
+        }
+        onboarding.shutdown();
+        onboarding.awaitTermination(10, TimeUnit.MINUTES);
+        return new ArrayList<>(users);
+    }
+
+    private void runSteadyState(List<SimulatedUser> users) throws InterruptedException {
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+        for (SimulatedUser user : users) {
+            schedule(scheduler, config.getSendsPerSecond(), intendedStart -> sendMessage(user, intendedStart));
+            schedule(scheduler, config.getReadsPerSecond(), intendedStart -> readHistory(user, intendedStart));
+            schedule(scheduler, config.getSidebarRefreshesPerSecond(),
+                    intendedStart -> refreshSidebar(user, intendedStart));
+        }
+        System.out.printf("Running %d users for %ds%n", users.size(), config.getDurationSeconds());
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(config.getDurationSeconds()));
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    // Runs the action at a fixed rate, passing each run the time it was scheduled for
+    private void schedule(ScheduledExecutorService scheduler, double perSecond, Activity activity) {
+        if (perSecond <= 0) {
+            return;
+        }
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+        // Spread users over the first period so they do not fire in lockstep
+        long initialDelay = ThreadLocalRandom.current().nextLong(periodNanos);
+        long firstRun = System.nanoTime() + initialDelay;
+        AtomicInteger runs = new AtomicInteger();
+        scheduler.scheduleAtFixedRate(() -> activity.run(firstRun + runs.getAndIncrement() * periodNanos),
+                initialDelay, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void sendMessage(SimulatedUser user, long intendedStart) {
+        Long channelId = user.randomChannel();
+        track(client.call("POST /api/messages", "POST", "/api/messages",
+                Map.of("channelId", channelId, "content", "load test message from " + user.getUsername()),
+                user.getToken(), intendedStart));
+    }
+
+    private void readHistory(SimulatedUser user, long intendedStart) {
+        Long channelId = user.randomChannel();
+        track(client.call("GET /api/messages/channel/{id}/history", "GET",
+                "/api/messages/channel/" + channelId + "/history?limit=50", null, user.getToken(), intendedStart)
+                .thenCompose(history -> {
+                    // Opening a channel moves the read marker to its newest message
+                    JsonNode newest = history == null ? null : history.path("messages").path(0).get("id");
+                    if (newest == null) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return client.call("POST /api/channels/{id}/read", "POST", "/api/channels/" + channelId + "/read",
+                            Map.of("messageId", newest.asText()), user.getToken(), System.nanoTime());
+                }));
+    }
+
+    private void refreshSidebar(SimulatedUser user, long intendedStart) {
+        track(client.call("GET /api/channels/my/read-state", "GET", "/api/channels/my/read-state", null,
+                user.getToken(), intendedStart));
+    }
+
+    private void track(CompletableFuture<?> call) {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        call.whenComplete((result, failure) -> inFlight.decrementAndGet());
+    }
+
+    private void printReport(List<EndpointStats.Snapshot> snapshots) {
+        System.out.println();
+        System.out.printf("%-42s %9s %9s %8s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (EndpointStats.Snapshot snapshot : snapshots) {
+            System.out.printf("%-42s %9d %9.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f%n",
+                    snapshot.getEndpoint(), snapshot.getRequests(), snapshot.getRequestsPerSecond(),
+                    snapshot.getErrorRate() * 100, snapshot.getP50Millis(), snapshot.getP99Millis(),
+                    snapshot.getP999Millis(), snapshot.getMaxMillis());
+            if (!snapshot.getErrorsByStatus().isEmpty()) {
+                System.out.println("    errors by status (-1 = no response): " + snapshot.getErrorsByStatus());
+            }
+        }
+    }
+
+    private void writeReport(List<EndpointStats.Snapshot> snapshots) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        report.put("maxInFlight", maxInFlight.get());
+        report.put("endpoints", snapshots);
+        File file = new File(config.getReportFile());
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Report written to " + file.getAbsolutePath());
+    }
+
+    @FunctionalInterface
+    private interface Activity {
+        void run(long intendedStartNanos);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.slackchat.loadtest;
+
+/**
+ * Load test settings, read from -Dloadtest.* system properties.
+ * Rates are per simulated user, so total request rate scales with the number of users.
+ */
+public class LoadTestConfig {
+
+    private final int users;
+    private final int channels;
+    private final int channelsPerUser;
+    private final double sendsPerSecond;
+    private final double readsPerSecond;
+    private final double sidebarRefreshesPerSecond;
+    private final int durationSeconds;
+    private final int onboardingConcurrency;
+    private final String targetUrl;
+    private final String reportFile;
+    private final double maxErrorRate;
+    private final Boolean virtualThreads;
+    private final long dbLatencyMillis;
+    private final Integer poolSize;
+
+    private LoadTestConfig(int users, int channels, int channelsPerUser, double sendsPerSecond, double readsPerSecond,
+                           double sidebarRefreshesPerSecond, int durationSeconds, int onboardingConcurrency,
+                           String targetUrl, String reportFile, double maxErrorRate, Boolean virtualThreads,
+                           long dbLatencyMillis, Integer poolSize) {
+        this.users = users;
+        this.channels = channels;
+        this.channelsPerUser = Math.min(channelsPerUser, channels);
+        this.sendsPerSecond = sendsPerSecond;
+        this.readsPerSecond = readsPerSecond;
+        this.sidebarRefreshesPerSecond = sidebarRefreshesPerSecond;
+        this.durationSeconds = durationSeconds;
+        this.onboardingConcurrency = onboardingConcurrency;
+        this.targetUrl = targetUrl;
+        this.reportFile = reportFile;
+        this.maxErrorRate = maxErrorRate;
+        this.virtualThreads = virtualThreads;
+        this.dbLatencyMillis = dbLatencyMillis;
+        this.poolSize = poolSize;
+    }
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger("loadtest.users", 100),
+                Integer.getInteger("loadtest.channels", 20),
+                Integer.getInteger("loadtest.channels-per-user", 3),
+                doubleProperty("loadtest.sends-per-second", 0.5),
+                doubleProperty("loadtest.reads-per-second", 1.0),
+                doubleProperty("loadtest.sidebar-refreshes-per-second", 0.2),
+                Integer.getInteger("loadtest.duration-seconds", 60),
+                Integer.getInteger("loadtest.onboarding-concurrency", 16),
+                blankToNull(System.getProperty("loadtest.target-url")),
+                System.getProperty("loadtest.report", "target/loadtest-report.json"),
+                doubleProperty("loadtest.max-error-rate", 0.01),
+                booleanProperty("loadtest.virtual-threads"),
+                Long.getLong("loadtest.db-latency-ms", 0),
+                Integer.getInteger("loadtest.pool-size"));
+    }
+
+    private static Boolean booleanProperty(String name) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? null : Boolean.valueOf(value);
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : Double.parseDouble(value);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    public int getChannelsPerUser() {
+        return channelsPerUser;
+    }
+
+    public double getSendsPerSecond() {
+        return sendsPerSecond;
+    }
+
+    public double getReadsPerSecond() {
+        return readsPerSecond;
+    }
+
+    public double getSidebarRefreshesPerSecond() {
+        return sidebarRefreshesPerSecond;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public int getOnboardingConcurrency() {
+        return onboardingConcurrency;
+    }
+
+    // Null means boot the application in-process on H2
+    public String getTargetUrl() {
+        return targetUrl;
+    }
+
+    public String getReportFile() {
+        return reportFile;
+    }
+
+    public double getMaxErrorRate() {
+        return maxErrorRate;
+    }
+
+    // The settings below only apply to the in-process application; null keeps its configured value
+    public Boolean getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public long getDbLatencyMillis() {
+        return dbLatencyMillis;
+    }
+
+    public Integer getPoolSize() {
+        return poolSize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("users=%d channels=%d channelsPerUser=%d sends/s/user=%.2f reads/s/user=%.2f "
+                        + "sidebar/s/user=%.2f duration=%ds target=%s%s",
+                users, channels, channelsPerUser, sendsPerSecond, readsPerSecond, sidebarRefreshesPerSecond,
+                durationSeconds, targetUrl == null ? "in-process H2" : targetUrl,
+                targetUrl != null ? "" : String.format(" virtualThreads=%s dbLatency=%dms poolSize=%s",
+                        virtualThreads == null ? "default" : virtualThreads, dbLatencyMillis,
+                        poolSize == null ? "default" : poolSize));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.slackchat.loadtest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class SimulatedUser {
+
+    private final String username;
+    private final String token;
+    private final List<Long> channelIds;
+
+    public SimulatedUser(String username, String token, List<Long> channelIds) {
+        this.username = username;
+        this.token = token;
+        this.channelIds = List.copyOf(channelIds);
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public List<Long> getChannelIds() {
+        return channelIds;
+    }
+
+    public Long randomChannel() {
+        return channelIds.get(ThreadLocalRandom.current().nextInt(channelIds.size()));
+    }
+}
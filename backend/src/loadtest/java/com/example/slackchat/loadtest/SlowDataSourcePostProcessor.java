@@ -0,0 +1,80 @@
+package com.example.slackchat.loadtest;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Simulates a slow database for the in-process load test: every statement execution sleeps first,
+ * while holding its pooled connection, the way a remote database under load would.
+ */
+public class SlowDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final long latencyMillis;
+
+    public SlowDataSourcePostProcessor(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, dataSource);
+        }
+        return bean;
+    }
+
+    private <T> T proxy(Class<T> type, T target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().startsWith("execute") && target instanceof Statement) {
+                delay();
+            }
+            Object result = invoke(method, target, args);
+            return wrap(method, result);
+        };
+        return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private void delay() throws SQLException {
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while simulating database latency", e);
+        }
+    }
+
+    private Object wrap(Method method, Object result) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType == Connection.class) {
+            return proxy(Connection.class, (Connection) result);
+        }
+        if (returnType == CallableStatement.class) {
+            return proxy(CallableStatement.class, (CallableStatement) result);
+        }
+        if (returnType == PreparedStatement.class) {
+            return proxy(PreparedStatement.class, (PreparedStatement) result);
+        }
+        if (returnType == Statement.class) {
+            return proxy(Statement.class, (Statement) result);
+        }
+        return result;
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
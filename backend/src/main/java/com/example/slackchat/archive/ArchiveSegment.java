@@ -0,0 +1,441 @@
+package com.example.slackchat.archive;
+
+import com.example.slackchat.dto.MessageCursor;
+import com.example.slackchat.dto.MessageSummary;
+import com.example.slackchat.dto.UserSummary;
+import com.example.slackchat.model.Message;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One immutable file of archived messages of a channel, sorted by (createdAt, id).
+ * Messages are stored in deflate-compressed blocks followed by a sparse index holding the first and
+ * last key, id range and file offset of every block, so a read maps the file and inflates only the
+ * blocks it needs.
+ *
+ * <pre>
+ * header:  magic:int version:int channelId:long
+ * blocks:  deflate(record*)
+ * index:   (offset:long length:int rawLength:int count:int firstKey lastKey minId:long maxId:long)*
+ * trailer: indexOffset:long blockCount:int messageCount:long magic:int
+ * </pre>
+ */
+public final class ArchiveSegment {
+
+    private static final int MAGIC = 0x43485347;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int TRAILER_BYTES = 24;
+    private static final Message.MessageType[] MESSAGE_TYPES = Message.MessageType.values();
+
+    private final Path path;
+    private final long channelId;
+    private final MappedByteBuffer data;
+    private final long messageCount;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final int[] rawLengths;
+    private final int[] counts;
+    private final Key[] firstKeys;
+    private final Key[] lastKeys;
+    private final long[] minIds;
+    private final long[] maxIds;
+
+    private ArchiveSegment(Path path, long channelId, MappedByteBuffer data, long messageCount, int blockCount) {
+        this.path = path;
+        this.channelId = channelId;
+        this.data = data;
+        this.messageCount = messageCount;
+        this.offsets = new long[blockCount];
+        this.lengths = new int[blockCount];
+        this.rawLengths = new int[blockCount];
+        this.counts = new int[blockCount];
+        this.firstKeys = new Key[blockCount];
+        this.lastKeys = new Key[blockCount];
+        this.minIds = new long[blockCount];
+        this.maxIds = new long[blockCount];
+    }
+
+    // Writes to a temporary file first, so a crash never leaves a partial segment under the final name
+    public static void write(Path target, long channelId, List<MessageSummary> ascending, int blockMessages) {
+        if (ascending.isEmpty()) {
+            throw new IllegalArgumentException("Segment must not be empty");
+        }
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).putLong(channelId);
+            writeFully(channel, header.flip());
+
+            ByteArrayOutputStream index = new ByteArrayOutputStream();
+            DataOutputStream indexOut = new DataOutputStream(index);
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            int blockCount = 0;
+            try {
+                for (int start = 0; start < ascending.size(); start += blockMessages) {
+                    List<MessageSummary> block = ascending.subList(start, Math.min(start + blockMessages, ascending.size()));
+                    byte[] raw = encode(block);
+                    byte[] compressed = deflate(deflater, raw);
+                    long offset = channel.position();
+                    writeFully(channel, ByteBuffer.wrap(compressed));
+
+                    long minId = Long.MAX_VALUE;
+                    long maxId = Long.MIN_VALUE;
+                    for (MessageSummary message : block) {
+                        minId = Math.min(minId, message.getId());
+                        maxId = Math.max(maxId, message.getId());
+                    }
+                    indexOut.writeLong(offset);
+                    indexOut.writeInt(compressed.length);
+                    indexOut.writeInt(raw.length);
+                    indexOut.writeInt(block.size());
+                    Key.of(block.get(0)).writeTo(indexOut);
+                    Key.of(block.get(block.size() - 1)).writeTo(indexOut);
+                    indexOut.writeLong(minId);
+                    indexOut.writeLong(maxId);
+                    blockCount++;
+                }
+            } finally {
+                deflater.end();
+            }
+
+            long indexOffset = channel.position();
+            writeFully(channel, ByteBuffer.wrap(index.toByteArray()));
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES)
+                    .putLong(indexOffset).putInt(blockCount).putLong(ascending.size()).putInt(MAGIC);
+            writeFully(channel, trailer.flip());
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write archive segment " + target, e);
+        }
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not publish archive segment " + target, e);
+        }
+    }
+
+    public static ArchiveSegment open(Path path) {
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open archive segment " + path, e);
+        }
+        if (data.capacity() < HEADER_BYTES + TRAILER_BYTES || data.getInt(0) != MAGIC
+                || data.getInt(data.capacity() - 4) != MAGIC) {
+            throw new IllegalStateException("Not an archive segment: " + path);
+        }
+        if (data.getInt(4) != VERSION) {
+            throw new IllegalStateException("Unsupported archive segment version in " + path);
+        }
+        int trailer = data.capacity() - TRAILER_BYTES;
+        long indexOffset = data.getLong(trailer);
+        int blockCount = data.getInt(trailer + 8);
+        ArchiveSegment segment = new ArchiveSegment(path, data.getLong(8), data, data.getLong(trailer + 12), blockCount);
+
+        ByteBuffer index = data.slice((int) indexOffset, trailer - (int) indexOffset);
+        for (int i = 0; i < blockCount; i++) {
+            segment.offsets[i] = index.getLong();
+            segment.lengths[i] = index.getInt();
+            segment.rawLengths[i] = index.getInt();
+            segment.counts[i] = index.getInt();
+            segment.firstKeys[i] = Key.readFrom(index);
+            segment.lastKeys[i] = Key.readFrom(index);
+            segment.minIds[i] = index.getLong();
+            segment.maxIds[i] = index.getLong();
+        }
+        return segment;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getChannelId() {
+        return channelId;
+    }
+
+    public long getMessageCount() {
+        return messageCount;
+    }
+
+    public long getFileBytes() {
+        return data.capacity();
+    }
+
+    Key firstKey() {
+        return firstKeys[0];
+    }
+
+    Key lastKey() {
+        return lastKeys[lastKeys.length - 1];
+    }
+
+    // Newest first, strictly older than the bound; a null bound starts at the newest message
+    int collectBefore(Key bound, int limit, List<MessageSummary> out) {
+        int added = 0;
+        for (int block = lastBlockStartingBefore(bound); block >= 0 && added < limit; block--) {
+            List<MessageSummary> messages = readBlock(block);
+            for (int i = messages.size() - 1; i >= 0 && added < limit; i--) {
+                if (bound == null || Key.of(messages.get(i)).compareTo(bound) < 0) {
+                    out.add(messages.get(i));
+                    added++;
+                }
+            }
+        }
+        return added;
+    }
+
+    // Oldest first, strictly newer than the bound
+    int collectAfter(Key bound, int limit, List<MessageSummary> out) {
+        int added = 0;
+        for (int block = firstBlockEndingAfter(bound); block < counts.length && added < limit; block++) {
+            for (MessageSummary message : readBlock(block)) {
+                if (added < limit && Key.of(message).compareTo(bound) > 0) {
+                    out.add(message);
+                    added++;
+                }
+            }
+        }
+        return added;
+    }
+
+    // Newest first, skipping the given number of newest messages
+    int collectPage(long skip, int limit, List<MessageSummary> out) {
+        int added = 0;
+        for (int block = counts.length - 1; block >= 0 && added < limit; block--) {
+            if (skip >= counts[block]) {
+                skip -= counts[block];
+                continue;
+            }
+            List<MessageSummary> messages = readBlock(block);
+            for (int i = messages.size() - 1 - (int) skip; i >= 0 && added < limit; i--) {
+                out.add(messages.get(i));
+                added++;
+            }
+            skip = 0;
+        }
+        return added;
+    }
+
+    MessageSummary find(long messageId) {
+        for (int block = 0; block < counts.length; block++) {
+            if (messageId >= minIds[block] && messageId <= maxIds[block]) {
+                for (MessageSummary message : readBlock(block)) {
+                    if (message.getId() == messageId) {
+                        return message;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    void forEach(Consumer<MessageSummary> consumer) {
+        for (int block = 0; block < counts.length; block++) {
+            readBlock(block).forEach(consumer);
+        }
+    }
+
+    private int lastBlockStartingBefore(Key bound) {
+        if (bound == null) {
+            return counts.length - 1;
+        }
+        int low = 0;
+        int high = counts.length - 1;
+        int result = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (firstKeys[mid].compareTo(bound) < 0) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    private int firstBlockEndingAfter(Key bound) {
+        int low = 0;
+        int high = counts.length - 1;
+        int result = counts.length;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (lastKeys[mid].compareTo(bound) > 0) {
+                result = mid;
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return result;
+    }
+
+    private List<MessageSummary> readBlock(int block) {
+        byte[] raw = new byte[rawLengths[block]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data.slice((int) offsets[block], lengths[block]));
+            int read = 0;
+            while (read < raw.length && !inflater.finished()) {
+                read += inflater.inflate(raw, read, raw.length - read);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt block " + block + " in " + path, e);
+        } finally {
+            inflater.end();
+        }
+
+        List<MessageSummary> messages = new ArrayList<>(counts[block]);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw))) {
+            for (int i = 0; i < counts[block]; i++) {
+                messages.add(decode(in));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt block " + block + " in " + path, e);
+        }
+        return messages;
+    }
+
+    private MessageSummary decode(DataInputStream in) throws IOException {
+        long id = in.readLong();
+        LocalDateTime createdAt = readTime(in);
+        LocalDateTime updatedAt = in.readBoolean() ? readTime(in) : null;
+        Message.MessageType type = MESSAGE_TYPES[in.readByte()];
+        long senderId = in.readLong();
+        String username = in.readUTF();
+        String displayName = in.readBoolean() ? in.readUTF() : null;
+        byte[] content = new byte[in.readInt()];
+        in.readFully(content);
+        return new MessageSummary(id, channelId, new String(content, StandardCharsets.UTF_8), createdAt, updatedAt, type,
+                new UserSummary(senderId, username, displayName));
+    }
+
+    private static byte[] encode(List<MessageSummary> block) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (MessageSummary message : block) {
+                out.writeLong(message.getId());
+                writeTime(out, message.getCreatedAt());
+                out.writeBoolean(message.getUpdatedAt() != null);
+                if (message.getUpdatedAt() != null) {
+                    writeTime(out, message.getUpdatedAt());
+                }
+                out.writeByte(message.getMessageType().ordinal());
+                out.writeLong(message.getSender().getId());
+                out.writeUTF(message.getSender().getUsername());
+                out.writeBoolean(message.getSender().getDisplayName() != null);
+                if (message.getSender().getDisplayName() != null) {
+                    out.writeUTF(message.getSender().getDisplayName());
+                }
+                // writeUTF caps strings at 64 KB
+                byte[] content = message.getContent().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(content.length);
+                out.write(content);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] deflate(Deflater deflater, byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Sort key of a message, the same (createdAt, id) order the history cursors use.
+     */
+    static final class Key implements Comparable<Key> {
+        private final long seconds;
+        private final int nanos;
+        private final long id;
+
+        private Key(long seconds, int nanos, long id) {
+            this.seconds = seconds;
+            this.nanos = nanos;
+            this.id = id;
+        }
+
+        static Key of(MessageSummary message) {
+            return of(message.getCreatedAt(), message.getId());
+        }
+
+        static Key of(MessageCursor cursor) {
+            return of(cursor.getCreatedAt(), cursor.getId());
+        }
+
+        static Key of(LocalDateTime createdAt, long id) {
+            return new Key(createdAt.toEpochSecond(ZoneOffset.UTC), createdAt.getNano(), id);
+        }
+
+        MessageCursor toCursor() {
+            return new MessageCursor(LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC), id);
+        }
+
+        static Key readFrom(ByteBuffer buffer) {
+            return new Key(buffer.getLong(), buffer.getInt(), buffer.getLong());
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeLong(seconds);
+            out.writeInt(nanos);
+            out.writeLong(id);
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = Long.compare(seconds, other.seconds);
+            if (result == 0) {
+                result = Integer.compare(nanos, other.nanos);
+            }
+            return result != 0 ? result : Long.compare(id, other.id);
+        }
+    }
+}
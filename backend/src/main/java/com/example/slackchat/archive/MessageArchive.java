@@ -0,0 +1,279 @@
+package com.example.slackchat.archive;
+
+import com.example.slackchat.dto.MessageCursor;
+import com.example.slackchat.dto.MessageSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier of the message history: per-channel directories of immutable segment files holding
+ * messages older than everything still in the messages table. Each channel's segments are ordered
+ * and never overlap, so reads walk them newest or oldest first and stop once they have enough.
+ */
+@Component
+public class MessageArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageArchive.class);
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int blockMessages;
+
+    // Oldest segment first; lists are replaced, never modified
+    private final Map<Long, List<ArchiveSegment>> segments = new ConcurrentHashMap<>();
+    // Serializes appends and channel deletes
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public MessageArchive(@Value("${chat.archive.directory:data/archive}") String directory,
+                          @Value("${chat.archive.block-messages:128}") int blockMessages) {
+        this.directory = Paths.get(directory);
+        this.blockMessages = blockMessages;
+        load();
+    }
+
+    public boolean hasArchive(Long channelId) {
+        return segments.containsKey(channelId);
+    }
+
+    // Newest first, strictly before the cursor; a null cursor starts at the newest archived message
+    public List<MessageSummary> findBefore(Long channelId, MessageCursor cursor, int limit) {
+        List<ArchiveSegment> channelSegments = segments.get(channelId);
+        if (channelSegments == null || limit <= 0) {
+            return List.of();
+        }
+        ArchiveSegment.Key bound = cursor == null ? null : ArchiveSegment.Key.of(cursor);
+        List<MessageSummary> result = new ArrayList<>(Math.min(limit, 256));
+        for (int i = channelSegments.size() - 1; i >= 0 && result.size() < limit; i--) {
+            ArchiveSegment segment = channelSegments.get(i);
+            if (bound == null || segment.firstKey().compareTo(bound) < 0) {
+                segment.collectBefore(bound, limit - result.size(), result);
+            }
+        }
+        return result;
+    }
+
+    // Oldest first, strictly after the cursor
+    public List<MessageSummary> findAfter(Long channelId, MessageCursor cursor, int limit) {
+        List<ArchiveSegment> channelSegments = segments.get(channelId);
+        if (channelSegments == null || limit <= 0) {
+            return List.of();
+        }
+        ArchiveSegment.Key bound = ArchiveSegment.Key.of(cursor);
+        List<MessageSummary> result = new ArrayList<>(Math.min(limit, 256));
+        for (ArchiveSegment segment : channelSegments) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (segment.lastKey().compareTo(bound) > 0) {
+                segment.collectAfter(bound, limit - result.size(), result);
+            }
+        }
+        return result;
+    }
+
+    // Newest first, skipping the given number of newest archived messages
+    public List<MessageSummary> findPage(Long channelId, long skip, int limit) {
+        List<ArchiveSegment> channelSegments = segments.get(channelId);
+        if (channelSegments == null || limit <= 0) {
+            return List.of();
+        }
+        List<MessageSummary> result = new ArrayList<>(Math.min(limit, 256));
+        for (int i = channelSegments.size() - 1; i >= 0 && result.size() < limit; i--) {
+            ArchiveSegment segment = channelSegments.get(i);
+            if (skip >= segment.getMessageCount()) {
+                skip -= segment.getMessageCount();
+                continue;
+            }
+            segment.collectPage(skip, limit - result.size(), result);
+            skip = 0;
+        }
+        return result;
+    }
+
+    public long count(Long channelId) {
+        List<ArchiveSegment> channelSegments = segments.get(channelId);
+        return channelSegments == null ? 0 : channelSegments.stream().mapToLong(ArchiveSegment::getMessageCount).sum();
+    }
+
+    // The newest archived message; hot rows at or before it are already archived
+    public MessageCursor newestCursor(Long channelId) {
+        List<ArchiveSegment> channelSegments = segments.get(channelId);
+        return channelSegments == null ? null : channelSegments.get(channelSegments.size() - 1).lastKey().toCursor();
+    }
+
+    public Map<Long, MessageSummary> findByIds(Collection<Long> channelIds, Collection<Long> messageIds) {
+        Map<Long, MessageSummary> found = new HashMap<>();
+        for (Long channelId : channelIds) {
+            List<ArchiveSegment> channelSegments = segments.get(channelId);
+            if (channelSegments == null) {
+                continue;
+            }
+            for (Long messageId : messageIds) {
+                if (found.containsKey(messageId)) {
+                    continue;
+                }
+                for (ArchiveSegment segment : channelSegments) {
+                    MessageSummary message = segment.find(messageId);
+                    if (message != null) {
+                        found.put(messageId, message);
+                        break;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    // Oldest first, one block in memory at a time
+    public void forEach(Long channelId, Consumer<MessageSummary> consumer) {
+        segments.getOrDefault(channelId, List.of()).forEach(segment -> segment.forEach(consumer));
+    }
+
+    public void forEach(Consumer<MessageSummary> consumer) {
+        for (List<ArchiveSegment> channelSegments : segments.values()) {
+            channelSegments.forEach(segment -> segment.forEach(consumer));
+        }
+    }
+
+    // ascending must be newer than everything already archived for the channel
+    public void append(Long channelId, List<MessageSummary> ascending) {
+        writeLock.lock();
+        try {
+            List<ArchiveSegment> current = segments.getOrDefault(channelId, List.of());
+            if (!current.isEmpty() && ArchiveSegment.Key.of(ascending.get(0))
+                    .compareTo(current.get(current.size() - 1).lastKey()) <= 0) {
+                throw new IllegalArgumentException("Archived messages must be newer than the channel's archive");
+            }
+            Path channelDirectory = channelDirectory(channelId);
+            Files.createDirectories(channelDirectory);
+            Path file = channelDirectory.resolve(String.format("%020d%s", ascending.get(0).getId(), SEGMENT_SUFFIX));
+            ArchiveSegment.write(file, channelId, ascending, blockMessages);
+
+            List<ArchiveSegment> next = new ArrayList<>(current);
+            next.add(ArchiveSegment.open(file));
+            segments.put(channelId, List.copyOf(next));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not archive messages of channel " + channelId, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void deleteChannel(Long channelId) {
+        writeLock.lock();
+        try {
+            if (segments.remove(channelId) == null) {
+                return;
+            }
+            Path channelDirectory = channelDirectory(channelId);
+            try (Stream<Path> files = Files.list(channelDirectory)) {
+                for (Path file : files.toList()) {
+                    Files.deleteIfExists(file);
+                }
+                Files.deleteIfExists(channelDirectory);
+            } catch (IOException e) {
+                logger.warn("Could not delete archive of channel {}: {}", channelId, e.getMessage());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public Stats getStats() {
+        long messages = 0;
+        long bytes = 0;
+        int segmentCount = 0;
+        for (List<ArchiveSegment> channelSegments : segments.values()) {
+            for (ArchiveSegment segment : channelSegments) {
+                messages += segment.getMessageCount();
+                bytes += segment.getFileBytes();
+                segmentCount++;
+            }
+        }
+        return new Stats(segments.size(), segmentCount, messages, bytes);
+    }
+
+    private Path channelDirectory(Long channelId) {
+        return directory.resolve("channel-" + channelId);
+    }
+
+    private void load() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        int segmentCount = 0;
+        try (DirectoryStream<Path> channels = Files.newDirectoryStream(directory, "channel-*")) {
+            for (Path channelDirectory : channels) {
+                List<ArchiveSegment> channelSegments = new ArrayList<>();
+                try (Stream<Path> files = Files.list(channelDirectory)) {
+                    for (Path file : files.toList()) {
+                        String name = file.getFileName().toString();
+                        if (name.endsWith(SEGMENT_SUFFIX)) {
+                            channelSegments.add(ArchiveSegment.open(file));
+                        } else if (name.endsWith(".tmp")) {
+                            // Left over from a crash before the segment was published
+                            Files.deleteIfExists(file);
+                        }
+                    }
+                }
+                if (!channelSegments.isEmpty()) {
+                    channelSegments.sort(Comparator.comparing(ArchiveSegment::firstKey));
+                    segments.put(channelSegments.get(0).getChannelId(), List.copyOf(channelSegments));
+                    segmentCount += channelSegments.size();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load message archive from " + directory, e);
+        }
+        logger.info("Loaded {} archive segments for {} channels from {}", segmentCount, segments.size(), directory);
+    }
+
+    public static class Stats {
+        private final int channels;
+        private final int segments;
+        private final long messages;
+        private final long bytes;
+
+        public Stats(int channels, int segments, long messages, long bytes) {
+            this.channels = channels;
+            this.segments = segments;
+            this.messages = messages;
+            this.bytes = bytes;
+        }
+
+        public int getChannels() {
+            return channels;
+        }
+
+        public int getSegments() {
+            return segments;
+        }
+
+        public long getMessages() {
+            return messages;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.slackchat.archive;
+
+import com.example.slackchat.datasource.ReadRouting;
+import com.example.slackchat.dto.MessageCursor;
+import com.example.slackchat.dto.MessageSummary;
+import com.example.slackchat.repository.MessageRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves messages older than the configured age from the messages table into the archive, oldest
+ * first, one segment per batch. Each batch is read with its rows locked, appended and deleted in one
+ * transaction, so an edit or delete of those rows waits for the move and then finds the row gone
+ * instead of being lost or resurrected. A segment is published before the transaction commits, so a
+ * crash in between leaves rows that are both hot and archived; readers skip such duplicates and the
+ * next run deletes them.
+ * Segments live on this node's disk while the rows they replace are gone for every node, so the
+ * archive cannot be enabled together with the cluster bus.
+ */
+@Component
+public class MessageArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageArchiver.class);
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private MessageArchive messageArchive;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${chat.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${chat.archive.max-age-days:30}")
+    private int maxAgeDays;
+
+    @Value("${chat.archive.max-messages-per-segment:100000}")
+    private int maxMessagesPerSegment;
+
+    @Value("${chat.cluster.bus:memory}")
+    private String clusterBus;
+
+    @PostConstruct
+    public void checkSingleNode() {
+        if (enabled && "postgres".equals(clusterBus)) {
+            throw new IllegalStateException("chat.archive.enabled=true cannot be combined with chat.cluster.bus=postgres: "
+                    + "archived messages would only be readable on the node that archived them");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.archive.interval-ms:3600000}",
+            initialDelayString = "${chat.archive.initial-delay-ms:60000}")
+    public void archiveExpired() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archive(LocalDateTime.now().minusDays(maxAgeDays));
+        } catch (RuntimeException e) {
+            logger.error("Archiving messages failed", e);
+        }
+    }
+
+    public long archive(LocalDateTime cutoff) {
+        long started = System.currentTimeMillis();
+        long archived = 0;
+        List<Long> channelIds = messageRepository.findChannelIdsWithMessagesBefore(cutoff);
+        for (Long channelId : channelIds) {
+            archived += archiveChannel(channelId, cutoff);
+        }
+        if (archived > 0) {
+            logger.info("Archived {} messages of {} channels older than {} in {} ms", archived, channelIds.size(),
+                    cutoff, System.currentTimeMillis() - started);
+        }
+        return archived;
+    }
+
+    private long archiveChannel(Long channelId, LocalDateTime cutoff) {
+        // Rows left behind by a run that stopped between publishing a segment and deleting its rows
+        MessageCursor newest = messageArchive.newestCursor(channelId);
+        if (newest != null) {
+            messageRepository.deleteArchived(channelId, newest.getCreatedAt(), newest.getId());
+        }
+
+        long archived = 0;
+        while (true) {
+            int moved = ReadRouting.onPrimary(() -> transactionTemplate.execute(status -> moveBatch(channelId, cutoff)));
+            archived += moved;
+            if (moved < maxMessagesPerSegment) {
+                return archived;
+            }
+        }
+    }
+
+    private int moveBatch(Long channelId, LocalDateTime cutoff) {
+        List<MessageSummary> batch = messageRepository
+                .findArchiveBatch(channelId, cutoff, PageRequest.of(0, maxMessagesPerSegment))
+                .stream()
+                .map(MessageSummary::from)
+                .toList();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        messageArchive.append(channelId, batch);
+        MessageSummary last = batch.get(batch.size() - 1);
+        messageRepository.deleteArchived(channelId, last.getCreatedAt(), last.getId());
+        return batch.size();
+    }
+}
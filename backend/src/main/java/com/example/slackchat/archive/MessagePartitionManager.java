@@ -0,0 +1,132 @@
+package com.example.slackchat.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the monthly partitions of the PostgreSQL messages table ahead of the clock and, when configured,
+ * detaches months past the retention period. Detached partitions stay in the database as plain tables
+ * until an operator drops them. Does nothing on databases where messages is not partitioned.
+ */
+@Component
+public class MessagePartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessagePartitionManager.class);
+    private static final String PREFIX = "messages_p";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    // Held for one run so only one node changes partitions at a time
+    private static final long LOCK_KEY = 0x6d7367_7061_7274L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${chat.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    // 0 keeps every month attached
+    @Value("${chat.partitions.detach-after-months:0}")
+    private int detachAfterMonths;
+
+    private volatile Boolean partitioned;
+
+    @Scheduled(fixedDelayString = "${chat.partitions.interval-ms:3600000}")
+    public void maintain() {
+        try {
+            if (isPartitioned()) {
+                jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                    maintain(connection, YearMonth.now());
+                    return null;
+                });
+            }
+        } catch (RuntimeException e) {
+            logger.error("Maintaining message partitions failed", e);
+        }
+    }
+
+    void maintain(Connection connection, YearMonth now) throws SQLException {
+        if (!tryLock(connection)) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            List<String> existing = partitions(statement);
+            for (int i = 0; i <= monthsAhead; i++) {
+                YearMonth month = now.plusMonths(i);
+                String name = PREFIX + month.format(SUFFIX);
+                if (!existing.contains(name)) {
+                    statement.execute(createStatement(name, month));
+                    logger.info("Created message partition {}", name);
+                }
+            }
+            if (detachAfterMonths > 0) {
+                YearMonth oldestKept = now.minusMonths(detachAfterMonths);
+                for (String name : existing) {
+                    if (YearMonth.parse(name.substring(PREFIX.length()), SUFFIX).isBefore(oldestKept)) {
+                        // CONCURRENTLY (PostgreSQL 14+) lets reads and writes on other months continue meanwhile
+                        statement.execute("ALTER TABLE messages DETACH PARTITION " + name + " CONCURRENTLY");
+                        logger.info("Detached message partition {}", name);
+                    }
+                }
+            }
+        } finally {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+            }
+        }
+    }
+
+    static String createStatement(String name, YearMonth month) {
+        return "CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF messages FOR VALUES FROM ('"
+                + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            partitioned = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+                if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                    return false;
+                }
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery(
+                             "SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('messages')")) {
+                    return resultSet.next();
+                }
+            });
+        }
+        return partitioned;
+    }
+
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT pg_try_advisory_lock(" + LOCK_KEY + ")")) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+
+    // Attached partitions named by this class, oldest first
+    private static List<String> partitions(Statement statement) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery("SELECT c.relname FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = to_regclass('messages') "
+                + "AND c.relname ~ '^" + PREFIX + "[0-9]{6}$' ORDER BY c.relname")) {
+            while (resultSet.next()) {
+                names.add(resultSet.getString(1));
+            }
+        }
+        return names;
+    }
+}
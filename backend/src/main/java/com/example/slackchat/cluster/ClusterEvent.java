@@ -0,0 +1,152 @@
+package com.example.slackchat.cluster;
+
+import com.example.slackchat.dto.MessageSummary;
+
+/**
+ * A change made on one backend node that other nodes mirror into their in-process state.
+ * Only the fields the type needs are set.
+ */
+public class ClusterEvent {
+
+    public enum Type {
+        MESSAGE_CREATED,
+        MESSAGE_UPDATED,
+        MESSAGE_DELETED,
+        CHANNEL_CREATED,
+        CHANNEL_DELETED,
+        MEMBER_JOINED,
+        MEMBER_LEFT,
+        READ_MARKED,
+        USER_UPDATED,
+        // Events were lost; drop every cache they would have kept current
+        RESYNC
+    }
+
+    private Type type;
+    private String origin;
+    private Long channelId;
+    private Long userId;
+    private Long messageId;
+    private String username;
+    // May be left out of large events; receivers then load the message by id
+    private MessageSummary message;
+
+    public ClusterEvent() {}
+
+    private ClusterEvent(Type type, Long channelId, Long userId, Long messageId) {
+        this.type = type;
+        this.channelId = channelId;
+        this.userId = userId;
+        this.messageId = messageId;
+    }
+
+    public static ClusterEvent messageCreated(MessageSummary message) {
+        ClusterEvent event = new ClusterEvent(Type.MESSAGE_CREATED, message.getChannelId(), null, message.getId());
+        event.message = message;
+        return event;
+    }
+
+    public static ClusterEvent messageUpdated(MessageSummary message) {
+        ClusterEvent event = new ClusterEvent(Type.MESSAGE_UPDATED, message.getChannelId(), null, message.getId());
+        event.message = message;
+        return event;
+    }
+
+    public static ClusterEvent messageDeleted(Long channelId, Long messageId) {
+        return new ClusterEvent(Type.MESSAGE_DELETED, channelId, null, messageId);
+    }
+
+    public static ClusterEvent channelCreated(Long channelId, Long createdById) {
+        return new ClusterEvent(Type.CHANNEL_CREATED, channelId, createdById, null);
+    }
+
+    public static ClusterEvent channelDeleted(Long channelId) {
+        return new ClusterEvent(Type.CHANNEL_DELETED, channelId, null, null);
+    }
+
+    public static ClusterEvent memberJoined(Long channelId, Long userId) {
+        return new ClusterEvent(Type.MEMBER_JOINED, channelId, userId, null);
+    }
+
+    public static ClusterEvent memberLeft(Long channelId, Long userId) {
+        return new ClusterEvent(Type.MEMBER_LEFT, channelId, userId, null);
+    }
+
+    public static ClusterEvent readMarked(Long userId, Long channelId, Long messageId) {
+        return new ClusterEvent(Type.READ_MARKED, channelId, userId, messageId);
+    }
+
+    public static ClusterEvent userUpdated(Long userId, String username) {
+        ClusterEvent event = new ClusterEvent(Type.USER_UPDATED, null, userId, null);
+        event.username = username;
+        return event;
+    }
+
+    public static ClusterEvent resync() {
+        return new ClusterEvent(Type.RESYNC, null, null, null);
+    }
+
+    // The same event without its message body
+    ClusterEvent withoutMessage() {
+        ClusterEvent event = new ClusterEvent(type, channelId, userId, messageId);
+        event.origin = origin;
+        event.username = username;
+        return event;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public Long getChannelId() {
+        return channelId;
+    }
+
+    public void setChannelId(Long channelId) {
+        this.channelId = channelId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(Long messageId) {
+        this.messageId = messageId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public MessageSummary getMessage() {
+        return message;
+    }
+
+    public void setMessage(MessageSummary message) {
+        this.message = message;
+    }
+}
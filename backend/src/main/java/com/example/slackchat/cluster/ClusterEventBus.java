@@ -0,0 +1,16 @@
+package com.example.slackchat.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries change events between backend nodes, so every node keeps its caches, indexes and WebSocket
+ * subscribers in step with writes made on the others. A node applies its own changes directly:
+ * subscribers only see events published by other nodes, plus RESYNC when the bus may have lost some.
+ */
+public interface ClusterEventBus {
+
+    // Called after the change is committed; never blocks on the network
+    void publish(ClusterEvent event);
+
+    void subscribe(Consumer<ClusterEvent> listener);
+}
@@ -0,0 +1,155 @@
+package com.example.slackchat.cluster;
+
+import com.example.slackchat.datasource.HibernateCaches;
+import com.example.slackchat.datasource.ReadRouting;
+import com.example.slackchat.dto.MessageSummary;
+import com.example.slackchat.repository.MessageRepository;
+import com.example.slackchat.search.MessageSearchIndex;
+import com.example.slackchat.service.ChannelMembershipIndex;
+import com.example.slackchat.service.ContentVersions;
+import com.example.slackchat.service.ReadStateService;
+import com.example.slackchat.service.RecentMessageCache;
+import com.example.slackchat.service.UserService;
+import com.example.slackchat.websocket.MessageEventPublisher;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mirrors other nodes' changes into this node: caches, indexes, ETag versions and the WebSocket
+ * subscribers connected here. Database writes stay with the node that made the change.
+ */
+@Component
+public class ClusterEventHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterEventHandler.class);
+
+    @Autowired
+    private ClusterEventBus clusterEventBus;
+
+    @Autowired
+    private RecentMessageCache recentMessageCache;
+
+    @Autowired
+    private ReadStateService readStateService;
+
+    @Autowired
+    private MessageSearchIndex messageSearchIndex;
+
+    @Autowired
+    private ChannelMembershipIndex channelMembershipIndex;
+
+    @Autowired
+    private ContentVersions contentVersions;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MessageEventPublisher messageEventPublisher;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private HibernateCaches hibernateCaches;
+
+    @PostConstruct
+    public void subscribe() {
+        clusterEventBus.subscribe(this::handle);
+    }
+
+    public void handle(ClusterEvent event) {
+        switch (event.getType()) {
+            case MESSAGE_CREATED -> {
+                MessageSummary message = resolve(event);
+                if (message != null) {
+                    recentMessageCache.onCreated(message);
+                    readStateService.onRemoteMessageCreated(message);
+                    messageSearchIndex.index(message.getId(), message.getChannelId(), message.getContent());
+                    contentVersions.channelChanged(message.getChannelId());
+                    messageEventPublisher.publishCreated(message);
+                }
+            }
+            case MESSAGE_UPDATED -> {
+                MessageSummary message = resolve(event);
+                if (message != null) {
+                    recentMessageCache.onUpdated(message);
+                    messageSearchIndex.index(message.getId(), message.getChannelId(), message.getContent());
+                    contentVersions.channelChanged(message.getChannelId());
+                    messageEventPublisher.publishUpdated(message);
+                }
+            }
+            case MESSAGE_DELETED -> {
+                recentMessageCache.onDeleted(event.getChannelId(), event.getMessageId());
+                readStateService.onMessageDeleted(event.getChannelId(), event.getMessageId());
+                messageSearchIndex.remove(event.getMessageId());
+                contentVersions.channelChanged(event.getChannelId());
+                messageEventPublisher.publishDeleted(event.getChannelId(), event.getMessageId());
+            }
+            case CHANNEL_CREATED -> {
+                hibernateCaches.channelChanged(event.getChannelId());
+                channelMembershipIndex.channelCreated(event.getChannelId(), event.getUserId());
+                contentVersions.directoryChanged();
+                contentVersions.channelSetChanged(event.getUserId());
+            }
+            case CHANNEL_DELETED -> {
+                hibernateCaches.channelDeleted(event.getChannelId());
+                recentMessageCache.evictChannel(event.getChannelId());
+                channelMembershipIndex.evictChannel(event.getChannelId());
+                readStateService.onRemoteChannelDeleted(event.getChannelId());
+                contentVersions.channelChanged(event.getChannelId());
+                contentVersions.directoryChanged();
+            }
+            case MEMBER_JOINED, MEMBER_LEFT -> {
+                if (event.getType() == ClusterEvent.Type.MEMBER_JOINED) {
+                    channelMembershipIndex.addMember(event.getChannelId(), event.getUserId());
+                } else {
+                    channelMembershipIndex.removeMember(event.getChannelId(), event.getUserId());
+                }
+                hibernateCaches.channelChanged(event.getChannelId());
+                contentVersions.channelChanged(event.getChannelId());
+                contentVersions.channelSetChanged(event.getUserId());
+                contentVersions.directoryChanged();
+            }
+            case READ_MARKED -> readStateService.onRemoteRead(event.getUserId(), event.getChannelId(),
+                    event.getMessageId());
+            case USER_UPDATED -> {
+                hibernateCaches.userChanged(event.getUserId());
+                userService.evictPrincipal(event.getUsername());
+                contentVersions.usersChanged();
+            }
+            case RESYNC -> resync();
+        }
+    }
+
+    // The search index cannot be rebuilt from here; messages missed meanwhile are found again once edited
+    private void resync() {
+        logger.warn("Dropping cached channel, message and user state after missed cluster events");
+        hibernateCaches.evictAll();
+        recentMessageCache.evictAll();
+        channelMembershipIndex.evictAll();
+        readStateService.evictCaches();
+        userService.evictAllPrincipals();
+        contentVersions.invalidateAll();
+    }
+
+    // Events are sent after the commit, so the primary has the row unless the message was deleted since; a replica
+    // might not have it yet
+    private MessageSummary resolve(ClusterEvent event) {
+        if (event.getMessage() != null) {
+            return event.getMessage();
+        }
+        MessageSummary message = ReadRouting.onPrimary(() -> messageRepository.findSummaryById(event.getMessageId()))
+                .orElse(null);
+        if (message == null) {
+            logger.info("Message {} of {} event is gone; dropping channel {} cached window",
+                    event.getMessageId(), event.getType(), event.getChannelId());
+            recentMessageCache.evictChannel(event.getChannelId());
+            contentVersions.channelChanged(event.getChannelId());
+        }
+        return message;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.slackchat.cluster;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+/**
+ * The default bus for a single node. Buses configured with the same group name in one JVM deliver to each
+ * other synchronously, which lets tests run several application contexts as a cluster.
+ */
+@Component
+@ConditionalOnProperty(name = "chat.cluster.bus", havingValue = "memory", matchIfMissing = true)
+public class InMemoryClusterEventBus implements ClusterEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryClusterEventBus.class);
+    private static final Map<String, Set<InMemoryClusterEventBus>> GROUPS = new ConcurrentHashMap<>();
+
+    private final String group;
+    private final List<Consumer<ClusterEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    public InMemoryClusterEventBus(@Value("${chat.cluster.memory.group:}") String group) {
+        this.group = group;
+        if (!group.isEmpty()) {
+            GROUPS.computeIfAbsent(group, name -> new CopyOnWriteArraySet<>()).add(this);
+        }
+    }
+
+    @Override
+    public void publish(ClusterEvent event) {
+        if (group.isEmpty()) {
+            return;
+        }
+        for (InMemoryClusterEventBus node : GROUPS.getOrDefault(group, Set.of())) {
+            if (node != this) {
+                node.deliver(event);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<ClusterEvent> listener) {
+        listeners.add(listener);
+    }
+
+    @PreDestroy
+    public void leave() {
+        if (!group.isEmpty()) {
+            GROUPS.getOrDefault(group, Set.of()).remove(this);
+        }
+    }
+
+    private void deliver(ClusterEvent event) {
+        for (Consumer<ClusterEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                logger.warn("Cluster event {} failed: {}", event.getType(), e.getMessage());
+            }
+        }
+    }
+}
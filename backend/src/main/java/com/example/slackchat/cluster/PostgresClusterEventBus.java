@@ -0,0 +1,319 @@
+package com.example.slackchat.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Cluster bus over Postgres LISTEN/NOTIFY, so nodes sharing a database need no extra broker.
+ * A sender thread batches queued events into JSON-array notifications sent through the pool; a listener
+ * thread holds its own connection outside the pool and reconnects with backoff when it drops.
+ * Postgres keeps no backlog for a disconnected listener, so a reconnect, or an outbox overflow on any node,
+ * makes every affected node resync instead of replaying.
+ */
+@Component
+@ConditionalOnProperty(name = "chat.cluster.bus", havingValue = "postgres")
+public class PostgresClusterEventBus implements ClusterEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresClusterEventBus.class);
+    // NOTIFY rejects payloads of 8000 bytes or more
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private final String node = UUID.randomUUID().toString();
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String channel;
+    private final int batchSize;
+    private final long batchDelayMillis;
+    private final long pollMillis;
+    private final long keepaliveMillis;
+    private final long maxReconnectDelayMillis;
+
+    private final BlockingQueue<ClusterEvent> outbox;
+    private final List<Consumer<ClusterEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private final Counter published;
+    private final Counter received;
+    private final Counter dropped;
+    private final Counter reconnects;
+
+    private volatile boolean running;
+    private Thread sender;
+    private Thread listener;
+
+    public PostgresClusterEventBus(JdbcTemplate jdbcTemplate,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${spring.datasource.url}") String url,
+                                   @Value("${spring.datasource.username:}") String username,
+                                   @Value("${spring.datasource.password:}") String password,
+                                   @Value("${chat.cluster.postgres.channel:chat_events}") String channel,
+                                   @Value("${chat.cluster.postgres.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${chat.cluster.postgres.batch-size:200}") int batchSize,
+                                   @Value("${chat.cluster.postgres.batch-delay-ms:5}") long batchDelayMillis,
+                                   @Value("${chat.cluster.postgres.poll-ms:500}") long pollMillis,
+                                   @Value("${chat.cluster.postgres.keepalive-ms:30000}") long keepaliveMillis,
+                                   @Value("${chat.cluster.postgres.max-reconnect-delay-ms:30000}") long maxReconnectDelayMillis) {
+        // LISTEN takes an identifier, not a bind parameter
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid cluster notification channel: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.channel = channel;
+        this.batchSize = batchSize;
+        this.batchDelayMillis = batchDelayMillis;
+        this.pollMillis = pollMillis;
+        this.keepaliveMillis = keepaliveMillis;
+        this.maxReconnectDelayMillis = maxReconnectDelayMillis;
+        this.outbox = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.published = Counter.builder("chat.cluster.events.published")
+                .description("Events sent to other nodes")
+                .register(meterRegistry);
+        this.received = Counter.builder("chat.cluster.events.received")
+                .description("Events received from other nodes")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("chat.cluster.events.dropped")
+                .description("Events dropped because the outbox was full; other nodes resync instead")
+                .register(meterRegistry);
+        this.reconnects = Counter.builder("chat.cluster.reconnects")
+                .description("Times the listener connection was re-established")
+                .register(meterRegistry);
+        Gauge.builder("chat.cluster.outbox.depth", outbox, BlockingQueue::size)
+                .description("Events waiting for the sender thread")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        sender = new Thread(this::runSender, "cluster-bus-sender");
+        sender.setDaemon(true);
+        sender.start();
+        listener = new Thread(this::runListener, "cluster-bus-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        // The sender drains what is queued before it exits
+        sender.join(TimeUnit.SECONDS.toMillis(5));
+        listener.interrupt();
+        listener.join(pollMillis + TimeUnit.SECONDS.toMillis(1));
+    }
+
+    @Override
+    public void publish(ClusterEvent event) {
+        event.setOrigin(node);
+        if (!outbox.offer(event)) {
+            dropped.increment();
+            if (!overflowed.getAndSet(true)) {
+                logger.warn("Cluster event outbox is full; other nodes will resync");
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<ClusterEvent> listener) {
+        listeners.add(listener);
+    }
+
+    private void runSender() {
+        List<ClusterEvent> batch = new ArrayList<>(batchSize);
+        while (running || !outbox.isEmpty()) {
+            try {
+                ClusterEvent first = outbox.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Linger briefly so a burst of writes goes out in a few notifications
+                if (batchDelayMillis > 0 && running) {
+                    Thread.sleep(batchDelayMillis);
+                }
+                outbox.drainTo(batch, batchSize - 1);
+                if (overflowed.getAndSet(false)) {
+                    ClusterEvent resync = ClusterEvent.resync();
+                    resync.setOrigin(node);
+                    batch.add(resync);
+                }
+                send(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void send(List<ClusterEvent> batch) throws InterruptedException {
+        List<String> payloads = encode(batch);
+        long delay = 100;
+        for (int i = 0; i < payloads.size(); ) {
+            try {
+                jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, payloads.get(i));
+                i++;
+                delay = 100;
+            } catch (DataAccessException e) {
+                if (!running) {
+                    logger.warn("Dropping {} cluster notifications on shutdown: {}", payloads.size() - i, e.getMessage());
+                    return;
+                }
+                logger.warn("Could not send cluster events, retrying in {} ms: {}", delay, e.getMessage());
+                Thread.sleep(delay);
+                delay = Math.min(delay * 2, maxReconnectDelayMillis);
+            }
+        }
+        published.increment(batch.size());
+    }
+
+    // Packs events into JSON arrays that each fit one notification
+    List<String> encode(List<ClusterEvent> batch) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder("[");
+        int payloadBytes = 2;
+        for (ClusterEvent event : batch) {
+            String json = toJson(event);
+            int bytes = json.getBytes(StandardCharsets.UTF_8).length;
+            if (bytes + 2 > MAX_PAYLOAD_BYTES && event.getMessage() != null) {
+                json = toJson(event.withoutMessage());
+                bytes = json.getBytes(StandardCharsets.UTF_8).length;
+            }
+            if (payload.length() > 1 && payloadBytes + bytes + 1 > MAX_PAYLOAD_BYTES) {
+                payloads.add(payload.append(']').toString());
+                payload = new StringBuilder("[");
+                payloadBytes = 2;
+            }
+            if (payload.length() > 1) {
+                payload.append(',');
+                payloadBytes++;
+            }
+            payload.append(json);
+            payloadBytes += bytes;
+        }
+        if (payload.length() > 1) {
+            payloads.add(payload.append(']').toString());
+        }
+        return payloads;
+    }
+
+    private String toJson(ClusterEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize cluster event " + event.getType(), e);
+        }
+    }
+
+    private void runListener() {
+        boolean connectedBefore = false;
+        long delay = 100;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection notifications = connection.unwrap(PGConnection.class);
+                if (connectedBefore) {
+                    reconnects.increment();
+                    logger.info("Cluster event listener reconnected; resyncing");
+                    deliver(ClusterEvent.resync());
+                }
+                connectedBefore = true;
+                delay = 100;
+
+                long lastCheck = System.currentTimeMillis();
+                while (running) {
+                    PGNotification[] batch = notifications.getNotifications((int) pollMillis);
+                    if (batch != null) {
+                        for (PGNotification notification : batch) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                    // A half-open TCP connection never fails the poll above
+                    if (System.currentTimeMillis() - lastCheck >= keepaliveMillis) {
+                        if (!connection.isValid(5)) {
+                            throw new SQLException("Listener connection is no longer valid");
+                        }
+                        lastCheck = System.currentTimeMillis();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Cluster event listener lost its connection, retrying in {} ms: {}", delay, e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                delay = Math.min(delay * 2, maxReconnectDelayMillis);
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        ClusterEvent[] events;
+        try {
+            events = objectMapper.readValue(payload, ClusterEvent[].class);
+        } catch (JsonProcessingException e) {
+            logger.warn("Unreadable cluster notification; resyncing: {}", e.getMessage());
+            deliver(ClusterEvent.resync());
+            return;
+        }
+        for (ClusterEvent event : events) {
+            if (!node.equals(event.getOrigin())) {
+                received.increment();
+                deliver(event);
+            }
+        }
+    }
+
+    private void deliver(ClusterEvent event) {
+        for (Consumer<ClusterEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                logger.warn("Cluster event {} failed: {}", event.getType(), e.getMessage());
+            }
+        }
+    }
+}
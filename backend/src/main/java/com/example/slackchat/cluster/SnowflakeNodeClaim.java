@@ -0,0 +1,141 @@
+package com.example.slackchat.cluster;
+
+import com.example.slackchat.model.Snowflake;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Claims this node's snowflake node id with a session-level Postgres advisory lock, held on a connection outside
+ * the pool for as long as the node runs, so two nodes configured with the same id refuse to start instead of
+ * minting colliding ids. The id must be set explicitly whenever the postgres cluster bus is on. If the connection
+ * drops, the claim is retaken on the next keepalive; losing it to another node by then is logged as an error.
+ */
+@Component
+@ConditionalOnProperty(name = "chat.cluster.bus", havingValue = "postgres")
+public class SnowflakeNodeClaim {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnowflakeNodeClaim.class);
+    // First key of the two-key advisory lock; the node id is the second
+    private static final int LOCK_CLASS = 0x736e6f77;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String configuredNodeId;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long nodeId;
+    private Connection connection;
+
+    public SnowflakeNodeClaim(@Value("${spring.datasource.url}") String url,
+                              @Value("${spring.datasource.username:}") String username,
+                              @Value("${spring.datasource.password:}") String password,
+                              @Value("${chat.snowflake.node-id:}") String configuredNodeId) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.configuredNodeId = configuredNodeId;
+    }
+
+    @PostConstruct
+    public void claim() throws SQLException {
+        nodeId = parseNodeId(configuredNodeId);
+        lock.lock();
+        try {
+            connection = tryClaim();
+            if (connection == null) {
+                throw new IllegalStateException("Snowflake node id " + nodeId
+                        + " is already claimed by another running node; give each node its own chat.snowflake.node-id");
+            }
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Claimed snowflake node id {}", nodeId);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.cluster.postgres.keepalive-ms:30000}")
+    public void keepalive() {
+        lock.lock();
+        try {
+            if (connection != null && connection.isValid(5)) {
+                return;
+            }
+            close();
+            connection = tryClaim();
+            if (connection == null) {
+                logger.error("Snowflake node id {} was claimed by another node while this node's claim was lost", nodeId);
+            } else {
+                logger.info("Reclaimed snowflake node id {}", nodeId);
+            }
+        } catch (SQLException e) {
+            logger.warn("Could not reclaim snowflake node id {}: {}", nodeId, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        lock.lock();
+        try {
+            close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static long parseNodeId(String configured) {
+        if (configured == null || configured.isBlank()) {
+            throw new IllegalStateException("chat.snowflake.node-id must be set when chat.cluster.bus=postgres: "
+                    + "nodes left on the default would mint the same ids");
+        }
+        long id = Long.parseLong(configured.trim());
+        if (id < 0 || id > Snowflake.MAX_NODE_ID) {
+            throw new IllegalStateException("chat.snowflake.node-id must be between 0 and " + Snowflake.MAX_NODE_ID);
+        }
+        return id;
+    }
+
+    // Returns the connection holding the claim, or null when another session holds it
+    private Connection tryClaim() throws SQLException {
+        Connection claimed = DriverManager.getConnection(url, username, password);
+        try (Statement statement = claimed.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT pg_try_advisory_lock(" + LOCK_CLASS + ", " + nodeId + ")")) {
+            if (resultSet.next() && resultSet.getBoolean(1)) {
+                return claimed;
+            }
+        } catch (SQLException e) {
+            claimed.close();
+            throw e;
+        }
+        claimed.close();
+        return null;
+    }
+
+    // Closing the session releases the advisory lock
+    private void close() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.debug("Closing the snowflake claim connection failed", e);
+        }
+        connection = null;
+    }
+}
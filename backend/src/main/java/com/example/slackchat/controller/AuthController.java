@@ -5,8 +5,12 @@ import com.example.slackchat.dto.LoginRequest;
 import com.example.slackchat.dto.SignupRequest;
 import com.example.slackchat.dto.MessageResponse;
 import com.example.slackchat.model.User;
+import com.example.slackchat.ratelimit.RateLimits;
+import com.example.slackchat.security.AuthenticatedUser;
 import com.example.slackchat.security.JwtUtils;
+import com.example.slackchat.service.PresenceService;
 import com.example.slackchat.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,8 +38,24 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    PresenceService presenceService;
+
+    @Autowired
+    RateLimits rateLimits;
+
     @PostMapping("/signin")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                              HttpServletRequest request) {
+        // Checked before the password hash, so a flood of guesses costs no BCrypt work. The address is the
+        // client's own behind a proxy only with server.forward-headers-strategy set
+        String key = loginRequest.getUsername() + "@" + request.getRemoteAddr();
+        long retryAfter = rateLimits.signinsPerUser().tryAcquire(key);
+        if (retryAfter > 0) {
+            logger.warn("Sign-in rate limit hit for {}", key);
+            return RateLimits.tooManyRequests(retryAfter);
+        }
+
         try {
             logger.info("Attempting to authenticate user: {}", loginRequest.getUsername());
             
@@ -46,7 +66,7 @@ public class AuthController {
             String jwt = jwtUtils.generateToken((User) authentication.getPrincipal());
 
             User user = (User) authentication.getPrincipal();
-            userService.setUserOnlineStatus(user.getUsername(), true);
+            presenceService.heartbeat(user.getId());
 
             logger.info("User {} authenticated successfully", user.getUsername());
             return ResponseEntity.ok(new JwtResponse(jwt, user.getId(), user.getUsername(), user.getEmail()));
@@ -80,9 +100,9 @@ public class AuthController {
     @PostMapping("/signout")
     public ResponseEntity<?> logoutUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.getPrincipal() instanceof User) {
-            User user = (User) authentication.getPrincipal();
-            userService.setUserOnlineStatus(user.getUsername(), false);
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser) {
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            presenceService.disconnect(user.getId());
         }
         return ResponseEntity.ok(new MessageResponse("User signed out successfully!"));
     }
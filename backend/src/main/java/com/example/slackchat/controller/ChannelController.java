@@ -1,16 +1,26 @@
 package com.example.slackchat.controller;
 
+import com.example.slackchat.dto.ChannelReadState;
 import com.example.slackchat.dto.ChannelRequest;
+import com.example.slackchat.dto.ChannelSummary;
 import com.example.slackchat.dto.MessageResponse;
+import com.example.slackchat.dto.ReadMarkerRequest;
+import com.example.slackchat.dto.UserSummary;
 import com.example.slackchat.model.Channel;
 import com.example.slackchat.model.User;
+import com.example.slackchat.ratelimit.RateLimits;
+import com.example.slackchat.security.AuthenticatedUser;
 import com.example.slackchat.service.ChannelService;
+import com.example.slackchat.service.ContentVersions;
+import com.example.slackchat.service.ReadStateService;
 import com.example.slackchat.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -20,43 +30,136 @@ import java.util.Optional;
 @RequestMapping("/api/channels")
 public class ChannelController {
 
+    private static final int MAX_MEMBERS_PAGE_SIZE = 200;
+
     @Autowired
     private ChannelService channelService;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ReadStateService readStateService;
+
+    @Autowired
+    private RateLimits rateLimits;
+
+    @Autowired
+    private ContentVersions contentVersions;
+
+    // Tags are taken before loading; checkNotModified answers a matching If-None-Match with 304 and no body
     @GetMapping
-    public ResponseEntity<List<Channel>> getAllChannels() {
-        List<Channel> channels = channelService.findPublicChannels();
-        return ResponseEntity.ok(channels);
+    public ResponseEntity<List<ChannelSummary>> getAllChannels(WebRequest webRequest) {
+        String etag = contentVersions.directoryTag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<ChannelSummary> channels = channelService.findPublicChannelSummaries();
+        return ContentVersions.tagged(etag, channels);
     }
 
     @GetMapping("/my")
-    public ResponseEntity<List<Channel>> getMyChannels(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        List<Channel> channels = channelService.findChannelsByMember(user);
-        return ResponseEntity.ok(channels);
+    public ResponseEntity<List<ChannelSummary>> getMyChannels(Authentication authentication, WebRequest webRequest) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        String etag = contentVersions.channelSetTag(user.getId(),
+                () -> channelService.findChannelIdsByMember(user.getId()));
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<ChannelSummary> channels = channelService.findChannelSummariesByMember(user.getId());
+        return ContentVersions.tagged(etag, channels);
+    }
+
+    @GetMapping("/my/read-state")
+    public ResponseEntity<List<ChannelReadState>> getMyReadState(Authentication authentication,
+                                                                 WebRequest webRequest) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        String etag = contentVersions.readStateTag(user.getId(),
+                () -> channelService.findChannelIdsByMember(user.getId()));
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<ChannelSummary> channels = channelService.findChannelSummariesByMember(user.getId());
+        return ContentVersions.tagged(etag, readStateService.getReadStates(user.getId(), channels));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Channel> getChannelById(@PathVariable Long id) {
-        Optional<Channel> channel = channelService.findById(id);
-        return channel.map(ResponseEntity::ok)
+    public ResponseEntity<ChannelSummary> getChannelById(@PathVariable Long id, WebRequest webRequest) {
+        String etag = contentVersions.channelTag(id);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        Optional<ChannelSummary> channel = channelService.findSummaryById(id);
+        return channel.map(summary -> ContentVersions.tagged(etag, summary))
                      .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/members")
+    public ResponseEntity<?> getChannelMembers(@PathVariable Long id,
+                                               @RequestParam(defaultValue = "0") int page,
+                                               @RequestParam(defaultValue = "50") int size,
+                                               Authentication authentication,
+                                               WebRequest webRequest) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        // Only members skip the privacy check, which needs the channel row
+        String etag = contentVersions.channelTag(id);
+        if (channelService.isMember(id, user.getId()) && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        Optional<ChannelSummary> channel = channelService.findSummaryById(id);
+        if (channel.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        if (channel.get().isPrivate() && !channelService.isMember(id, user.getId())) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: You are not a member of this channel"));
+        }
+
+        int pageSize = Math.max(1, Math.min(size, MAX_MEMBERS_PAGE_SIZE));
+        Page<UserSummary> members = channelService.findMembers(id, Math.max(0, page), pageSize);
+        return ContentVersions.tagged(etag, members);
+    }
+
+    @PostMapping("/{id}/read")
+    public ResponseEntity<?> markRead(@PathVariable Long id, @Valid @RequestBody ReadMarkerRequest request,
+                                      Authentication authentication) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        Optional<ChannelSummary> channel = channelService.findSummaryById(id);
+        if (channel.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!channelService.isMember(id, user.getId())) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: You are not a member of this channel"));
+        }
+
+        try {
+            readStateService.markRead(user.getId(), id, request.getMessageId());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: " + e.getMessage()));
+        }
+        return ResponseEntity.ok(readStateService.getReadState(user.getId(), channel.get()));
+    }
+
     @PostMapping
     public ResponseEntity<?> createChannel(@Valid @RequestBody ChannelRequest channelRequest,
                                          Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+            long retryAfter = rateLimits.channelWritesPerUser().tryAcquire(principal.getId());
+            if (retryAfter > 0) {
+                return RateLimits.tooManyRequests(retryAfter);
+            }
+            User user = userService.getUserById(principal.getId());
             Channel channel = channelService.createChannel(
                 channelRequest.getName(),
                 channelRequest.getDescription(),
                 user
             );
-            return ResponseEntity.ok(channel);
+            return ResponseEntity.ok(ChannelSummary.from(channel));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error: " + e.getMessage()));
@@ -66,9 +169,14 @@ public class ChannelController {
     @PostMapping("/{id}/join")
     public ResponseEntity<?> joinChannel(@PathVariable Long id, Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
-            Channel channel = channelService.addMemberToChannel(id, user);
-            return ResponseEntity.ok(channel);
+            AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+            long retryAfter = rateLimits.channelWritesPerUser().tryAcquire(principal.getId());
+            if (retryAfter > 0) {
+                return RateLimits.tooManyRequests(retryAfter);
+            }
+            User user = userService.getUserById(principal.getId());
+            channelService.addMemberToChannel(id, user);
+            return ResponseEntity.ok(channelService.findSummaryById(id).orElseThrow());
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error: " + e.getMessage()));
@@ -78,9 +186,14 @@ public class ChannelController {
     @PostMapping("/{id}/leave")
     public ResponseEntity<?> leaveChannel(@PathVariable Long id, Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
-            Channel channel = channelService.removeMemberFromChannel(id, user);
-            return ResponseEntity.ok(channel);
+            AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+            long retryAfter = rateLimits.channelWritesPerUser().tryAcquire(principal.getId());
+            if (retryAfter > 0) {
+                return RateLimits.tooManyRequests(retryAfter);
+            }
+            User user = userService.getUserById(principal.getId());
+            channelService.removeMemberFromChannel(id, user);
+            return ResponseEntity.ok(channelService.findSummaryById(id).orElseThrow());
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error: " + e.getMessage()));
@@ -1,60 +1,245 @@
 package com.example.slackchat.controller;
 
+import com.example.slackchat.dto.MessageCursor;
+import com.example.slackchat.dto.MessageHistoryResponse;
 import com.example.slackchat.dto.MessageRequest;
 import com.example.slackchat.dto.MessageResponse;
+import com.example.slackchat.dto.MessageSearchResponse;
+import com.example.slackchat.dto.MessageSummary;
 import com.example.slackchat.model.Channel;
 import com.example.slackchat.model.Message;
 import com.example.slackchat.model.User;
+import com.example.slackchat.ratelimit.RateLimits;
+import com.example.slackchat.security.AuthenticatedUser;
 import com.example.slackchat.service.ChannelService;
+import com.example.slackchat.service.ContentVersions;
+import com.example.slackchat.service.IngestionUnavailableException;
 import com.example.slackchat.service.MessageService;
+import com.example.slackchat.service.UserService;
+import com.example.slackchat.websocket.MessageEventPublisher;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/messages")
 public class MessageController {
 
+    private static final int MAX_HISTORY_LIMIT = 200;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     @Autowired
     private MessageService messageService;
 
     @Autowired
     private ChannelService channelService;
 
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MessageEventPublisher messageEventPublisher;
+
+    @Autowired
+    private RateLimits rateLimits;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ContentVersions contentVersions;
+
+    // Every page of a channel is tagged with the channel's version, taken before loading
     @GetMapping("/channel/{channelId}")
-    public ResponseEntity<List<Message>> getMessagesByChannel(@PathVariable Long channelId,
-                                                            @RequestParam(defaultValue = "50") int limit) {
-        List<Message> messages = messageService.findRecentMessagesByChannelId(channelId, limit);
-        return ResponseEntity.ok(messages);
+    public ResponseEntity<List<MessageSummary>> getMessagesByChannel(@PathVariable Long channelId,
+                                                                   @RequestParam(defaultValue = "50") int limit,
+                                                                   WebRequest webRequest) {
+        String etag = contentVersions.channelTag(channelId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<MessageSummary> messages = messageService.findRecentMessagesByChannelId(channelId,
+                Math.max(1, Math.min(limit, MAX_HISTORY_LIMIT)));
+        return ContentVersions.tagged(etag, messages);
     }
 
     @GetMapping("/channel/{channelId}/paginated")
-    public ResponseEntity<Page<Message>> getMessagesByChannelPaginated(
+    public ResponseEntity<Page<MessageSummary>> getMessagesByChannelPaginated(
             @PathVariable Long channelId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest webRequest) {
+
+        String etag = contentVersions.channelTag(channelId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         Optional<Channel> channelOpt = channelService.findById(channelId);
         if (channelOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
-        Page<Message> messages = messageService.findMessagesByChannelPaginated(channelOpt.get(), page, size);
-        return ResponseEntity.ok(messages);
+        return ContentVersions.tagged(etag, messageService.findMessagesByChannelPaginated(channelOpt.get(),
+                Math.max(0, page), Math.max(1, Math.min(size, MAX_HISTORY_LIMIT))));
+    }
+
+    @GetMapping("/channel/{channelId}/history")
+    public ResponseEntity<?> getMessageHistory(
+            @PathVariable Long channelId,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest webRequest) {
+
+        if ((before != null ? 1 : 0) + (after != null ? 1 : 0) + (at != null ? 1 : 0) > 1) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: Only one of before, after or at may be given"));
+        }
+        String etag = contentVersions.channelTag(channelId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_LIMIT));
+
+        try {
+            if (after != null) {
+                // Fetch one extra row to learn whether a newer page exists without a COUNT query
+                List<MessageSummary> messages = new ArrayList<>(
+                        messageService.findMessagesAfter(channelId, MessageCursor.decode(after), pageSize + 1));
+                boolean hasNewer = messages.size() > pageSize;
+                if (hasNewer) {
+                    messages = messages.subList(0, pageSize);
+                }
+                Collections.reverse(messages);
+                return ContentVersions.tagged(etag, new MessageHistoryResponse(messages,
+                        messages.isEmpty() ? null : MessageCursor.of(messages.get(messages.size() - 1)).encode(),
+                        hasNewer ? MessageCursor.of(messages.get(0)).encode() : null));
+            }
+
+            MessageCursor cursor = before != null ? MessageCursor.decode(before)
+                    : at != null ? MessageCursor.at(at) : null;
+            List<MessageSummary> messages = messageService.findMessagesBefore(channelId, cursor, pageSize + 1);
+            boolean hasOlder = messages.size() > pageSize;
+            if (hasOlder) {
+                messages = messages.subList(0, pageSize);
+            }
+            return ContentVersions.tagged(etag, new MessageHistoryResponse(messages,
+                    hasOlder ? MessageCursor.of(messages.get(messages.size() - 1)).encode() : null,
+                    cursor != null && !messages.isEmpty() ? MessageCursor.of(messages.get(0)).encode() : null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+
+    // One JSON message per line, oldest first; gzip-compressed when the client accepts it
+    @GetMapping("/channel/{channelId}/export")
+    public ResponseEntity<StreamingResponseBody> exportChannel(
+            @PathVariable Long channelId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            Authentication authentication) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        if (!channelService.isMember(channelId, user.getId())) {
+            // Spring only streams a ResponseEntity declared with a StreamingResponseBody body, so the error is one too
+            MessageResponse error = new MessageResponse("Error: You are not a member of this channel");
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, error));
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(target)) {
+                generator.setRootValueSeparator(null);
+                messageService.exportChannel(channelId, message -> {
+                    try {
+                        generator.writeObject(message);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"channel-" + channelId + ".ndjson\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchMessages(@RequestParam String q,
+                                            @RequestParam(required = false) Long channelId,
+                                            @RequestParam(required = false) Long before,
+                                            @RequestParam(defaultValue = "20") int limit,
+                                            Authentication authentication) {
+        if (q.isBlank()) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: Search query must not be empty"));
+        }
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+
+        // Only channels the caller belongs to are searched
+        List<Long> channelIds;
+        if (channelId != null) {
+            if (!channelService.isMember(channelId, user.getId())) {
+                return ResponseEntity.badRequest()
+                        .body(new MessageResponse("Error: You are not a member of this channel"));
+            }
+            channelIds = List.of(channelId);
+        } else {
+            channelIds = channelService.findChannelIdsByMember(user.getId());
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        List<MessageSummary> messages = messageService.searchMessages(channelIds, q, before, pageSize);
+        String nextBefore = messages.size() == pageSize
+                ? String.valueOf(messages.get(messages.size() - 1).getId()) : null;
+        return ResponseEntity.ok(new MessageSearchResponse(messages, nextBefore));
     }
 
     @PostMapping
     public ResponseEntity<?> createMessage(@Valid @RequestBody MessageRequest messageRequest,
                                          Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            long retryAfter = rateLimits.messagesPerUser().tryAcquire(user.getId());
+            if (retryAfter > 0) {
+                return RateLimits.tooManyRequests(retryAfter);
+            }
+
             Optional<Channel> channelOpt = channelService.findById(messageRequest.getChannelId());
             
             if (channelOpt.isEmpty()) {
@@ -64,17 +249,25 @@ public class MessageController {
 
             Channel channel = channelOpt.get();
             
-            // Check if user is a member of the channel by comparing user IDs
-            boolean isMember = channel.getMembers().stream()
-                    .anyMatch(member -> member.getId().equals(user.getId()));
-            
-            if (!isMember) {
+            // Check membership against the in-memory index rather than loading the member set
+            if (!channelService.isMember(channel.getId(), user.getId())) {
                 return ResponseEntity.badRequest()
                         .body(new MessageResponse("Error: You are not a member of this channel"));
             }
 
-            Message message = messageService.createMessage(messageRequest.getContent(), user, channel);
-            return ResponseEntity.ok(message);
+            // Many users together can still flood one channel
+            retryAfter = rateLimits.messagesPerChannel().tryAcquire(channel.getId());
+            if (retryAfter > 0) {
+                return RateLimits.tooManyRequests(retryAfter);
+            }
+
+            User sender = userService.getUserById(user.getId());
+            // Subscribers are notified by the service once the message commits
+            Message message = messageService.createMessage(messageRequest.getContent(), sender, channel);
+            return ResponseEntity.ok(MessageSummary.from(message));
+        } catch (IngestionUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new MessageResponse("Error: " + e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error: " + e.getMessage()));
@@ -86,7 +279,12 @@ public class MessageController {
                                          @Valid @RequestBody MessageRequest messageRequest,
                                          Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            long retryAfter = rateLimits.messagesPerUser().tryAcquire(user.getId());
+            if (retryAfter > 0) {
+                return RateLimits.tooManyRequests(retryAfter);
+            }
+
             Optional<Message> messageOpt = messageService.findById(id);
             
             if (messageOpt.isEmpty()) {
@@ -102,7 +300,9 @@ public class MessageController {
             }
 
             Message updatedMessage = messageService.updateMessage(id, messageRequest.getContent());
-            return ResponseEntity.ok(updatedMessage);
+            MessageSummary summary = MessageSummary.from(updatedMessage);
+            messageEventPublisher.publishUpdated(summary);
+            return ResponseEntity.ok(summary);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error: " + e.getMessage()));
@@ -112,7 +312,12 @@ public class MessageController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteMessage(@PathVariable Long id, Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            long retryAfter = rateLimits.messagesPerUser().tryAcquire(user.getId());
+            if (retryAfter > 0) {
+                return RateLimits.tooManyRequests(retryAfter);
+            }
+
             Optional<Message> messageOpt = messageService.findById(id);
             
             if (messageOpt.isEmpty()) {
@@ -128,6 +333,7 @@ public class MessageController {
             }
 
             messageService.deleteMessage(id);
+            messageEventPublisher.publishDeleted(message.getChannel().getId(), id);
             return ResponseEntity.ok(new MessageResponse("Message deleted successfully"));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest()
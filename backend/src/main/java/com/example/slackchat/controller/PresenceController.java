@@ -0,0 +1,36 @@
+package com.example.slackchat.controller;
+
+import com.example.slackchat.dto.PresenceDiff;
+import com.example.slackchat.dto.PresenceSnapshot;
+import com.example.slackchat.security.AuthenticatedUser;
+import com.example.slackchat.service.PresenceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/presence")
+public class PresenceController {
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @PostMapping("/heartbeat")
+    public ResponseEntity<Void> heartbeat(Authentication authentication) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        presenceService.heartbeat(user.getId());
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping
+    public ResponseEntity<PresenceSnapshot> getSnapshot() {
+        return ResponseEntity.ok(presenceService.snapshot());
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<PresenceDiff> getChanges(@RequestParam long since) {
+        return ResponseEntity.ok(presenceService.changesSince(since));
+    }
+}
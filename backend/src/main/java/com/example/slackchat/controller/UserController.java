@@ -1,6 +1,7 @@
 package com.example.slackchat.controller;
 
 import com.example.slackchat.model.User;
+import com.example.slackchat.security.AuthenticatedUser;
 import com.example.slackchat.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -19,8 +20,10 @@ public class UserController {
 
     @GetMapping("/me")
     public ResponseEntity<User> getCurrentUser(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        return ResponseEntity.ok(user);
+        AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+        return userService.findById(principal.getId())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/all")
@@ -31,7 +34,8 @@ public class UserController {
 
     @PutMapping("/me")
     public ResponseEntity<User> updateCurrentUser(@RequestBody User userUpdate, Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
+        AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+        User currentUser = userService.getUserById(principal.getId());
         
         // Update allowed fields
         if (userUpdate.getDisplayName() != null) {
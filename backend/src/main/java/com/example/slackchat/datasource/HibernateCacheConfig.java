@@ -0,0 +1,40 @@
+package com.example.slackchat.datasource;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * The JCache manager behind Hibernate's second-level and query caches, with its regions defined in
+ * hibernate-ehcache.xml.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("classpath:hibernate-ehcache.xml") Resource config)
+            throws IOException {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(
+                EhcacheCachingProvider.class.getName());
+        // A URI of its own per application context; the provider would otherwise share one manager, and so
+        // the cached rows, between every context in the JVM that loads the same file
+        return provider.getCacheManager(URI.create("urn:slackchat:hibernate:" + UUID.randomUUID()),
+                new XmlConfiguration(config.getURL(), getClass().getClassLoader()));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
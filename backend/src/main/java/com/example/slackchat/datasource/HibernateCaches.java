@@ -0,0 +1,53 @@
+package com.example.slackchat.datasource;
+
+import com.example.slackchat.model.Channel;
+import com.example.slackchat.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Evicts second-level cache entries for changes Hibernate did not make itself: JDBC updates on this node and
+ * changes other nodes announce over the cluster bus.
+ */
+@Component
+public class HibernateCaches {
+
+    private final Cache cache;
+
+    public HibernateCaches(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    public void channelChanged(Long channelId) {
+        cache.evictEntityData(Channel.class, channelId);
+        // Another node's change never reached this node's update timestamps
+        cache.evictQueryRegions();
+    }
+
+    public void channelDeleted(Long channelId) {
+        channelChanged(channelId);
+        // The name may be reused by a new channel
+        cache.evictNaturalIdData(Channel.class);
+    }
+
+    public void usersChanged(Collection<Long> userIds) {
+        userIds.forEach(userId -> cache.evictEntityData(User.class, userId));
+    }
+
+    public void allUsersChanged() {
+        cache.evictEntityData(User.class);
+    }
+
+    public void userChanged(Long userId) {
+        cache.evictEntityData(User.class, userId);
+        cache.evictQueryRegions();
+    }
+
+    public void evictAll() {
+        cache.evictAllRegions();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.slackchat.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Keeps the reads of the current thread on the primary even inside read-only transactions. Used for loads that
+ * fill shared caches, which would otherwise keep whatever a lagging replica returned until the next write.
+ * Does nothing unless read replicas are configured.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY = ThreadLocal.withInitial(() -> false);
+
+    private ReadRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> read) {
+        boolean previous = pinToPrimary();
+        try {
+            return read.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PRIMARY.get();
+    }
+
+    // Returns the previous state for restore
+    static boolean pinToPrimary() {
+        boolean previous = PRIMARY.get();
+        PRIMARY.set(true);
+        return previous;
+    }
+
+    static void restore(boolean previous) {
+        if (previous) {
+            PRIMARY.set(true);
+        } else {
+            PRIMARY.remove();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.slackchat.datasource;
+
+import com.example.slackchat.security.AuthenticatedUser;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs write requests, and every request of a user who wrote within the sticky window, entirely on the
+ * primary, so users see their own changes even while the replicas catch up. Write times are kept per node.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final int PRUNE_THRESHOLD = 10_000;
+
+    private final long stickyNanos;
+    // User id to the time of their last write
+    private final Map<Long, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWritesFilter(long stickyMillis) {
+        this.stickyNanos = stickyMillis * 1_000_000;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Long userId = currentUserId();
+        boolean write = isWrite(request.getMethod());
+        if (!write && !wroteRecently(userId)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        boolean previous = ReadRouting.pinToPrimary();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadRouting.restore(previous);
+            // Counted from the end of the request, once its changes are committed
+            if (write && userId != null) {
+                recordWrite(userId);
+            }
+        }
+    }
+
+    boolean wroteRecently(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long lastWrite = lastWrites.get(userId);
+        return lastWrite != null && System.nanoTime() - lastWrite < stickyNanos;
+    }
+
+    void recordWrite(Long userId) {
+        long now = System.nanoTime();
+        lastWrites.put(userId, now);
+        if (lastWrites.size() > PRUNE_THRESHOLD) {
+            lastWrites.values().removeIf(lastWrite -> now - lastWrite >= stickyNanos);
+        }
+    }
+
+    private static boolean isWrite(String method) {
+        return !("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method));
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
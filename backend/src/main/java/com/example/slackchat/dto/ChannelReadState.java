@@ -0,0 +1,74 @@
+package com.example.slackchat.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+public class ChannelReadState {
+    private ChannelSummary channel;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long lastReadMessageId;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long latestMessageId;
+    private int unreadCount;
+    private int mentionCount;
+    // True when there are more unread messages than unreadCount, e.g. "99+"
+    private boolean unreadCapped;
+
+    public ChannelReadState(ChannelSummary channel, Long lastReadMessageId, Long latestMessageId,
+                            int unreadCount, int mentionCount, boolean unreadCapped) {
+        this.channel = channel;
+        this.lastReadMessageId = lastReadMessageId;
+        this.latestMessageId = latestMessageId;
+        this.unreadCount = unreadCount;
+        this.mentionCount = mentionCount;
+        this.unreadCapped = unreadCapped;
+    }
+
+    public ChannelSummary getChannel() {
+        return channel;
+    }
+
+    public void setChannel(ChannelSummary channel) {
+        this.channel = channel;
+    }
+
+    public Long getLastReadMessageId() {
+        return lastReadMessageId;
+    }
+
+    public void setLastReadMessageId(Long lastReadMessageId) {
+        this.lastReadMessageId = lastReadMessageId;
+    }
+
+    public Long getLatestMessageId() {
+        return latestMessageId;
+    }
+
+    public void setLatestMessageId(Long latestMessageId) {
+        this.latestMessageId = latestMessageId;
+    }
+
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(int unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+
+    public int getMentionCount() {
+        return mentionCount;
+    }
+
+    public void setMentionCount(int mentionCount) {
+        this.mentionCount = mentionCount;
+    }
+
+    public boolean isUnreadCapped() {
+        return unreadCapped;
+    }
+
+    public void setUnreadCapped(boolean unreadCapped) {
+        this.unreadCapped = unreadCapped;
+    }
+}
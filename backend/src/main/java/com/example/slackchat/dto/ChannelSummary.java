@@ -0,0 +1,98 @@
+package com.example.slackchat.dto;
+
+import com.example.slackchat.model.Channel;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+public class ChannelSummary {
+    private Long id;
+    private String name;
+    private String description;
+    private boolean isPrivate;
+    private LocalDateTime createdAt;
+    private long memberCount;
+    private UserSummary createdBy;
+
+    public ChannelSummary(Long id, String name, String description, boolean isPrivate, LocalDateTime createdAt,
+                          long memberCount, UserSummary createdBy) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.isPrivate = isPrivate;
+        this.createdAt = createdAt;
+        this.memberCount = memberCount;
+        this.createdBy = createdBy;
+    }
+
+    // Used by JPQL constructor expressions, which cannot nest a second constructor; the member count is set after
+    public ChannelSummary(Long id, String name, String description, boolean isPrivate, LocalDateTime createdAt,
+                          Long createdById, String createdByUsername, String createdByDisplayName) {
+        this(id, name, description, isPrivate, createdAt, 0,
+                createdById == null ? null : new UserSummary(createdById, createdByUsername, createdByDisplayName));
+    }
+
+    // Only for a channel whose member set is already loaded, e.g. one just created
+    public static ChannelSummary from(Channel channel) {
+        return new ChannelSummary(channel.getId(), channel.getName(), channel.getDescription(), channel.isPrivate(),
+                channel.getCreatedAt(), channel.getMembers().size(),
+                channel.getCreatedBy() == null ? null : UserSummary.from(channel.getCreatedBy()));
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    @JsonProperty("isPrivate")
+    public boolean isPrivate() {
+        return isPrivate;
+    }
+
+    public void setPrivate(boolean isPrivate) {
+        this.isPrivate = isPrivate;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getMemberCount() {
+        return memberCount;
+    }
+
+    public void setMemberCount(long memberCount) {
+        this.memberCount = memberCount;
+    }
+
+    public UserSummary getCreatedBy() {
+        return createdBy;
+    }
+
+    public void setCreatedBy(UserSummary createdBy) {
+        this.createdBy = createdBy;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.slackchat.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+public class MessageEvent {
+    public enum EventType {
+        CREATED, UPDATED, DELETED
+    }
+
+    private EventType type;
+    private Long channelId;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long messageId;
+    private MessageSummary message;
+
+    public MessageEvent(EventType type, Long channelId, Long messageId, MessageSummary message) {
+        this.type = type;
+        this.channelId = channelId;
+        this.messageId = messageId;
+        this.message = message;
+    }
+
+    public EventType getType() {
+        return type;
+    }
+
+    public void setType(EventType type) {
+        this.type = type;
+    }
+
+    public Long getChannelId() {
+        return channelId;
+    }
+
+    public void setChannelId(Long channelId) {
+        this.channelId = channelId;
+    }
+
+    public Long getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(Long messageId) {
+        this.messageId = messageId;
+    }
+
+    public MessageSummary getMessage() {
+        return message;
+    }
+
+    public void setMessage(MessageSummary message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.slackchat.dto;
+
+import java.util.List;
+
+public class MessageHistoryResponse {
+    private List<MessageSummary> messages;
+    private String olderCursor;
+    private String newerCursor;
+
+    public MessageHistoryResponse(List<MessageSummary> messages, String olderCursor, String newerCursor) {
+        this.messages = messages;
+        this.olderCursor = olderCursor;
+        this.newerCursor = newerCursor;
+    }
+
+    public List<MessageSummary> getMessages() {
+        return messages;
+    }
+
+    public void setMessages(List<MessageSummary> messages) {
+        this.messages = messages;
+    }
+
+    public String getOlderCursor() {
+        return olderCursor;
+    }
+
+    public void setOlderCursor(String olderCursor) {
+        this.olderCursor = olderCursor;
+    }
+
+    public String getNewerCursor() {
+        return newerCursor;
+    }
+
+    public void setNewerCursor(String newerCursor) {
+        this.newerCursor = newerCursor;
+    }
+}
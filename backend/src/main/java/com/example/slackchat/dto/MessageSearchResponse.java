@@ -0,0 +1,30 @@
+package com.example.slackchat.dto;
+
+import java.util.List;
+
+public class MessageSearchResponse {
+    private List<MessageSummary> messages;
+    // Pass as "before" to fetch the next page of older matches
+    private String nextBefore;
+
+    public MessageSearchResponse(List<MessageSummary> messages, String nextBefore) {
+        this.messages = messages;
+        this.nextBefore = nextBefore;
+    }
+
+    public List<MessageSummary> getMessages() {
+        return messages;
+    }
+
+    public void setMessages(List<MessageSummary> messages) {
+        this.messages = messages;
+    }
+
+    public String getNextBefore() {
+        return nextBefore;
+    }
+
+    public void setNextBefore(String nextBefore) {
+        this.nextBefore = nextBefore;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.slackchat.dto;
+
+import com.example.slackchat.model.Message;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+import java.time.LocalDateTime;
+
+public class MessageSummary {
+    // Snowflake ids exceed JavaScript's safe integer range
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long id;
+    private Long channelId;
+    private String content;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Message.MessageType messageType;
+    private UserSummary sender;
+
+    public MessageSummary() {}
+
+    public MessageSummary(Long id, Long channelId, String content, LocalDateTime createdAt,
+                          LocalDateTime updatedAt, Message.MessageType messageType, UserSummary sender) {
+        this.id = id;
+        this.channelId = channelId;
+        this.content = content;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.messageType = messageType;
+        this.sender = sender;
+    }
+
+    // Used by JPQL constructor expressions, which cannot nest a second constructor
+    public MessageSummary(Long id, Long channelId, String content, LocalDateTime createdAt, LocalDateTime updatedAt,
+                          Message.MessageType messageType, Long senderId, String senderUsername,
+                          String senderDisplayName) {
+        this(id, channelId, content, createdAt, updatedAt, messageType,
+                new UserSummary(senderId, senderUsername, senderDisplayName));
+    }
+
+    // Only for a message whose sender is already loaded, e.g. one just saved or fetched with its sender
+    public static MessageSummary from(Message message) {
+        return new MessageSummary(message.getId(), message.getChannel().getId(), message.getContent(),
+                message.getCreatedAt(), message.getUpdatedAt(), message.getMessageType(),
+                UserSummary.from(message.getSender()));
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getChannelId() {
+        return channelId;
+    }
+
+    public void setChannelId(Long channelId) {
+        this.channelId = channelId;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Message.MessageType getMessageType() {
+        return messageType;
+    }
+
+    public void setMessageType(Message.MessageType messageType) {
+        this.messageType = messageType;
+    }
+
+    public UserSummary getSender() {
+        return sender;
+    }
+
+    public void setSender(UserSummary sender) {
+        this.sender = sender;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.slackchat.dto;
+
+public class PresenceChange {
+    private Long userId;
+    private boolean online;
+
+    public PresenceChange(Long userId, boolean online) {
+        this.userId = userId;
+        this.online = online;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public boolean isOnline() {
+        return online;
+    }
+
+    public void setOnline(boolean online) {
+        this.online = online;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.slackchat.dto;
+
+import java.util.List;
+
+public class PresenceDiff {
+    private long version;
+    // True when the requested version is too old to diff from; the client must reload the snapshot
+    private boolean reset;
+    private List<PresenceChange> changes;
+
+    public PresenceDiff(long version, boolean reset, List<PresenceChange> changes) {
+        this.version = version;
+        this.reset = reset;
+        this.changes = changes;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    public void setReset(boolean reset) {
+        this.reset = reset;
+    }
+
+    public List<PresenceChange> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<PresenceChange> changes) {
+        this.changes = changes;
+    }
+}
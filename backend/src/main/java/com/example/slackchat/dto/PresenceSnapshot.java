@@ -0,0 +1,29 @@
+package com.example.slackchat.dto;
+
+import java.util.List;
+
+public class PresenceSnapshot {
+    private long version;
+    private List<Long> onlineUserIds;
+
+    public PresenceSnapshot(long version, List<Long> onlineUserIds) {
+        this.version = version;
+        this.onlineUserIds = onlineUserIds;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public List<Long> getOnlineUserIds() {
+        return onlineUserIds;
+    }
+
+    public void setOnlineUserIds(List<Long> onlineUserIds) {
+        this.onlineUserIds = onlineUserIds;
+    }
+}
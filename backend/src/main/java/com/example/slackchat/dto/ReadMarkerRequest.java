@@ -0,0 +1,16 @@
+package com.example.slackchat.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public class ReadMarkerRequest {
+    @NotNull
+    private Long messageId;
+
+    public Long getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(Long messageId) {
+        this.messageId = messageId;
+    }
+}
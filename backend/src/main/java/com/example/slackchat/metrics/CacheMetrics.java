@@ -0,0 +1,79 @@
+package com.example.slackchat.metrics;
+
+import com.example.slackchat.security.JwtUtils;
+import com.example.slackchat.service.RecentMessageCache;
+import com.example.slackchat.service.UserService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the in-process caches under Micrometer's standard cache meter names
+ * (cache.gets tagged result=hit|miss, cache.size), so hit ratios are hits / (hits + misses).
+ * Hibernate's second-level cache regions are published the same way, one cache tag per region.
+ */
+@Component
+public class CacheMetrics implements MeterBinder {
+
+    private final RecentMessageCache recentMessageCache;
+    private final UserService userService;
+    private final JwtUtils jwtUtils;
+    private final CacheManager hibernateCacheManager;
+
+    public CacheMetrics(RecentMessageCache recentMessageCache, UserService userService, JwtUtils jwtUtils,
+                        CacheManager hibernateCacheManager) {
+        this.recentMessageCache = recentMessageCache;
+        this.userService = userService;
+        this.jwtUtils = jwtUtils;
+        this.hibernateCacheManager = hibernateCacheManager;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "recentMessages", recentMessageCache,
+                cache -> cache.getStats().getHits(),
+                cache -> cache.getStats().getMisses(),
+                cache -> cache.getStats().getChannels());
+        FunctionCounter.builder("cache.evictions", recentMessageCache, cache -> cache.getStats().getEvictions())
+                .tag("cache", "recentMessages")
+                .register(registry);
+        Gauge.builder("chat.cache.recent.bytes", recentMessageCache, cache -> cache.getStats().getBytes())
+                .description("Direct memory held by cached message bodies")
+                .baseUnit("bytes")
+                .register(registry);
+
+        bind(registry, "principals", userService,
+                UserService::getPrincipalCacheHits,
+                UserService::getPrincipalCacheMisses,
+                UserService::getPrincipalCacheSize);
+        bind(registry, "verifiedTokens", jwtUtils,
+                JwtUtils::getTokenCacheHits,
+                JwtUtils::getTokenCacheMisses,
+                JwtUtils::getTokenCacheSize);
+
+        for (String region : hibernateCacheManager.getCacheNames()) {
+            JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(region));
+        }
+    }
+
+    private static <T> void bind(MeterRegistry registry, String cache, T target, ToDoubleFunction<T> hits,
+                                 ToDoubleFunction<T> misses, ToDoubleFunction<T> size) {
+        FunctionCounter.builder("cache.gets", target, hits)
+                .tag("cache", cache)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", target, misses)
+                .tag("cache", cache)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("cache.size", target, size)
+                .tag("cache", cache)
+                .register(registry);
+    }
+}
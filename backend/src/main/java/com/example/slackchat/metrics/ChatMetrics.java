@@ -0,0 +1,56 @@
+package com.example.slackchat.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application meters recorded from the message path.
+ * Send counts are tagged per channel up to a fixed number of channels; the rest share the "other"
+ * tag so a busy workspace cannot blow up the number of Prometheus series.
+ */
+@Component
+public class ChatMetrics {
+
+    private static final String OTHER_CHANNELS = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final int maxChannelTags;
+    private final Timer sendTimer;
+    private final Map<Long, Counter> sentByChannel = new ConcurrentHashMap<>();
+    private final Counter sentByOtherChannels;
+
+    public ChatMetrics(MeterRegistry meterRegistry,
+                       @Value("${chat.metrics.max-channel-tags:500}") int maxChannelTags) {
+        this.meterRegistry = meterRegistry;
+        this.maxChannelTags = maxChannelTags;
+        this.sendTimer = Timer.builder("chat.messages.send")
+                .description("Time to persist and index a new message")
+                .register(meterRegistry);
+        this.sentByOtherChannels = sentCounter(OTHER_CHANNELS);
+    }
+
+    public void messageSent(Long channelId, long elapsedNanos) {
+        sendTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        Counter counter = sentByChannel.get(channelId);
+        if (counter == null) {
+            counter = sentByChannel.size() < maxChannelTags
+                    ? sentByChannel.computeIfAbsent(channelId, id -> sentCounter(id.toString()))
+                    : sentByOtherChannels;
+        }
+        counter.increment();
+    }
+
+    private Counter sentCounter(String channel) {
+        return Counter.builder("chat.messages.sent")
+                .description("Messages sent")
+                .tag("channel", channel)
+                .register(meterRegistry);
+    }
+}
@@ -4,6 +4,10 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -11,6 +15,8 @@ import java.util.Set;
 
 @Entity
 @Table(name = "channels")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "channels")
+@NaturalIdCache(region = "channel-natural-ids")
 public class Channel {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -18,6 +24,7 @@ public class Channel {
 
     @NotBlank
     @Size(max = 100)
+    @NaturalId
     @Column(unique = true)
     private String name;
 
@@ -34,11 +41,13 @@ public class Channel {
     @JoinColumn(name = "created_by")
     private User createdBy;
 
+    // Not cached: rows are written with JDBC, and membership reads go through ChannelMembershipIndex
     @ManyToMany
     @JoinTable(
         name = "channel_members",
         joinColumns = @JoinColumn(name = "channel_id"),
-        inverseJoinColumns = @JoinColumn(name = "user_id")
+        inverseJoinColumns = @JoinColumn(name = "user_id"),
+        indexes = @Index(name = "idx_channel_members_user", columnList = "user_id, channel_id")
     )
     private Set<User> members = new HashSet<>();
 
@@ -7,10 +7,17 @@ import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+// Mirrors the indexes of the migrations in db/migration for schemas generated in tests
+@Table(name = "messages", indexes = {
+    @Index(name = "idx_messages_channel_created_id", columnList = "channel_id, created_at, id"),
+    @Index(name = "idx_messages_channel_id", columnList = "channel_id, id"),
+    @Index(name = "idx_messages_created", columnList = "created_at"),
+    @Index(name = "idx_messages_updated", columnList = "updated_at"),
+    @Index(name = "idx_messages_sender", columnList = "sender_id")
+})
 public class Message {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @NotBlank
@@ -24,11 +31,12 @@ public class Message {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
-    @ManyToOne
+    // Lazy so message reads fetch only what they ask for; history reads use the projections in MessageRepository
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sender_id", nullable = false)
     private User sender;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "channel_id", nullable = false)
     private Channel channel;
 
@@ -0,0 +1,75 @@
+package com.example.slackchat.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Entity
+@Table(name = "read_markers", indexes = @Index(name = "idx_read_markers_user", columnList = "user_id"))
+@IdClass(ReadMarker.Key.class)
+public class ReadMarker {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "channel_id")
+    private Long channelId;
+
+    @Column(name = "last_read_message_id")
+    private Long lastReadMessageId;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public ReadMarker() {}
+
+    public ReadMarker(Long userId, Long channelId, Long lastReadMessageId) {
+        this.userId = userId;
+        this.channelId = channelId;
+        this.lastReadMessageId = lastReadMessageId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getChannelId() { return channelId; }
+    public void setChannelId(Long channelId) { this.channelId = channelId; }
+
+    public Long getLastReadMessageId() { return lastReadMessageId; }
+    public void setLastReadMessageId(Long lastReadMessageId) { this.lastReadMessageId = lastReadMessageId; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public static class Key implements Serializable {
+        private Long userId;
+        private Long channelId;
+
+        public Key() {}
+
+        public Key(Long userId, Long channelId) {
+            this.userId = userId;
+            this.channelId = channelId;
+        }
+
+        public Long getUserId() { return userId; }
+        public Long getChannelId() { return channelId; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(userId, key.userId) && Objects.equals(channelId, key.channelId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, channelId);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.slackchat.model;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class SnowflakeIdGenerator implements IdentifierGenerator {
+
+    public static final String NODE_ID_SETTING = "slackchat.snowflake.node-id";
+
+    // Shared per node id so every entity using it draws from one sequence
+    private static final ConcurrentMap<Long, Snowflake> GENERATORS = new ConcurrentHashMap<>();
+
+    private final Snowflake snowflake;
+
+    public SnowflakeIdGenerator(SnowflakeId config, Member member, CustomIdGeneratorCreationContext context) {
+        Object setting = context.getServiceRegistry().requireService(ConfigurationService.class)
+                .getSettings().get(NODE_ID_SETTING);
+        // Unset is node 0 on a single node; SnowflakeNodeClaim requires an explicit id on a cluster
+        long nodeId = setting == null || setting.toString().isBlank() ? 0 : Long.parseLong(setting.toString().trim());
+        this.snowflake = GENERATORS.computeIfAbsent(nodeId, Snowflake::new);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return snowflake.nextId();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.slackchat.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per key, kept as a single timestamp (GCRA): each bucket stores the time at which it
+ * will be full again, and a request is allowed if taking one token leaves that time no more than
+ * burst intervals ahead of now. Updates are a compare-and-set, so there is no lock on the hot path.
+ * A bucket that is full again carries no state and can be evicted.
+ */
+public class RateLimiter {
+
+    private final String name;
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final int maxBuckets;
+    private final LongSupplier clock;
+    private final Map<Object, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final Counter rejected;
+    private final Counter untracked;
+
+    // perSecond <= 0 turns the limit off
+    public RateLimiter(String name, double perSecond, int burst, int maxBuckets, MeterRegistry meterRegistry) {
+        this(name, perSecond, burst, maxBuckets, System::nanoTime, meterRegistry);
+    }
+
+    RateLimiter(String name, double perSecond, int burst, int maxBuckets, LongSupplier clock,
+                MeterRegistry meterRegistry) {
+        this.name = name;
+        this.intervalNanos = perSecond <= 0 ? 0 : (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+        this.capacityNanos = intervalNanos * Math.max(1, burst);
+        this.maxBuckets = maxBuckets;
+        this.clock = clock;
+        this.rejected = Counter.builder("chat.ratelimit.rejected")
+                .description("Requests rejected by a rate limit")
+                .tag("limit", name)
+                .register(meterRegistry);
+        this.untracked = Counter.builder("chat.ratelimit.untracked")
+                .description("Requests let through because the limit was tracking its maximum number of keys")
+                .tag("limit", name)
+                .register(meterRegistry);
+        Gauge.builder("chat.ratelimit.buckets", buckets, Map::size)
+                .description("Keys currently tracked by a rate limit")
+                .tag("limit", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a token for the key. Returns 0 if the request is allowed, otherwise the nanoseconds until
+     * one token is available again.
+     */
+    public long tryAcquire(Object key) {
+        if (intervalNanos == 0) {
+            return 0;
+        }
+        long now = clock.getAsLong();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxBuckets) {
+                evictIdle();
+                if (buckets.size() >= maxBuckets) {
+                    // Fail open: memory stays bounded, and the per-user limits still cover authenticated writes
+                    untracked.increment();
+                    return 0;
+                }
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + intervalNanos;
+            long excess = next - now - capacityNanos;
+            if (excess > 0) {
+                rejected.increment();
+                return excess;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // A request racing with eviction may update a removed bucket; that costs at most one extra token
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getBucketCount() {
+        return buckets.size();
+    }
+}
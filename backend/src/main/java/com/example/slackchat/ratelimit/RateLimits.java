@@ -0,0 +1,80 @@
+package com.example.slackchat.ratelimit;
+
+import com.example.slackchat.dto.MessageResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The rate limits applied by the write endpoints. Message writes are limited per user and message
+ * sends also per channel; channel create/join/leave per user; sign-in per submitted username and client
+ * address, so guesses against one account are slowed without one client locking everyone else out of it.
+ */
+@Component
+public class RateLimits {
+
+    private final RateLimiter messagesPerUser;
+    private final RateLimiter messagesPerChannel;
+    private final RateLimiter channelWritesPerUser;
+    private final RateLimiter signinsPerUser;
+
+    public RateLimits(MeterRegistry meterRegistry,
+                      @Value("${chat.rate-limit.enabled:true}") boolean enabled,
+                      @Value("${chat.rate-limit.max-buckets:100000}") int maxBuckets,
+                      @Value("${chat.rate-limit.messages-per-user.per-second:5}") double messagesPerUserRate,
+                      @Value("${chat.rate-limit.messages-per-user.burst:20}") int messagesPerUserBurst,
+                      @Value("${chat.rate-limit.messages-per-channel.per-second:50}") double messagesPerChannelRate,
+                      @Value("${chat.rate-limit.messages-per-channel.burst:100}") int messagesPerChannelBurst,
+                      @Value("${chat.rate-limit.channel-writes-per-user.per-second:1}") double channelWritesRate,
+                      @Value("${chat.rate-limit.channel-writes-per-user.burst:10}") int channelWritesBurst,
+                      @Value("${chat.rate-limit.signins-per-user.per-second:1}") double signinsRate,
+                      @Value("${chat.rate-limit.signins-per-user.burst:10}") int signinsBurst) {
+        this.messagesPerUser = new RateLimiter("messages-per-user",
+                enabled ? messagesPerUserRate : 0, messagesPerUserBurst, maxBuckets, meterRegistry);
+        this.messagesPerChannel = new RateLimiter("messages-per-channel",
+                enabled ? messagesPerChannelRate : 0, messagesPerChannelBurst, maxBuckets, meterRegistry);
+        this.channelWritesPerUser = new RateLimiter("channel-writes-per-user",
+                enabled ? channelWritesRate : 0, channelWritesBurst, maxBuckets, meterRegistry);
+        this.signinsPerUser = new RateLimiter("signins-per-user",
+                enabled ? signinsRate : 0, signinsBurst, maxBuckets, meterRegistry);
+    }
+
+    public RateLimiter messagesPerUser() {
+        return messagesPerUser;
+    }
+
+    public RateLimiter messagesPerChannel() {
+        return messagesPerChannel;
+    }
+
+    public RateLimiter channelWritesPerUser() {
+        return channelWritesPerUser;
+    }
+
+    public RateLimiter signinsPerUser() {
+        return signinsPerUser;
+    }
+
+    @Scheduled(fixedDelayString = "${chat.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        for (RateLimiter limiter : List.of(messagesPerUser, messagesPerChannel, channelWritesPerUser,
+                signinsPerUser)) {
+            limiter.evictIdle();
+        }
+    }
+
+    public static ResponseEntity<MessageResponse> tooManyRequests(long retryAfterNanos) {
+        // Retry-After is in whole seconds, rounded up so a client that honours it is let through
+        long seconds = Math.max(1, (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                .body(new MessageResponse("Error: Too many requests, retry in " + seconds + "s"));
+    }
+}
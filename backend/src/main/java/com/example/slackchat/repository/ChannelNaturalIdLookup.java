@@ -0,0 +1,10 @@
+package com.example.slackchat.repository;
+
+import com.example.slackchat.model.Channel;
+
+import java.util.Optional;
+
+public interface ChannelNaturalIdLookup {
+    // Resolved through the natural-id and entity caches, so a warm lookup runs no query
+    Optional<Channel> findByName(String name);
+}
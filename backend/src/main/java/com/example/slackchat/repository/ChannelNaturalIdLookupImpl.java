@@ -0,0 +1,22 @@
+package com.example.slackchat.repository;
+
+import com.example.slackchat.model.Channel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+class ChannelNaturalIdLookupImpl implements ChannelNaturalIdLookup {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // The session must outlive the call; read-write so the lookup, which fills the cache, reads the primary
+    @Override
+    @Transactional
+    public Optional<Channel> findByName(String name) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Channel.class).loadOptional(name);
+    }
+}
@@ -1,9 +1,15 @@
 package com.example.slackchat.repository;
 
+import com.example.slackchat.dto.ChannelSummary;
+import com.example.slackchat.dto.UserSummary;
 import com.example.slackchat.model.Channel;
-import com.example.slackchat.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -11,13 +17,45 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ChannelRepository extends JpaRepository<Channel, Long> {
-    Optional<Channel> findByName(String name);
+public interface ChannelRepository extends JpaRepository<Channel, Long>, ChannelNaturalIdLookup {
     boolean existsByName(String name);
     
-    @Query("SELECT c FROM Channel c JOIN c.members m WHERE m = :user")
-    List<Channel> findChannelsByMember(@Param("user") User user);
+    @Query("SELECT c FROM Channel c JOIN c.members m WHERE m.id = :userId")
+    List<Channel> findChannelsByMemberId(@Param("userId") Long userId);
     
+    // Query-cached; Hibernate drops the result once a channels row changes
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT c FROM Channel c WHERE c.isPrivate = false")
     List<Channel> findPublicChannels();
+
+    @Query("SELECT c.id FROM Channel c JOIN c.members m WHERE m.id = :userId")
+    List<Long> findChannelIdsByMemberId(@Param("userId") Long userId);
+
+    @Query("SELECT m.id FROM Channel c JOIN c.members m WHERE c.id = :channelId")
+    List<Long> findMemberIds(@Param("channelId") Long channelId);
+
+    @Query("SELECT c.id, m.id FROM Channel c JOIN c.members m")
+    List<Object[]> findAllMemberships();
+
+    // Member counts come from ChannelMembershipIndex rather than a count per row
+    String CHANNEL_SUMMARY = "SELECT new com.example.slackchat.dto.ChannelSummary(c.id, c.name, c.description, "
+            + "c.isPrivate, c.createdAt, u.id, u.username, u.displayName) "
+            + "FROM Channel c LEFT JOIN c.createdBy u ";
+
+    // Query-cached like findPublicChannels, and also dropped on user changes
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(CHANNEL_SUMMARY + "WHERE c.isPrivate = false ORDER BY c.name")
+    List<ChannelSummary> findPublicChannelSummaries();
+
+    @Query(CHANNEL_SUMMARY + "WHERE c.id IN (SELECT mc.id FROM Channel mc JOIN mc.members m WHERE m.id = :userId) "
+            + "ORDER BY c.name")
+    List<ChannelSummary> findChannelSummariesByMemberId(@Param("userId") Long userId);
+
+    @Query(CHANNEL_SUMMARY + "WHERE c.id = :channelId")
+    Optional<ChannelSummary> findChannelSummaryById(@Param("channelId") Long channelId);
+
+    @Query(value = "SELECT new com.example.slackchat.dto.UserSummary(m.id, m.username, m.displayName) "
+            + "FROM Channel c JOIN c.members m WHERE c.id = :channelId ORDER BY m.username",
+            countQuery = "SELECT COUNT(m) FROM Channel c JOIN c.members m WHERE c.id = :channelId")
+    Page<UserSummary> findMembers(@Param("channelId") Long channelId, Pageable pageable);
 }
@@ -1,24 +1,113 @@
 package com.example.slackchat.repository;
 
+import com.example.slackchat.dto.MessageSummary;
 import com.example.slackchat.model.Channel;
 import com.example.slackchat.model.Message;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
-    @Query("SELECT m FROM Message m WHERE m.channel = :channel ORDER BY m.createdAt DESC")
-    Page<Message> findByChannelOrderByCreatedAtDesc(@Param("channel") Channel channel, Pageable pageable);
-    
-    @Query("SELECT m FROM Message m WHERE m.channel = :channel ORDER BY m.createdAt ASC")
-    List<Message> findByChannelOrderByCreatedAtAsc(@Param("channel") Channel channel);
+    // History reads select exactly the columns a MessageSummary needs in one query: the channel id is the
+    // foreign key, so only the sender is joined, and no entity is put into the persistence context
+    String MESSAGE_SUMMARY = "SELECT new com.example.slackchat.dto.MessageSummary(m.id, m.channel.id, m.content, "
+            + "m.createdAt, m.updatedAt, m.messageType, s.id, s.username, s.displayName) "
+            + "FROM Message m JOIN m.sender s ";
+
+    @Query(value = MESSAGE_SUMMARY + "WHERE m.channel = :channel ORDER BY m.createdAt DESC, m.id DESC",
+           countQuery = "SELECT COUNT(m) FROM Message m WHERE m.channel = :channel")
+    Page<MessageSummary> findByChannelOrderByCreatedAtDesc(@Param("channel") Channel channel, Pageable pageable);
     
-    @Query("SELECT m FROM Message m WHERE m.channel.id = :channelId ORDER BY m.createdAt DESC")
-    List<Message> findRecentMessagesByChannelId(@Param("channelId") Long channelId, Pageable pageable);
+    @Query(MESSAGE_SUMMARY + "WHERE m.channel.id = :channelId ORDER BY m.createdAt DESC, m.id DESC")
+    List<MessageSummary> findRecentMessagesByChannelId(@Param("channelId") Long channelId, Pageable pageable);
+
+    @Query(MESSAGE_SUMMARY + "WHERE m.channel.id = :channelId " +
+           "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<MessageSummary> findMessagesBefore(@Param("channelId") Long channelId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
+
+    @Query(MESSAGE_SUMMARY + "WHERE m.channel.id = :channelId " +
+           "AND (m.createdAt > :createdAt OR (m.createdAt = :createdAt AND m.id > :id)) " +
+           "ORDER BY m.createdAt ASC, m.id ASC")
+    List<MessageSummary> findMessagesAfter(@Param("channelId") Long channelId,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+
+    @Query(MESSAGE_SUMMARY + "WHERE m.channel.id = :channelId ORDER BY m.createdAt DESC, m.id DESC")
+    List<MessageSummary> findLatestMessages(@Param("channelId") Long channelId, Pageable pageable);
+
+    @Query(MESSAGE_SUMMARY + "WHERE m.id = :id")
+    Optional<MessageSummary> findSummaryById(@Param("id") Long id);
+
+    boolean existsByIdAndChannelId(Long id, Long channelId);
+
+    @Query(MESSAGE_SUMMARY + "WHERE m.id IN :ids")
+    List<MessageSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // For edits, whose summary is built after the message is detached
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender WHERE m.id = :id")
+    Optional<Message> findWithSenderById(@Param("id") Long id);
+
+    // Oldest first over a forward-only cursor; callers hold a read-only transaction and detach rows as they go
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender WHERE m.channel.id = :channelId ORDER BY m.createdAt ASC, m.id ASC")
+    Stream<Message> streamByChannelId(@Param("channelId") Long channelId);
+
+    @Query("SELECT m.id, m.content FROM Message m WHERE m.channel.id = :channelId ORDER BY m.id DESC")
+    List<Object[]> findRecentIdsAndContent(@Param("channelId") Long channelId, Pageable pageable);
+
+    // id, channel id and content only, for the search backfill
+    @Query("SELECT m.id, m.channel.id, m.content FROM Message m WHERE m.id > :afterId ORDER BY m.id")
+    List<Object[]> findIndexBatch(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Same columns, only messages written or edited since a restored search snapshot
+    @Query("SELECT m.id, m.channel.id, m.content FROM Message m WHERE m.updatedAt >= :since AND m.id > :afterId " +
+           "ORDER BY m.id")
+    List<Object[]> findIndexBatchUpdatedSince(@Param("since") LocalDateTime since,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
+
+    @Query("SELECT DISTINCT m.channel.id FROM Message m WHERE m.createdAt < :cutoff")
+    List<Long> findChannelIdsWithMessagesBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // Oldest first, for moving to the archive; the rows stay locked until the caller's transaction deletes them
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender WHERE m.channel.id = :channelId AND m.createdAt < :cutoff " +
+           "ORDER BY m.createdAt ASC, m.id ASC")
+    List<Message> findArchiveBatch(@Param("channelId") Long channelId,
+                                   @Param("cutoff") LocalDateTime cutoff,
+                                   Pageable pageable);
+
+    // Deletes the channel's messages at or before the given position once they are archived
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Message m WHERE m.channel.id = :channelId " +
+           "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id <= :id))")
+    int deleteArchived(@Param("channelId") Long channelId,
+                       @Param("createdAt") LocalDateTime createdAt,
+                       @Param("id") Long id);
 }
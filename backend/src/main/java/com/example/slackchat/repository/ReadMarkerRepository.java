@@ -0,0 +1,12 @@
+package com.example.slackchat.repository;
+
+import com.example.slackchat.model.ReadMarker;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReadMarkerRepository extends JpaRepository<ReadMarker, ReadMarker.Key> {
+    List<ReadMarker> findByUserId(Long userId);
+}
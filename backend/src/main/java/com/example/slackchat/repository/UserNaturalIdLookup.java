@@ -0,0 +1,10 @@
+package com.example.slackchat.repository;
+
+import com.example.slackchat.model.User;
+
+import java.util.Optional;
+
+public interface UserNaturalIdLookup {
+    // Resolved through the natural-id and entity caches, so a warm lookup runs no query
+    Optional<User> findByUsername(String username);
+}
@@ -0,0 +1,24 @@
+package com.example.slackchat.search;
+
+import java.util.Arrays;
+
+final class IndexedDocument {
+    final long messageId;
+    final long channelId;
+    final String[] terms;
+
+    IndexedDocument(long messageId, long channelId, String[] terms) {
+        this.messageId = messageId;
+        this.channelId = channelId;
+        this.terms = terms;
+    }
+
+    boolean containsAll(String[] queryTerms) {
+        for (String term : queryTerms) {
+            if (Arrays.binarySearch(terms, term) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
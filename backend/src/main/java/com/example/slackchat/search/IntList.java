@@ -0,0 +1,25 @@
+package com.example.slackchat.search;
+
+import java.util.Arrays;
+
+final class IntList {
+    private int[] values = new int[4];
+    private int size;
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] toSortedArray() {
+        int[] result = Arrays.copyOf(values, size);
+        Arrays.sort(result);
+        return result;
+    }
+}
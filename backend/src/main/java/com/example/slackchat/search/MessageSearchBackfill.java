@@ -0,0 +1,159 @@
+package com.example.slackchat.search;
+
+import com.example.slackchat.archive.MessageArchive;
+import com.example.slackchat.repository.MessageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Indexes the messages already in the database, walking them by id in batches on a background thread,
+ * and then the archived ones.
+ * With a snapshot directory, the index is saved there periodically and on shutdown. A restart then restores it
+ * and only re-indexes messages written or edited since, instead of everything.
+ * Live writes keep indexing meanwhile and win over the backfill's possibly older copy.
+ */
+@Component
+public class MessageSearchBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageSearchBackfill.class);
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private MessageSearchIndex messageSearchIndex;
+
+    @Autowired
+    private MessageArchive messageArchive;
+
+    @Value("${chat.search.backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.search.backfill.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${chat.search.snapshot.directory:}")
+    private String snapshotDirectory;
+
+    // Covers clock skew between nodes and writes whose index event was still in flight at snapshot time
+    @Value("${chat.search.snapshot.overlap-ms:300000}")
+    private long snapshotOverlapMillis;
+
+    private volatile boolean complete;
+
+    // Removes that arrive before the restore must still win over the snapshot
+    @PostConstruct
+    public void trackLiveWrites() {
+        if (snapshotFile() != null) {
+            messageSearchIndex.beginCatchUp();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            complete = true;
+            return;
+        }
+        Thread thread = new Thread(this::run, "message-search-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    void run() {
+        long started = System.currentTimeMillis();
+        long[] indexed = new long[1];
+        try {
+            Path snapshot = snapshotFile();
+            LocalDateTime restored = snapshot == null ? null : messageSearchIndex.restoreSnapshot(snapshot);
+            if (restored != null) {
+                // Archived messages were in the database when the snapshot was taken, so they are in it already
+                LocalDateTime since = restored.minus(Duration.ofMillis(snapshotOverlapMillis));
+                walk(afterId -> messageRepository.findIndexBatchUpdatedSince(since, afterId, PageRequest.of(0, batchSize)),
+                        row -> messageSearchIndex.refresh((Long) row[0], (Long) row[1], (String) row[2]), indexed);
+            } else {
+                walk(afterId -> messageRepository.findIndexBatch(afterId, PageRequest.of(0, batchSize)),
+                        row -> messageSearchIndex.indexIfAbsent((Long) row[0], (Long) row[1], (String) row[2]), indexed);
+                messageArchive.forEach(message -> {
+                    if (messageSearchIndex.indexIfAbsent(message.getId(), message.getChannelId(), message.getContent())) {
+                        indexed[0]++;
+                    }
+                });
+            }
+            messageSearchIndex.flush();
+            complete = true;
+            logger.info("Search backfill indexed {} messages{} in {} ms", indexed[0],
+                    restored != null ? " written since the snapshot" : "", System.currentTimeMillis() - started);
+            saveSnapshot();
+        } catch (RuntimeException e) {
+            logger.error("Search backfill failed after {} messages", indexed[0], e);
+        } finally {
+            messageSearchIndex.endCatchUp();
+        }
+    }
+
+    // Taken only once the backfill is complete, so a snapshot never misses older messages
+    @Scheduled(fixedDelayString = "${chat.search.snapshot.interval-ms:600000}",
+               initialDelayString = "${chat.search.snapshot.interval-ms:600000}")
+    public void saveSnapshot() {
+        Path snapshot = snapshotFile();
+        if (snapshot == null || !complete) {
+            return;
+        }
+        // Taken before the index is sealed, so writes racing with the snapshot are caught up on restore
+        LocalDateTime coveredUntil = LocalDateTime.now();
+        try {
+            messageSearchIndex.writeSnapshot(snapshot, coveredUntil);
+        } catch (RuntimeException e) {
+            logger.warn("Could not save search snapshot: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        saveSnapshot();
+    }
+
+    private void walk(Function<Long, List<Object[]>> batch, Predicate<Object[]> index, long[] indexed) {
+        long afterId = Long.MIN_VALUE;
+        while (true) {
+            List<Object[]> rows = batch.apply(afterId);
+            for (Object[] row : rows) {
+                if (index.test(row)) {
+                    indexed[0]++;
+                }
+            }
+            if (rows.size() < batchSize) {
+                return;
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    // Without the backfill the index may be incomplete, so it is not worth saving
+    private Path snapshotFile() {
+        return !enabled || snapshotDirectory == null || snapshotDirectory.isBlank()
+                ? null : Paths.get(snapshotDirectory).resolve("search.snapshot");
+    }
+}
@@ -0,0 +1,466 @@
+package com.example.slackchat.search;
+
+import jakarta.annotation.PreDestroy;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process inverted index over message content. New and updated messages go to a small mutable
+ * buffer that is scanned directly; full buffers are sealed into immutable segments, and segments are
+ * merged on a background thread. Updates and deletes mark the old version deleted wherever it lives.
+ * Queries match all terms and return message ids newest first.
+ */
+@Component
+public class MessageSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageSearchIndex.class);
+    private static final int SNAPSHOT_MAGIC = 0x43485358;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final int bufferMaxDocuments;
+    private final int mergeFactor;
+
+    // Guards the structure below; segment building and merging happen outside it
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Map<Long, IndexedDocument> active = new ConcurrentHashMap<>();
+    private volatile SealingBuffer sealing;
+    private volatile List<Segment> segments = List.of();
+    // Ids written or removed live while a catch-up runs, so its possibly older copy does not replace them
+    private Set<Long> liveWrites;
+
+    // Only one seal or merge at a time
+    private final ReentrantLock maintenanceLock = new ReentrantLock();
+    private final ExecutorService maintenance = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "message-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean sealScheduled;
+
+    public MessageSearchIndex(@Value("${chat.search.buffer-max-documents:5000}") int bufferMaxDocuments,
+                              @Value("${chat.search.merge-factor:8}") int mergeFactor) {
+        this.bufferMaxDocuments = bufferMaxDocuments;
+        this.mergeFactor = Math.max(2, mergeFactor);
+    }
+
+    public void index(Long messageId, Long channelId, String content) {
+        IndexedDocument document = document(messageId, channelId, content);
+        lock.lock();
+        try {
+            removeLocked(messageId);
+            active.put(messageId, document);
+            if (liveWrites != null) {
+                liveWrites.add(messageId);
+            }
+        } finally {
+            lock.unlock();
+        }
+        scheduleSealIfFull();
+    }
+
+    // For the backfill: never overwrite a version indexed by a live write
+    public boolean indexIfAbsent(Long messageId, Long channelId, String content) {
+        IndexedDocument document = document(messageId, channelId, content);
+        lock.lock();
+        try {
+            if (containsLocked(messageId)) {
+                return false;
+            }
+            active.put(messageId, document);
+        } finally {
+            lock.unlock();
+        }
+        scheduleSealIfFull();
+        return true;
+    }
+
+    public void remove(Long messageId) {
+        lock.lock();
+        try {
+            removeLocked(messageId);
+            if (liveWrites != null) {
+                liveWrites.add(messageId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void beginCatchUp() {
+        lock.lock();
+        try {
+            liveWrites = new HashSet<>();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void endCatchUp() {
+        lock.lock();
+        try {
+            liveWrites = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // For the catch-up after a restore: replaces the restored version unless a live write got there first
+    public boolean refresh(Long messageId, Long channelId, String content) {
+        IndexedDocument document = document(messageId, channelId, content);
+        lock.lock();
+        try {
+            if (liveWrites != null && liveWrites.contains(messageId)) {
+                return false;
+            }
+            removeLocked(messageId);
+            active.put(messageId, document);
+        } finally {
+            lock.unlock();
+        }
+        scheduleSealIfFull();
+        return true;
+    }
+
+    public List<Long> search(Collection<Long> channelIds, String query, Long before, int limit) {
+        String[] terms = Tokenizer.terms(query).toArray(new String[0]);
+        if (terms.length == 0 || channelIds.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<Long, IndexedDocument> activeNow;
+        SealingBuffer sealingNow;
+        List<Segment> segmentsNow;
+        lock.lock();
+        try {
+            activeNow = active;
+            sealingNow = sealing;
+            segmentsNow = segments;
+        } finally {
+            lock.unlock();
+        }
+
+        Set<Long> channels = channelIds instanceof Set<Long> set ? set : new HashSet<>(channelIds);
+        long upper = before == null ? Long.MAX_VALUE : before;
+        TopHits hits = new TopHits(limit);
+        scan(activeNow.values(), null, channels, terms, upper, hits);
+        if (sealingNow != null) {
+            scan(sealingNow.documents.values(), sealingNow.deleted, channels, terms, upper, hits);
+        }
+        for (Segment segment : segmentsNow) {
+            for (Long channelId : channels) {
+                segment.collect(channelId, terms, upper, hits);
+            }
+        }
+        return hits.newestFirst();
+    }
+
+    // Seals the buffer and merges synchronously, e.g. at the end of a backfill
+    public void flush() {
+        maintenanceLock.lock();
+        try {
+            seal();
+            merge();
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    // Seals the buffer first, so the file holds everything indexed before the call. Writes to a temporary file
+    // and renames it, so a crash never leaves a partial snapshot under the final name.
+    public void writeSnapshot(Path target, LocalDateTime coveredUntil) {
+        // Held while writing too, so two snapshots never share the temporary file
+        maintenanceLock.lock();
+        try {
+            seal();
+            merge();
+            writeSnapshot(target, coveredUntil, segments);
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    private static void writeSnapshot(Path target, LocalDateTime coveredUntil, List<Segment> snapshot) {
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeLong(coveredUntil.toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(coveredUntil.getNano());
+                out.writeInt(snapshot.size());
+                for (Segment segment : snapshot) {
+                    segment.writeTo(out);
+                }
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.flush();
+                file.getFD().sync();
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write search snapshot " + target, e);
+        }
+    }
+
+    // Replaces the segments with the snapshot's and returns the time it covers, or null if there is no snapshot
+    public LocalDateTime restoreSnapshot(Path source) {
+        if (!Files.isRegularFile(source)) {
+            return null;
+        }
+        List<Segment> restored = new ArrayList<>();
+        LocalDateTime coveredUntil;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IllegalStateException("Not a search snapshot: " + source);
+            }
+            if (in.readInt() != SNAPSHOT_VERSION) {
+                throw new IllegalStateException("Unsupported search snapshot version in " + source);
+            }
+            coveredUntil = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            int count = in.readInt();
+            Map<String, String> canonical = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                restored.add(Segment.readFrom(in, canonical));
+            }
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IllegalStateException("Truncated search snapshot: " + source);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read search snapshot " + source, e);
+        }
+        lock.lock();
+        try {
+            // Anything written or removed live before the restore is newer than the snapshot's copy
+            Set<Long> newer = new HashSet<>(active.keySet());
+            if (sealing != null) {
+                newer.addAll(sealing.documents.keySet());
+            }
+            for (Segment segment : segments) {
+                for (int ordinal = 0; ordinal < segment.size(); ordinal++) {
+                    newer.add(segment.messageId(ordinal));
+                }
+            }
+            if (liveWrites != null) {
+                newer.addAll(liveWrites);
+            }
+            for (Segment segment : restored) {
+                newer.forEach(segment::delete);
+            }
+            List<Segment> next = new ArrayList<>(restored);
+            next.addAll(segments);
+            segments = List.copyOf(next);
+        } finally {
+            lock.unlock();
+        }
+        return coveredUntil;
+    }
+
+    public Stats getStats() {
+        lock.lock();
+        try {
+            long documents = active.size();
+            if (sealing != null) {
+                documents += sealing.documents.size() - sealing.deleted.size();
+            }
+            for (Segment segment : segments) {
+                documents += segment.liveCount();
+            }
+            return new Stats(documents, segments.size(), active.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        maintenance.shutdownNow();
+        maintenance.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void scheduleSealIfFull() {
+        if (active.size() < bufferMaxDocuments || sealScheduled) {
+            return;
+        }
+        sealScheduled = true;
+        maintenance.execute(() -> {
+            try {
+                sealScheduled = false;
+                flush();
+            } catch (RuntimeException e) {
+                logger.error("Search index maintenance failed", e);
+            }
+        });
+    }
+
+    private void seal() {
+        SealingBuffer buffer;
+        lock.lock();
+        try {
+            if (active.isEmpty()) {
+                return;
+            }
+            // Publish the sealing buffer before swapping so searches always see these documents
+            buffer = new SealingBuffer(active);
+            sealing = buffer;
+            active = new ConcurrentHashMap<>();
+        } finally {
+            lock.unlock();
+        }
+
+        Segment segment = Segment.build(buffer.documents.values());
+
+        lock.lock();
+        try {
+            for (Long messageId : buffer.deleted) {
+                segment.delete(messageId);
+            }
+            List<Segment> next = new ArrayList<>(segments);
+            next.add(segment);
+            segments = List.copyOf(next);
+            sealing = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void merge() {
+        while (segments.size() > mergeFactor) {
+            // Merge the smallest segments first so large ones are rewritten rarely
+            List<Segment> candidates = new ArrayList<>(segments);
+            candidates.sort(Comparator.comparingInt(Segment::liveCount));
+            List<Segment> sources = List.copyOf(candidates.subList(0, mergeFactor));
+            List<RoaringBitmap> snapshots = sources.stream().map(Segment::deleted).toList();
+
+            Segment merged = Segment.merge(sources, snapshots);
+
+            lock.lock();
+            try {
+                // Carry over deletes that arrived while merging
+                for (int s = 0; s < sources.size(); s++) {
+                    Segment source = sources.get(s);
+                    RoaringBitmap.andNot(source.deleted(), snapshots.get(s))
+                            .forEach((int ordinal) -> merged.delete(source.messageId(ordinal)));
+                }
+                List<Segment> next = new ArrayList<>(segments);
+                next.removeIf(segment -> sources.stream().anyMatch(source -> source == segment));
+                if (merged.size() > 0) {
+                    next.add(merged);
+                }
+                segments = List.copyOf(next);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Caller holds the lock
+    private void removeLocked(Long messageId) {
+        active.remove(messageId);
+        SealingBuffer sealingNow = sealing;
+        if (sealingNow != null && sealingNow.documents.containsKey(messageId)) {
+            sealingNow.deleted.add(messageId);
+        }
+        for (Segment segment : segments) {
+            segment.delete(messageId);
+        }
+    }
+
+    // Caller holds the lock
+    private boolean containsLocked(Long messageId) {
+        if (active.containsKey(messageId)) {
+            return true;
+        }
+        SealingBuffer sealingNow = sealing;
+        if (sealingNow != null && sealingNow.documents.containsKey(messageId)
+                && !sealingNow.deleted.contains(messageId)) {
+            return true;
+        }
+        for (Segment segment : segments) {
+            if (segment.isLive(messageId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void scan(Collection<IndexedDocument> documents, Set<Long> deleted, Set<Long> channels,
+                             String[] terms, long before, TopHits hits) {
+        for (IndexedDocument document : documents) {
+            if (document.messageId < before && channels.contains(document.channelId)
+                    && (deleted == null || !deleted.contains(document.messageId))
+                    && document.containsAll(terms)) {
+                hits.offer(document.messageId);
+            }
+        }
+    }
+
+    private static IndexedDocument document(Long messageId, Long channelId, String content) {
+        String[] terms = Tokenizer.terms(content).toArray(new String[0]);
+        Arrays.sort(terms);
+        return new IndexedDocument(messageId, channelId, terms);
+    }
+
+    private static final class SealingBuffer {
+        private final Map<Long, IndexedDocument> documents;
+        private final Set<Long> deleted = ConcurrentHashMap.newKeySet();
+
+        private SealingBuffer(Map<Long, IndexedDocument> documents) {
+            this.documents = documents;
+        }
+    }
+
+    public static class Stats {
+        private final long documents;
+        private final int segments;
+        private final int bufferedDocuments;
+
+        public Stats(long documents, int segments, int bufferedDocuments) {
+            this.documents = documents;
+            this.segments = segments;
+            this.bufferedDocuments = bufferedDocuments;
+        }
+
+        public long getDocuments() {
+            return documents;
+        }
+
+        public int getSegments() {
+            return segments;
+        }
+
+        public int getBufferedDocuments() {
+            return bufferedDocuments;
+        }
+    }
+}
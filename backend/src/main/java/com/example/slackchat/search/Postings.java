@@ -0,0 +1,78 @@
+package com.example.slackchat.search;
+
+/**
+ * Sorted document ordinals stored as a varint count followed by varint gaps.
+ */
+final class Postings {
+
+    private Postings() {
+    }
+
+    static byte[] encode(int[] ordinals) {
+        byte[] buffer = new byte[5 * (ordinals.length + 1)];
+        int position = putVarint(buffer, 0, ordinals.length);
+        int previous = 0;
+        for (int ordinal : ordinals) {
+            position = putVarint(buffer, position, ordinal - previous);
+            previous = ordinal;
+        }
+        byte[] result = new byte[position];
+        System.arraycopy(buffer, 0, result, 0, position);
+        return result;
+    }
+
+    static int[] decode(byte[] data) {
+        int[] position = {0};
+        int[] ordinals = new int[getVarint(data, position)];
+        int previous = 0;
+        for (int i = 0; i < ordinals.length; i++) {
+            previous += getVarint(data, position);
+            ordinals[i] = previous;
+        }
+        return ordinals;
+    }
+
+    static int size(byte[] data) {
+        return getVarint(data, new int[]{0});
+    }
+
+    // Both inputs sorted ascending; returns the sorted intersection
+    static int[] intersect(int[] left, int[] right) {
+        int[] result = new int[Math.min(left.length, right.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < left.length && j < right.length; ) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[count++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        int[] trimmed = new int[count];
+        System.arraycopy(result, 0, trimmed, 0, count);
+        return trimmed;
+    }
+
+    private static int putVarint(byte[] buffer, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    private static int getVarint(byte[] data, int[] position) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = data[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
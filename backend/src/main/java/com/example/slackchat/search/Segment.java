@@ -0,0 +1,253 @@
+package com.example.slackchat.search;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable set of indexed messages. Documents are numbered by ascending message id, and each
+ * channel has its own term dictionary whose postings are delta-encoded ordinals.
+ * Only the deletion bitmap changes after construction.
+ */
+final class Segment {
+
+    private final long[] messageIds;
+    private final Map<Long, ChannelPostings> channels;
+    private volatile RoaringBitmap deleted = new RoaringBitmap();
+
+    private Segment(long[] messageIds, Map<Long, ChannelPostings> channels) {
+        this.messageIds = messageIds;
+        this.channels = channels;
+    }
+
+    static Segment build(Collection<IndexedDocument> documents) {
+        List<IndexedDocument> sorted = new ArrayList<>(documents);
+        sorted.sort(Comparator.comparingLong(document -> document.messageId));
+
+        long[] messageIds = new long[sorted.size()];
+        Map<Long, TreeMap<String, IntList>> terms = new HashMap<>();
+        for (int ordinal = 0; ordinal < sorted.size(); ordinal++) {
+            IndexedDocument document = sorted.get(ordinal);
+            messageIds[ordinal] = document.messageId;
+            TreeMap<String, IntList> dictionary = terms.computeIfAbsent(document.channelId, id -> new TreeMap<>());
+            for (String term : document.terms) {
+                dictionary.computeIfAbsent(term, t -> new IntList()).add(ordinal);
+            }
+        }
+        return new Segment(messageIds, toPostings(terms));
+    }
+
+    // deletedSnapshots are the sources' deletion bitmaps as of the start of the merge
+    static Segment merge(List<Segment> sources, List<RoaringBitmap> deletedSnapshots) {
+        int live = 0;
+        for (int s = 0; s < sources.size(); s++) {
+            live += sources.get(s).messageIds.length - deletedSnapshots.get(s).getCardinality();
+        }
+        long[] messageIds = new long[live];
+        int count = 0;
+        for (int s = 0; s < sources.size(); s++) {
+            long[] sourceIds = sources.get(s).messageIds;
+            for (int ordinal = 0; ordinal < sourceIds.length; ordinal++) {
+                if (!deletedSnapshots.get(s).contains(ordinal)) {
+                    messageIds[count++] = sourceIds[ordinal];
+                }
+            }
+        }
+        Arrays.sort(messageIds);
+        int distinct = 0;
+        for (int i = 0; i < messageIds.length; i++) {
+            if (i == 0 || messageIds[i] != messageIds[i - 1]) {
+                messageIds[distinct++] = messageIds[i];
+            }
+        }
+        messageIds = Arrays.copyOf(messageIds, distinct);
+
+        Map<Long, TreeMap<String, IntList>> terms = new HashMap<>();
+        for (int s = 0; s < sources.size(); s++) {
+            Segment source = sources.get(s);
+            int[] remap = new int[source.messageIds.length];
+            for (int ordinal = 0; ordinal < remap.length; ordinal++) {
+                remap[ordinal] = deletedSnapshots.get(s).contains(ordinal)
+                        ? -1 : Arrays.binarySearch(messageIds, source.messageIds[ordinal]);
+            }
+            for (Map.Entry<Long, ChannelPostings> channel : source.channels.entrySet()) {
+                TreeMap<String, IntList> dictionary = terms.computeIfAbsent(channel.getKey(), id -> new TreeMap<>());
+                ChannelPostings postings = channel.getValue();
+                for (int t = 0; t < postings.terms.length; t++) {
+                    IntList merged = null;
+                    for (int ordinal : Postings.decode(postings.postings[t])) {
+                        if (remap[ordinal] >= 0) {
+                            if (merged == null) {
+                                merged = dictionary.computeIfAbsent(postings.terms[t], term -> new IntList());
+                            }
+                            merged.add(remap[ordinal]);
+                        }
+                    }
+                }
+            }
+        }
+        terms.values().removeIf(Map::isEmpty);
+        return new Segment(messageIds, toPostings(terms));
+    }
+
+    // Channel dictionaries and the deletion bitmap as of this call; see readFrom
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(messageIds.length);
+        for (long messageId : messageIds) {
+            out.writeLong(messageId);
+        }
+        out.writeInt(channels.size());
+        for (Map.Entry<Long, ChannelPostings> channel : channels.entrySet()) {
+            ChannelPostings postings = channel.getValue();
+            out.writeLong(channel.getKey());
+            out.writeInt(postings.terms.length);
+            for (int t = 0; t < postings.terms.length; t++) {
+                byte[] term = postings.terms[t].getBytes(StandardCharsets.UTF_8);
+                out.writeInt(term.length);
+                out.write(term);
+                out.writeInt(postings.postings[t].length);
+                out.write(postings.postings[t]);
+            }
+        }
+        deleted.serialize(out);
+    }
+
+    static Segment readFrom(DataInputStream in, Map<String, String> canonical) throws IOException {
+        long[] messageIds = new long[in.readInt()];
+        for (int i = 0; i < messageIds.length; i++) {
+            messageIds[i] = in.readLong();
+        }
+        int channelCount = in.readInt();
+        Map<Long, ChannelPostings> channels = new HashMap<>(channelCount * 2);
+        for (int c = 0; c < channelCount; c++) {
+            long channelId = in.readLong();
+            String[] terms = new String[in.readInt()];
+            byte[][] postings = new byte[terms.length][];
+            for (int t = 0; t < terms.length; t++) {
+                byte[] term = in.readNBytes(in.readInt());
+                terms[t] = canonical.computeIfAbsent(new String(term, StandardCharsets.UTF_8), value -> value);
+                postings[t] = in.readNBytes(in.readInt());
+            }
+            channels.put(channelId, new ChannelPostings(terms, postings));
+        }
+        Segment segment = new Segment(messageIds, channels);
+        RoaringBitmap deleted = new RoaringBitmap();
+        deleted.deserialize(in);
+        segment.deleted = deleted;
+        return segment;
+    }
+
+    int size() {
+        return messageIds.length;
+    }
+
+    int liveCount() {
+        return messageIds.length - deleted.getCardinality();
+    }
+
+    RoaringBitmap deleted() {
+        return deleted;
+    }
+
+    long messageId(int ordinal) {
+        return messageIds[ordinal];
+    }
+
+    int ordinalOf(long messageId) {
+        int ordinal = Arrays.binarySearch(messageIds, messageId);
+        return ordinal >= 0 ? ordinal : -1;
+    }
+
+    boolean isLive(long messageId) {
+        int ordinal = ordinalOf(messageId);
+        return ordinal >= 0 && !deleted.contains(ordinal);
+    }
+
+    // Copy-on-write so searches never see a bitmap being modified; the caller holds the index lock
+    boolean delete(long messageId) {
+        int ordinal = ordinalOf(messageId);
+        if (ordinal < 0 || deleted.contains(ordinal)) {
+            return false;
+        }
+        RoaringBitmap copy = deleted.clone();
+        copy.add(ordinal);
+        deleted = copy;
+        return true;
+    }
+
+    void collect(long channelId, String[] queryTerms, long before, TopHits hits) {
+        ChannelPostings postings = channels.get(channelId);
+        if (postings == null) {
+            return;
+        }
+        byte[][] lists = new byte[queryTerms.length][];
+        for (int i = 0; i < queryTerms.length; i++) {
+            lists[i] = postings.get(queryTerms[i]);
+            if (lists[i] == null) {
+                return;
+            }
+        }
+        // Start from the rarest term so the intersection shrinks fastest
+        Arrays.sort(lists, Comparator.comparingInt(Postings::size));
+        int[] matches = Postings.decode(lists[0]);
+        for (int i = 1; i < lists.length && matches.length > 0; i++) {
+            matches = Postings.intersect(matches, Postings.decode(lists[i]));
+        }
+
+        RoaringBitmap deletedNow = deleted;
+        for (int i = matches.length - 1; i >= 0; i--) {
+            long messageId = messageIds[matches[i]];
+            if (messageId >= before || deletedNow.contains(matches[i])) {
+                continue;
+            }
+            if (!hits.offer(messageId)) {
+                break;
+            }
+        }
+    }
+
+    private static Map<Long, ChannelPostings> toPostings(Map<Long, TreeMap<String, IntList>> terms) {
+        Map<Long, ChannelPostings> channels = new HashMap<>(terms.size() * 2);
+        // Channels share most of their vocabulary, so keep one String per distinct term
+        Map<String, String> canonical = new HashMap<>();
+        terms.forEach((channelId, dictionary) -> channels.put(channelId, new ChannelPostings(dictionary, canonical)));
+        return channels;
+    }
+
+    private static final class ChannelPostings {
+        private final String[] terms;
+        private final byte[][] postings;
+
+        private ChannelPostings(TreeMap<String, IntList> dictionary, Map<String, String> canonical) {
+            terms = new String[dictionary.size()];
+            postings = new byte[dictionary.size()][];
+            int i = 0;
+            for (Map.Entry<String, IntList> entry : dictionary.entrySet()) {
+                terms[i] = canonical.computeIfAbsent(entry.getKey(), term -> term);
+                postings[i] = Postings.encode(entry.getValue().toSortedArray());
+                i++;
+            }
+        }
+
+        private ChannelPostings(String[] terms, byte[][] postings) {
+            this.terms = terms;
+            this.postings = postings;
+        }
+
+        byte[] get(String term) {
+            int index = Arrays.binarySearch(terms, term);
+            return index >= 0 ? postings[index] : null;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.slackchat.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Keeps the largest (newest) message ids seen, up to a limit.
+ */
+final class TopHits {
+    private final int limit;
+    private final TreeSet<Long> ids = new TreeSet<>();
+
+    TopHits(int limit) {
+        this.limit = limit;
+    }
+
+    // False once the id is too old to make the cut, so callers walking newest-first can stop
+    boolean offer(long id) {
+        if (ids.size() < limit) {
+            ids.add(id);
+            return true;
+        }
+        if (id <= ids.first()) {
+            return false;
+        }
+        if (ids.add(id)) {
+            ids.pollFirst();
+        }
+        return true;
+    }
+
+    List<Long> newestFirst() {
+        return new ArrayList<>(ids.descendingSet());
+    }
+}
@@ -2,28 +2,37 @@ package com.example.slackchat.security;
 
 import com.example.slackchat.service.UserService;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final UserService userService;
     private final JwtUtils jwtUtils;
+    private final Timer verifyValid;
+    private final Timer verifyExpired;
+    private final Timer verifyInvalid;
 
-    public JwtRequestFilter(UserService userService, JwtUtils jwtUtils) {
+    public JwtRequestFilter(UserService userService, JwtUtils jwtUtils, MeterRegistry meterRegistry) {
         this.userService = userService;
         this.jwtUtils = jwtUtils;
+        this.verifyValid = verifyTimer(meterRegistry, "valid");
+        this.verifyExpired = verifyTimer(meterRegistry, "expired");
+        this.verifyInvalid = verifyTimer(meterRegistry, "invalid");
     }
 
     @Override
@@ -32,24 +41,31 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         final String requestTokenHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwtToken = null;
+        VerifiedToken verifiedToken = null;
 
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-            jwtToken = requestTokenHeader.substring(7);
+            String jwtToken = requestTokenHeader.substring(7);
+            long start = System.nanoTime();
             try {
-                username = jwtUtils.extractUsername(jwtToken);
-            } catch (IllegalArgumentException e) {
-                logger.warn("Unable to get JWT Token");
+                // Signature and expiry are checked once here; repeat requests with the same token hit the cache
+                verifiedToken = jwtUtils.verifyToken(jwtToken);
+                verifyValid.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             } catch (ExpiredJwtException e) {
+                verifyExpired.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
                 logger.warn("JWT Token has expired");
+            } catch (JwtException | IllegalArgumentException e) {
+                verifyInvalid.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                logger.warn("Unable to get JWT Token");
             }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userService.loadUserByUsername(username);
+        if (verifiedToken != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Served from the principal cache, so most requests do not touch the users table
+            AuthenticatedUser userDetails = this.userService.loadPrincipal(verifiedToken.getUsername());
 
-            if (jwtUtils.validateToken(jwtToken, userDetails)) {
+            // A username re-registered by another account after deletion must not inherit old tokens
+            if (userDetails != null
+                    && (verifiedToken.getUserId() == null || verifiedToken.getUserId().equals(userDetails.getId()))) {
                 UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 usernamePasswordAuthenticationToken
@@ -59,4 +75,11 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         }
         chain.doFilter(request, response);
     }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("chat.jwt.verify")
+                .description("Bearer token verification, including verified-token cache hits")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
 }
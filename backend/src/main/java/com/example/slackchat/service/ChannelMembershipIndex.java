@@ -0,0 +1,168 @@
+package com.example.slackchat.service;
+
+import com.example.slackchat.datasource.ReadRouting;
+import com.example.slackchat.repository.ChannelRepository;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory copy of channel_members as one compressed bitmap of user ids per channel.
+ * Bitmaps are copy-on-write: readers never lock, and joins/leaves swap in a modified copy.
+ * Cold loads and joins/leaves of the same channel serialize on a striped lock, never on the map itself,
+ * so a database load does not block a map bin (and pin a virtual thread's carrier) while it runs.
+ */
+@Component
+public class ChannelMembershipIndex implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChannelMembershipIndex.class);
+    private static final int LOCK_STRIPES = 64;
+
+    private final ChannelRepository channelRepository;
+    private final boolean warmOnStartup;
+    private final Map<Long, Roaring64NavigableMap> members = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public ChannelMembershipIndex(ChannelRepository channelRepository,
+                                  @Value("${chat.membership.warm-on-startup:true}") boolean warmOnStartup) {
+        this.channelRepository = channelRepository;
+        this.warmOnStartup = warmOnStartup;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    // Runs before the web server accepts requests, so no join can slip between the snapshot and the index
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!warmOnStartup) {
+            return;
+        }
+        Map<Long, Roaring64NavigableMap> snapshot = new HashMap<>();
+        for (Object[] row : ReadRouting.onPrimary(channelRepository::findAllMemberships)) {
+            snapshot.computeIfAbsent((Long) row[0], id -> new Roaring64NavigableMap()).addLong((Long) row[1]);
+        }
+        snapshot.values().forEach(Roaring64NavigableMap::runOptimize);
+        members.putAll(snapshot);
+        logger.info("Warmed membership index for {} channels", snapshot.size());
+    }
+
+    public boolean isMember(Long channelId, Long userId) {
+        return bitmap(channelId).contains(userId);
+    }
+
+    public long getMemberCount(Long channelId) {
+        return bitmap(channelId).getLongCardinality();
+    }
+
+    // Call after the membership change is committed
+    public void addMember(Long channelId, Long userId) {
+        ReentrantLock lock = lock(channelId);
+        lock.lock();
+        try {
+            members.computeIfPresent(channelId, (id, current) -> {
+                if (current.contains(userId)) {
+                    return current;
+                }
+                Roaring64NavigableMap copy = copyOf(current);
+                copy.addLong(userId);
+                return copy;
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Call after the membership change is committed
+    public void removeMember(Long channelId, Long userId) {
+        ReentrantLock lock = lock(channelId);
+        lock.lock();
+        try {
+            members.computeIfPresent(channelId, (id, current) -> {
+                if (!current.contains(userId)) {
+                    return current;
+                }
+                Roaring64NavigableMap copy = copyOf(current);
+                copy.removeLong(userId);
+                return copy;
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Call after the channel is committed; replaces whatever a probe of the id cached before it existed
+    public void channelCreated(Long channelId, Long creatorId) {
+        Roaring64NavigableMap bitmap = new Roaring64NavigableMap();
+        bitmap.addLong(creatorId);
+        ReentrantLock lock = lock(channelId);
+        lock.lock();
+        try {
+            members.put(channelId, bitmap);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void evictChannel(Long channelId) {
+        ReentrantLock lock = lock(channelId);
+        lock.lock();
+        try {
+            members.remove(channelId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Channels reload on their next lookup
+    public void evictAll() {
+        for (Long channelId : members.keySet()) {
+            evictChannel(channelId);
+        }
+    }
+
+    private Roaring64NavigableMap bitmap(Long channelId) {
+        Roaring64NavigableMap bitmap = members.get(channelId);
+        if (bitmap != null) {
+            return bitmap;
+        }
+        // Cold channel: load from the database under the channel's stripe lock, so a concurrent
+        // addMember/removeMember either runs first (and the load reads its committed row) or waits and
+        // applies on top of the loaded bitmap.
+        ReentrantLock lock = lock(channelId);
+        lock.lock();
+        try {
+            bitmap = members.get(channelId);
+            if (bitmap == null) {
+                bitmap = new Roaring64NavigableMap();
+                ReadRouting.onPrimary(() -> channelRepository.findMemberIds(channelId)).forEach(bitmap::addLong);
+                bitmap.runOptimize();
+                // Ids of channels that do not exist are not cached, so probing them cannot grow the map
+                if (!bitmap.isEmpty() || ReadRouting.onPrimary(() -> channelRepository.existsById(channelId))) {
+                    members.put(channelId, bitmap);
+                }
+            }
+            return bitmap;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lock(Long channelId) {
+        return locks[Math.floorMod(channelId.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static Roaring64NavigableMap copyOf(Roaring64NavigableMap bitmap) {
+        Roaring64NavigableMap copy = new Roaring64NavigableMap();
+        copy.or(bitmap);
+        return copy;
+    }
+}
@@ -1,10 +1,22 @@
 package com.example.slackchat.service;
 
+import com.example.slackchat.archive.MessageArchive;
+import com.example.slackchat.cluster.ClusterEvent;
+import com.example.slackchat.cluster.ClusterEventBus;
+import com.example.slackchat.datasource.ReadRouting;
+import com.example.slackchat.dto.ChannelSummary;
+import com.example.slackchat.dto.UserSummary;
 import com.example.slackchat.model.Channel;
 import com.example.slackchat.model.User;
 import com.example.slackchat.repository.ChannelRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,17 +27,47 @@ public class ChannelService {
     @Autowired
     private ChannelRepository channelRepository;
 
+    @Autowired
+    private RecentMessageCache recentMessageCache;
+
+    @Autowired
+    private ChannelMembershipIndex channelMembershipIndex;
+
+    @Autowired
+    private ReadStateService readStateService;
+
+    @Autowired
+    private MessageArchive messageArchive;
+
+    @Autowired
+    private ContentVersions contentVersions;
+
+    @Autowired
+    private ClusterEventBus clusterEventBus;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     public Channel createChannel(String name, String description, User createdBy) {
         if (channelRepository.existsByName(name)) {
             throw new RuntimeException("Channel name already exists");
         }
 
         Channel channel = new Channel(name, description, createdBy);
-        return channelRepository.save(channel);
+        Channel saved = channelRepository.save(channel);
+        channelMembershipIndex.channelCreated(saved.getId(), createdBy.getId());
+        contentVersions.directoryChanged();
+        contentVersions.channelSetChanged(createdBy.getId());
+        clusterEventBus.publish(ClusterEvent.channelCreated(saved.getId(), createdBy.getId()));
+        return saved;
     }
 
+    // Loads that fill the second-level and query caches read the primary, so a lagging replica is never cached
     public Optional<Channel> findById(Long id) {
-        return channelRepository.findById(id);
+        return ReadRouting.onPrimary(() -> channelRepository.findById(id));
     }
 
     public Optional<Channel> findByName(String name) {
@@ -37,34 +79,111 @@ public class ChannelService {
     }
 
     public List<Channel> findPublicChannels() {
-        return channelRepository.findPublicChannels();
+        return ReadRouting.onPrimary(channelRepository::findPublicChannels);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Channel> findChannelsByMember(Long userId) {
+        return channelRepository.findChannelsByMemberId(userId);
     }
 
-    public List<Channel> findChannelsByMember(User user) {
-        return channelRepository.findChannelsByMember(user);
+    public List<ChannelSummary> findPublicChannelSummaries() {
+        return withMemberCounts(ReadRouting.onPrimary(channelRepository::findPublicChannelSummaries));
     }
 
-    public Channel addMemberToChannel(Long channelId, User user) {
-        Optional<Channel> channelOpt = channelRepository.findById(channelId);
-        if (channelOpt.isPresent()) {
-            Channel channel = channelOpt.get();
-            channel.getMembers().add(user);
-            return channelRepository.save(channel);
+    @Transactional(readOnly = true)
+    public List<ChannelSummary> findChannelSummariesByMember(Long userId) {
+        return withMemberCounts(channelRepository.findChannelSummariesByMemberId(userId));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findChannelIdsByMember(Long userId) {
+        return channelRepository.findChannelIdsByMemberId(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ChannelSummary> findSummaryById(Long channelId) {
+        return channelRepository.findChannelSummaryById(channelId).map(this::withMemberCount);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<UserSummary> findMembers(Long channelId, int page, int size) {
+        return channelRepository.findMembers(channelId, PageRequest.of(page, size));
+    }
+
+    public boolean isMember(Long channelId, Long userId) {
+        return channelMembershipIndex.isMember(channelId, userId);
+    }
+
+    // Writes the channel_members row directly instead of loading the whole member set; the index and versions
+    // move after the commit
+    public void addMemberToChannel(Long channelId, User user) {
+        Boolean found;
+        try {
+            found = transactionTemplate.execute(status -> {
+                if (!channelRepository.existsById(channelId)) {
+                    return false;
+                }
+                jdbcTemplate.update("INSERT INTO channel_members (channel_id, user_id) SELECT ?, ? WHERE NOT EXISTS "
+                        + "(SELECT 1 FROM channel_members WHERE channel_id = ? AND user_id = ?)",
+                        channelId, user.getId(), channelId, user.getId());
+                return true;
+            });
+        } catch (DuplicateKeyException e) {
+            // A concurrent join of the same user inserted the row first
+            found = true;
+        }
+        if (!Boolean.TRUE.equals(found)) {
+            throw new RuntimeException("Channel not found");
         }
-        throw new RuntimeException("Channel not found");
+        channelMembershipIndex.addMember(channelId, user.getId());
+        readStateService.markReadToLatest(user.getId(), channelId);
+        membershipChanged(channelId, user.getId());
+        clusterEventBus.publish(ClusterEvent.memberJoined(channelId, user.getId()));
     }
 
-    public Channel removeMemberFromChannel(Long channelId, User user) {
-        Optional<Channel> channelOpt = channelRepository.findById(channelId);
-        if (channelOpt.isPresent()) {
-            Channel channel = channelOpt.get();
-            channel.getMembers().remove(user);
-            return channelRepository.save(channel);
+    public void removeMemberFromChannel(Long channelId, User user) {
+        Boolean found = transactionTemplate.execute(status -> {
+            if (!channelRepository.existsById(channelId)) {
+                return false;
+            }
+            jdbcTemplate.update("DELETE FROM channel_members WHERE channel_id = ? AND user_id = ?",
+                    channelId, user.getId());
+            return true;
+        });
+        if (!Boolean.TRUE.equals(found)) {
+            throw new RuntimeException("Channel not found");
         }
-        throw new RuntimeException("Channel not found");
+        channelMembershipIndex.removeMember(channelId, user.getId());
+        membershipChanged(channelId, user.getId());
+        clusterEventBus.publish(ClusterEvent.memberLeft(channelId, user.getId()));
     }
 
     public void deleteChannel(Long channelId) {
         channelRepository.deleteById(channelId);
+        recentMessageCache.evictChannel(channelId);
+        channelMembershipIndex.evictChannel(channelId);
+        readStateService.onChannelDeleted(channelId);
+        messageArchive.deleteChannel(channelId);
+        // Members' channel-set tags cover the channel's own counter, so this bump reaches them too
+        contentVersions.channelChanged(channelId);
+        contentVersions.directoryChanged();
+        clusterEventBus.publish(ClusterEvent.channelDeleted(channelId));
+    }
+
+    private List<ChannelSummary> withMemberCounts(List<ChannelSummary> summaries) {
+        summaries.forEach(this::withMemberCount);
+        return summaries;
+    }
+
+    private ChannelSummary withMemberCount(ChannelSummary summary) {
+        summary.setMemberCount(channelMembershipIndex.getMemberCount(summary.getId()));
+        return summary;
+    }
+
+    private void membershipChanged(Long channelId, Long userId) {
+        contentVersions.channelChanged(channelId);
+        contentVersions.channelSetChanged(userId);
+        contentVersions.directoryChanged();
     }
 }
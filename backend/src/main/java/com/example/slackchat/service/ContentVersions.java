@@ -0,0 +1,130 @@
+package com.example.slackchat.service;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Version counters behind the ETags of channel and message reads. Writers bump a counter after their change
+ * is committed and readers take the tag before loading, so a tag never outlives the data it was sent with;
+ * a matching If-None-Match is then answered from these counters alone.
+ * Counters start at zero on every boot, so tags also carry the boot time.
+ */
+@Component
+public class ContentVersions {
+
+    private final long epoch = System.currentTimeMillis();
+    // Bumped when this node may have missed other nodes' changes
+    private final AtomicLong generation = new AtomicLong();
+
+    // Public channel list: channels created or deleted, and member counts
+    private final AtomicLong directory = new AtomicLong();
+    // Display names shown as senders and channel creators
+    private final AtomicLong users = new AtomicLong();
+    // Messages, members and member count of one channel; deleted channels keep their counter
+    private final Map<Long, AtomicLong> channels = new ConcurrentHashMap<>();
+    // Which channels a user belongs to
+    private final Map<Long, AtomicLong> channelSets = new ConcurrentHashMap<>();
+    // A user's read markers
+    private final Map<Long, AtomicLong> readStates = new ConcurrentHashMap<>();
+    // Channel ids per user as of a channel-set version, so a repeat /my read stays off the database
+    private final Map<Long, MemberChannels> memberChannels = new ConcurrentHashMap<>();
+
+    public void channelChanged(Long channelId) {
+        bump(channels, channelId);
+    }
+
+    public void channelSetChanged(Long userId) {
+        bump(channelSets, userId);
+    }
+
+    public void readStateChanged(Long userId) {
+        bump(readStates, userId);
+    }
+
+    public void directoryChanged() {
+        directory.incrementAndGet();
+    }
+
+    public void usersChanged() {
+        users.incrementAndGet();
+    }
+
+    public void invalidateAll() {
+        memberChannels.clear();
+        generation.incrementAndGet();
+    }
+
+    public String channelTag(Long channelId) {
+        return tag(users.get(), version(channels, channelId));
+    }
+
+    public String directoryTag() {
+        return tag(users.get(), directory.get());
+    }
+
+    public String channelSetTag(Long userId, Supplier<List<Long>> channelIds) {
+        return tag(users.get(), channelSetHash(userId, channelIds));
+    }
+
+    public String readStateTag(Long userId, Supplier<List<Long>> channelIds) {
+        return tag(users.get(), channelSetHash(userId, channelIds), version(readStates, userId));
+    }
+
+    // Lets browsers keep the body but revalidate it with If-None-Match on every use
+    public static <T> ResponseEntity<T> tagged(String etag, T body) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(body);
+    }
+
+    private long channelSetHash(Long userId, Supplier<List<Long>> channelIds) {
+        long setVersion = version(channelSets, userId);
+        MemberChannels cached = memberChannels.get(userId);
+        if (cached == null || cached.version != setVersion) {
+            // A join racing this load bumps the set version again, so the stale list is never reused
+            cached = new MemberChannels(setVersion, channelIds.get().stream().mapToLong(Long::longValue).toArray());
+            memberChannels.put(userId, cached);
+        }
+        long hash = setVersion;
+        for (long channelId : cached.channelIds) {
+            hash = 31 * hash + channelId * 0x9E3779B97F4A7C15L + version(channels, channelId);
+        }
+        return hash;
+    }
+
+    private String tag(long... parts) {
+        StringBuilder tag = new StringBuilder("\"").append(Long.toHexString(epoch))
+                .append('.').append(Long.toHexString(generation.get()));
+        for (long part : parts) {
+            tag.append('-').append(Long.toHexString(part));
+        }
+        return tag.append('"').toString();
+    }
+
+    private static long version(Map<Long, AtomicLong> counters, Long key) {
+        AtomicLong counter = counters.get(key);
+        return counter == null ? 0 : counter.get();
+    }
+
+    private static void bump(Map<Long, AtomicLong> counters, Long key) {
+        counters.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static final class MemberChannels {
+        private final long version;
+        private final long[] channelIds;
+
+        private MemberChannels(long version, long[] channelIds) {
+            this.version = version;
+            this.channelIds = channelIds;
+        }
+    }
+}
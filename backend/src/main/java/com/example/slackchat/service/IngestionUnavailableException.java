@@ -0,0 +1,11 @@
+package com.example.slackchat.service;
+
+/**
+ * The ingestion pipeline could not take or save a message in time; the request may be retried later.
+ */
+public class IngestionUnavailableException extends RuntimeException {
+
+    public IngestionUnavailableException(String message) {
+        super(message);
+    }
+}
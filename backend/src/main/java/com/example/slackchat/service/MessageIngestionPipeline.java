@@ -0,0 +1,189 @@
+package com.example.slackchat.service;
+
+import com.example.slackchat.model.Message;
+import com.example.slackchat.repository.MessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces concurrent message inserts into batches that commit in a single transaction.
+ * A single writer thread drains the queue and stamps each batch's creation time just before it is
+ * inserted, so (createdAt, id) order is commit order and a reader paging forward never sees a newer
+ * message before an older one.
+ */
+@Component
+public class MessageIngestionPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageIngestionPipeline.class);
+
+    private final MessageRepository messageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final BlockingQueue<PendingMessage> queue;
+
+    private final DistributionSummary batchSize;
+    private final Timer commitTimer;
+    private final Counter batchFailures;
+
+    private volatile boolean running;
+    private Thread writer;
+    // Only touched by the writer thread; keeps stamps from going backwards if the clock does
+    private LocalDateTime lastStamp = LocalDateTime.MIN;
+
+    public MessageIngestionPipeline(MessageRepository messageRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${chat.ingest.max-batch-size:256}") int maxBatchSize,
+                                    @Value("${chat.ingest.max-linger-ms:2}") long maxLingerMillis,
+                                    @Value("${chat.ingest.queue-capacity:10000}") int queueCapacity) {
+        this.messageRepository = messageRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(maxLingerMillis);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.batchSize = DistributionSummary.builder("chat.ingest.batch.size")
+                .description("Messages committed per transaction")
+                .register(meterRegistry);
+        this.commitTimer = Timer.builder("chat.ingest.commit")
+                .description("Time to insert and commit one batch")
+                .register(meterRegistry);
+        this.batchFailures = Counter.builder("chat.ingest.batch.failures")
+                .description("Batches that fell back to one insert per message")
+                .register(meterRegistry);
+        Gauge.builder("chat.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("Messages waiting for the writer thread")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::run, "message-ingest");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public CompletableFuture<Message> submit(Message message) {
+        PendingMessage pending = new PendingMessage(message);
+        if (!running) {
+            throw new IngestionUnavailableException("Message ingestion is shut down");
+        }
+        if (!queue.offer(pending)) {
+            throw new IngestionUnavailableException("Too many messages in flight, try again later");
+        }
+        return pending.result;
+    }
+
+    // Withdraws a message the writer has not picked up yet; false once it is being written
+    public boolean cancel(CompletableFuture<Message> result) {
+        if (queue.removeIf(pending -> pending.result == result)) {
+            result.cancel(false);
+            return true;
+        }
+        return false;
+    }
+
+    private void run() {
+        List<PendingMessage> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                // Shutting down: flush whatever is already queued
+                queue.drainTo(batch, maxBatchSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<PendingMessage> batch) throws InterruptedException {
+        batch.add(queue.take());
+        queue.drainTo(batch, maxBatchSize - batch.size());
+
+        // Wait a little for stragglers, but never past the linger deadline
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            PendingMessage next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+
+    private void write(List<PendingMessage> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        lastStamp = now.isAfter(lastStamp) ? now : lastStamp;
+        List<Message> messages = new ArrayList<>(batch.size());
+        for (PendingMessage pending : batch) {
+            pending.message.setCreatedAt(lastStamp);
+            pending.message.setUpdatedAt(lastStamp);
+            messages.add(pending.message);
+        }
+        batchSize.record(batch.size());
+        try {
+            List<Message> saved = commitTimer.record(
+                    () -> transactionTemplate.execute(status -> messageRepository.saveAll(messages)));
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(saved.get(i));
+            }
+        } catch (RuntimeException e) {
+            // One bad row must not fail its neighbours, so retry them one at a time
+            batchFailures.increment();
+            logger.warn("Batch of {} messages failed, retrying individually: {}", batch.size(), e.getMessage());
+            for (PendingMessage pending : batch) {
+                writeOne(pending);
+            }
+        }
+    }
+
+    private void writeOne(PendingMessage pending) {
+        pending.message.setId(null);
+        try {
+            pending.result.complete(transactionTemplate.execute(status -> messageRepository.save(pending.message)));
+        } catch (RuntimeException e) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    private static final class PendingMessage {
+        private final Message message;
+        private final CompletableFuture<Message> result = new CompletableFuture<>();
+
+        private PendingMessage(Message message) {
+            this.message = message;
+        }
+    }
+}
@@ -1,58 +1,298 @@
 package com.example.slackchat.service;
 
+import com.example.slackchat.archive.MessageArchive;
+import com.example.slackchat.cluster.ClusterEvent;
+import com.example.slackchat.cluster.ClusterEventBus;
+import com.example.slackchat.datasource.ReadRouting;
+import com.example.slackchat.dto.MessageCursor;
+import com.example.slackchat.dto.MessageSummary;
+import com.example.slackchat.metrics.ChatMetrics;
 import com.example.slackchat.model.Channel;
 import com.example.slackchat.model.Message;
 import com.example.slackchat.model.User;
 import com.example.slackchat.repository.MessageRepository;
+import com.example.slackchat.search.MessageSearchIndex;
+import com.example.slackchat.websocket.MessageEventPublisher;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class MessageService {
 
+    private static final Logger logger = LoggerFactory.getLogger(MessageService.class);
+
+    // Side effects run here rather than on the ingest writer thread, so they never delay the next batch
+    private final ExecutorService publisher = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("message-publish-", 0).factory());
+
     @Autowired
     private MessageRepository messageRepository;
 
+    @Autowired
+    private RecentMessageCache recentMessageCache;
+
+    @Autowired
+    private MessageIngestionPipeline messageIngestionPipeline;
+
+    @Autowired
+    private MessageSearchIndex messageSearchIndex;
+
+    @Autowired
+    private ReadStateService readStateService;
+
+    @Autowired
+    private ChatMetrics chatMetrics;
+
+    @Autowired
+    private MessageArchive messageArchive;
+
+    @Autowired
+    private ContentVersions contentVersions;
+
+    @Autowired
+    private ClusterEventBus clusterEventBus;
+
+    @Autowired
+    private MessageEventPublisher messageEventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${chat.ingest.timeout-ms:10000}")
+    private long ingestTimeoutMillis;
+
+    // The side effects are chained to the commit, so a message that commits after its caller timed out still
+    // reaches caches, the index, other nodes and subscribers. Each one's failure is logged and skipped: the
+    // message is committed, and reporting an error would only make the client post it again
     public Message createMessage(String content, User sender, Channel channel) {
-        Message message = new Message(content, sender, channel);
-        return messageRepository.save(message);
+        long start = System.nanoTime();
+        CompletableFuture<Message> saved = messageIngestionPipeline.submit(new Message(content, sender, channel));
+        CompletableFuture<Message> published = saved.thenApplyAsync(message -> {
+            MessageSummary summary = MessageSummary.from(message);
+            sideEffect(message, "recent cache", () -> recentMessageCache.onCreated(summary));
+            sideEffect(message, "read state", () -> readStateService.onMessageCreated(summary));
+            sideEffect(message, "search index",
+                    () -> messageSearchIndex.index(message.getId(), channel.getId(), message.getContent()));
+            sideEffect(message, "content version", () -> contentVersions.channelChanged(channel.getId()));
+            sideEffect(message, "cluster event", () -> clusterEventBus.publish(ClusterEvent.messageCreated(summary)));
+            sideEffect(message, "subscribers", () -> messageEventPublisher.publishCreated(summary));
+            return message;
+        }, publisher);
+        Message message;
+        try {
+            message = published.get(ingestTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            if (messageIngestionPipeline.cancel(saved)) {
+                throw new IngestionUnavailableException("Timed out saving message");
+            }
+            throw new IngestionUnavailableException("Timed out saving message; it may still be delivered");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while saving message");
+        }
+        chatMetrics.messageSent(channel.getId(), System.nanoTime() - start);
+        return message;
+    }
+
+    private void sideEffect(Message message, String name, Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            logger.warn("Could not update {} for committed message {}", name, message.getId(), e);
+        }
+    }
+
+    // Lets side effects of messages that already committed finish before the beans they use go away
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        publisher.shutdown();
+        publisher.awaitTermination(10, TimeUnit.SECONDS);
     }
 
     public Optional<Message> findById(Long id) {
         return messageRepository.findById(id);
     }
 
-    public List<Message> findMessagesByChannel(Channel channel) {
-        return messageRepository.findByChannelOrderByCreatedAtAsc(channel);
+    // Whole channel history, oldest first, without holding more than one archive block or fetch batch in memory
+    @Transactional(readOnly = true)
+    public long exportChannel(Long channelId, Consumer<MessageSummary> consumer) {
+        long[] exported = {0};
+        messageArchive.forEach(channelId, message -> {
+            consumer.accept(message);
+            exported[0]++;
+        });
+        // Skip rows a crashed archiver run left in both tiers
+        MessageCursor archivedUpTo = messageArchive.newestCursor(channelId);
+        try (Stream<Message> messages = messageRepository.streamByChannelId(channelId)) {
+            messages.forEach(message -> {
+                MessageSummary summary = MessageSummary.from(message);
+                entityManager.detach(message);
+                if (archivedUpTo == null || isAfter(summary, archivedUpTo)) {
+                    consumer.accept(summary);
+                    exported[0]++;
+                }
+            });
+        }
+        return exported[0];
     }
 
-    public Page<Message> findMessagesByChannelPaginated(Channel channel, int page, int size) {
+    private static boolean isAfter(MessageSummary message, MessageCursor cursor) {
+        int compared = message.getCreatedAt().compareTo(cursor.getCreatedAt());
+        return compared > 0 || (compared == 0 && message.getId() > cursor.getId());
+    }
+
+    // Pages continue from the newest hot rows into the archive
+    @Transactional(readOnly = true)
+    public Page<MessageSummary> findMessagesByChannelPaginated(Channel channel, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return messageRepository.findByChannelOrderByCreatedAtDesc(channel, pageable);
+        Page<MessageSummary> hot = messageRepository.findByChannelOrderByCreatedAtDesc(channel, pageable);
+        long archived = messageArchive.count(channel.getId());
+        if (archived == 0 || hot.getNumberOfElements() == size) {
+            return new PageImpl<>(hot.getContent(), pageable, hot.getTotalElements() + archived);
+        }
+        List<MessageSummary> messages = new ArrayList<>(hot.getContent());
+        long skip = Math.max(0, pageable.getOffset() - hot.getTotalElements());
+        messages.addAll(messageArchive.findPage(channel.getId(), skip, size - messages.size()));
+        return new PageImpl<>(messages, pageable, hot.getTotalElements() + archived);
     }
 
-    public List<Message> findRecentMessagesByChannelId(Long channelId, int limit) {
+    public List<MessageSummary> findRecentMessagesByChannelId(Long channelId, int limit) {
+        List<MessageSummary> cached = recentMessageCache.get(channelId, limit);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Load a full cache window even for small limits so the next reads are hits
+        long stamp = recentMessageCache.beginLoad(channelId);
+        int fetchSize = Math.max(limit, recentMessageCache.getMessagesPerChannel());
+        List<MessageSummary> messages = withArchivedBefore(channelId, null, ReadRouting.onPrimary(() -> messageRepository
+                .findRecentMessagesByChannelId(channelId, PageRequest.of(0, fetchSize))), fetchSize);
+        recentMessageCache.put(channelId, messages, messages.size() < fetchSize, stamp);
+        return messages.size() > limit ? messages.subList(0, limit) : messages;
+    }
+
+    @Transactional(readOnly = true)
+    public List<MessageSummary> findMessagesBefore(Long channelId, MessageCursor cursor, int limit) {
         Pageable pageable = PageRequest.of(0, limit);
-        return messageRepository.findRecentMessagesByChannelId(channelId, pageable);
+        List<MessageSummary> messages = cursor == null
+                ? messageRepository.findLatestMessages(channelId, pageable)
+                : messageRepository.findMessagesBefore(channelId, cursor.getCreatedAt(), cursor.getId(), pageable);
+        return withArchivedBefore(channelId, cursor, messages, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MessageSummary> findMessagesAfter(Long channelId, MessageCursor cursor, int limit) {
+        // Archived messages are all older than the hot ones, so an old cursor reads the archive first
+        List<MessageSummary> archived = messageArchive.findAfter(channelId, cursor, limit);
+        if (archived.size() == limit) {
+            return archived;
+        }
+        MessageCursor from = archived.isEmpty() ? cursor : MessageCursor.of(archived.get(archived.size() - 1));
+        List<MessageSummary> hot = messageRepository
+                .findMessagesAfter(channelId, from.getCreatedAt(), from.getId(), PageRequest.of(0, limit - archived.size()));
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<MessageSummary> messages = new ArrayList<>(archived);
+        messages.addAll(hot);
+        return messages;
+    }
+
+    // Tops up a short newest-first page of hot rows from the archive. Reading strictly before the oldest
+    // hot row also skips rows a crashed archiver run left in both tiers.
+    private List<MessageSummary> withArchivedBefore(Long channelId, MessageCursor cursor, List<MessageSummary> hot,
+                                                    int limit) {
+        if (hot.size() >= limit || !messageArchive.hasArchive(channelId)) {
+            return hot;
+        }
+        MessageCursor from = hot.isEmpty() ? cursor : MessageCursor.of(hot.get(hot.size() - 1));
+        List<MessageSummary> archived = messageArchive.findBefore(channelId, from, limit - hot.size());
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<MessageSummary> messages = new ArrayList<>(hot);
+        messages.addAll(archived);
+        return messages;
     }
 
     public Message updateMessage(Long messageId, String newContent) {
-        Optional<Message> messageOpt = messageRepository.findById(messageId);
+        Optional<Message> messageOpt = messageRepository.findWithSenderById(messageId);
         if (messageOpt.isPresent()) {
             Message message = messageOpt.get();
             message.setContent(newContent);
-            return messageRepository.save(message);
+            // save() merges into a copy whose sender may be an unloaded proxy; this one has its sender loaded
+            messageRepository.save(message);
+            MessageSummary summary = MessageSummary.from(message);
+            recentMessageCache.onUpdated(summary);
+            messageSearchIndex.index(message.getId(), message.getChannel().getId(), message.getContent());
+            contentVersions.channelChanged(message.getChannel().getId());
+            clusterEventBus.publish(ClusterEvent.messageUpdated(summary));
+            return message;
         }
         throw new RuntimeException("Message not found");
     }
 
     public void deleteMessage(Long messageId) {
+        Optional<Message> messageOpt = messageRepository.findById(messageId);
         messageRepository.deleteById(messageId);
+        messageOpt.ifPresent(message -> {
+            recentMessageCache.onDeleted(message.getChannel().getId(), messageId);
+            readStateService.onMessageDeleted(message.getChannel().getId(), messageId);
+            contentVersions.channelChanged(message.getChannel().getId());
+            clusterEventBus.publish(ClusterEvent.messageDeleted(message.getChannel().getId(), messageId));
+        });
+        messageSearchIndex.remove(messageId);
+    }
+
+    public List<MessageSummary> searchMessages(Collection<Long> channelIds, String query, Long before, int limit) {
+        List<Long> ids = messageSearchIndex.search(channelIds, query, before, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, MessageSummary> found = messageRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(MessageSummary::getId, message -> message));
+        if (found.size() < ids.size()) {
+            List<Long> missing = ids.stream().filter(id -> !found.containsKey(id)).toList();
+            found.putAll(messageArchive.findByIds(channelIds, missing));
+        }
+        List<MessageSummary> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            MessageSummary message = found.get(id);
+            if (message != null) {
+                results.add(message);
+            } else {
+                // Deleted while the backfill was indexing it, or while a restored snapshot was on disk
+                messageSearchIndex.remove(id);
+            }
+        }
+        return results;
     }
 }
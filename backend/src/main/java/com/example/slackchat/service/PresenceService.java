@@ -0,0 +1,236 @@
+package com.example.slackchat.service;
+
+import com.example.slackchat.datasource.HibernateCaches;
+import com.example.slackchat.dto.PresenceChange;
+import com.example.slackchat.dto.PresenceDiff;
+import com.example.slackchat.dto.PresenceSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks who is online from client heartbeats instead of the users table.
+ * Heartbeats from an online user only replace its map entry; going online or offline is recorded
+ * under a lock into a versioned change log, so clients can poll for diffs in a consistent order.
+ * last_active and is_online are written back to the database in periodic batches.
+ */
+@Service
+public class PresenceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PresenceService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private HibernateCaches hibernateCaches;
+
+    @Value("${chat.presence.timeout-ms:90000}")
+    private long timeoutMillis;
+
+    @Value("${chat.presence.max-changes:10000}")
+    private int maxChanges;
+
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, PendingWrite> pendingWrites = new ConcurrentHashMap<>();
+
+    // Guards transitions, the change log and version
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<VersionedChange> changes = new ArrayDeque<>();
+    private long version;
+
+    public void heartbeat(Long userId) {
+        heartbeat(userId, System.currentTimeMillis());
+    }
+
+    void heartbeat(Long userId, long now) {
+        Session session = new Session(now);
+        if (sessions.replace(userId, session) == null) {
+            lock.lock();
+            try {
+                if (sessions.put(userId, session) == null) {
+                    record(userId, true);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        pendingWrites.put(userId, new PendingWrite(now, true));
+    }
+
+    public void disconnect(Long userId) {
+        lock.lock();
+        try {
+            Session session = sessions.remove(userId);
+            if (session != null) {
+                record(userId, false);
+                pendingWrites.put(userId, new PendingWrite(session.lastSeen, false));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isOnline(Long userId) {
+        return sessions.containsKey(userId);
+    }
+
+    public PresenceSnapshot snapshot() {
+        lock.lock();
+        try {
+            return new PresenceSnapshot(version, new ArrayList<>(sessions.keySet()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public PresenceDiff changesSince(long since) {
+        lock.lock();
+        try {
+            long oldest = changes.isEmpty() ? version + 1 : changes.peekFirst().version;
+            if (since > version || since < oldest - 1) {
+                return new PresenceDiff(version, true, List.of());
+            }
+            // Only the latest state of each user matters to the client
+            Map<Long, Boolean> latest = new LinkedHashMap<>();
+            for (VersionedChange change : changes) {
+                if (change.version > since) {
+                    latest.put(change.userId, change.online);
+                }
+            }
+            List<PresenceChange> result = new ArrayList<>(latest.size());
+            latest.forEach((userId, online) -> result.add(new PresenceChange(userId, online)));
+            return new PresenceDiff(version, false, result);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.presence.sweep-interval-ms:15000}")
+    public void expireSessions() {
+        expireSessions(System.currentTimeMillis());
+    }
+
+    void expireSessions(long now) {
+        long cutoff = now - timeoutMillis;
+        sessions.forEach((userId, session) -> {
+            if (session.lastSeen >= cutoff) {
+                return;
+            }
+            lock.lock();
+            try {
+                // Fails if a heartbeat refreshed the session meanwhile
+                if (sessions.remove(userId, session)) {
+                    record(userId, false);
+                    pendingWrites.put(userId, new PendingWrite(session.lastSeen, false));
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${chat.presence.flush-interval-ms:30000}")
+    public void flush() {
+        Map<Long, PendingWrite> flushed = new LinkedHashMap<>(pendingWrites);
+        if (flushed.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(flushed.size());
+        flushed.forEach((userId, write) ->
+                batch.add(new Object[]{toTimestamp(write.lastActive), write.online, userId}));
+        jdbcTemplate.batchUpdate("UPDATE users SET last_active = ?, is_online = ? WHERE id = ?", batch);
+
+        // Only now drop the writes, and only those not replaced meanwhile; a failed batch is retried next time
+        flushed.forEach(pendingWrites::remove);
+        // These columns bypass Hibernate, so cached users would keep the old values
+        hibernateCaches.usersChanged(new ArrayList<>(flushed.keySet()));
+    }
+
+    // The is_online column is stale after a crash. Users heard from within the timeout may be connected
+    // to another node, so only those whose last_active is older are reset.
+    @EventListener(ApplicationReadyEvent.class)
+    public void resetOnlineFlags() {
+        resetOnlineFlags(System.currentTimeMillis());
+    }
+
+    void resetOnlineFlags(long now) {
+        jdbcTemplate.update("UPDATE users SET is_online = FALSE WHERE is_online = TRUE "
+                + "AND (last_active IS NULL OR last_active < ?)", toTimestamp(now - timeoutMillis));
+        hibernateCaches.allUsersChanged();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Long userId : new ArrayList<>(sessions.keySet())) {
+            disconnect(userId);
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Could not flush presence on shutdown: {}", e.getMessage());
+        }
+    }
+
+    // Caller holds the lock
+    private void record(Long userId, boolean online) {
+        changes.addLast(new VersionedChange(++version, userId, online));
+        while (changes.size() > maxChanges) {
+            changes.removeFirst();
+        }
+    }
+
+    private static Timestamp toTimestamp(long epochMillis) {
+        return Timestamp.valueOf(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()));
+    }
+
+    private static final class Session {
+        private final long lastSeen;
+
+        private Session(long lastSeen) {
+            this.lastSeen = lastSeen;
+        }
+    }
+
+    private static final class PendingWrite {
+        private final long lastActive;
+        private final boolean online;
+
+        private PendingWrite(long lastActive, boolean online) {
+            this.lastActive = lastActive;
+            this.online = online;
+        }
+    }
+
+    private static final class VersionedChange {
+        private final long version;
+        private final Long userId;
+        private final boolean online;
+
+        private VersionedChange(long version, Long userId, boolean online) {
+            this.version = version;
+            this.userId = userId;
+            this.online = online;
+        }
+    }
+}
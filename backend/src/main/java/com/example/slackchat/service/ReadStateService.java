@@ -0,0 +1,425 @@
+package com.example.slackchat.service;
+
+import com.example.slackchat.cluster.ClusterEvent;
+import com.example.slackchat.cluster.ClusterEventBus;
+import com.example.slackchat.datasource.ReadRouting;
+import com.example.slackchat.dto.ChannelReadState;
+import com.example.slackchat.dto.ChannelSummary;
+import com.example.slackchat.dto.MessageSummary;
+import com.example.slackchat.model.ReadMarker;
+import com.example.slackchat.repository.MessageRepository;
+import com.example.slackchat.repository.ReadMarkerRepository;
+import com.example.slackchat.security.AuthenticatedUser;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Per-user read markers and unread/mention counts without COUNT queries.
+ * Each channel keeps the ids of its newest messages in memory; unread is the number of those above
+ * the user's marker, and anything beyond the window is reported as capped.
+ * Marker writes are coalesced in memory and flushed to read_markers in batches.
+ */
+@Service
+public class ReadStateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadStateService.class);
+    private static final Pattern MENTION = Pattern.compile("@(\\w+)");
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ReadMarkerRepository readMarkerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ContentVersions contentVersions;
+
+    @Autowired
+    private ClusterEventBus clusterEventBus;
+
+    @Value("${chat.read-state.window:100}")
+    private int window;
+
+    @Value("${chat.read-state.max-mentions:100}")
+    private int maxMentions;
+
+    @Value("${chat.read-state.markers.idle-ms:300000}")
+    private long markerIdleMillis;
+
+    @Value("${chat.read-state.markers.max-users:10000}")
+    private int maxCachedMarkerUsers;
+
+    private final Map<Long, ChannelTimeline> timelines = new ConcurrentHashMap<>();
+    private final Map<Long, CachedMarkers> markers = new ConcurrentHashMap<>();
+    private final Map<ReadMarker.Key, Long> pendingMarkers = new ConcurrentHashMap<>();
+
+    public void onMessageCreated(MessageSummary message) {
+        addToTimeline(message);
+        // Your own message is never unread; other nodes infer this from the message itself
+        recordRead(message.getSender().getId(), message.getChannelId(), message.getId());
+    }
+
+    // A message another node saved, whose sender's marker that node also flushes
+    public void onRemoteMessageCreated(MessageSummary message) {
+        addToTimeline(message);
+        onRemoteRead(message.getSender().getId(), message.getChannelId(), message.getId());
+    }
+
+    // Only users already cached here need the marker; others load it once the owning node has flushed it
+    public void onRemoteRead(Long userId, Long channelId, Long messageId) {
+        CachedMarkers cached = markers.get(userId);
+        if (cached != null) {
+            cached.channels.merge(channelId, messageId, Math::max);
+        }
+        contentVersions.readStateChanged(userId);
+    }
+
+    public void onMessageDeleted(Long channelId, Long messageId) {
+        ChannelTimeline timeline = timelines.get(channelId);
+        if (timeline != null) {
+            timeline.remove(messageId);
+        }
+    }
+
+    public void onChannelDeleted(Long channelId) {
+        onRemoteChannelDeleted(channelId);
+        jdbcTemplate.update("DELETE FROM read_markers WHERE channel_id = ?", channelId);
+    }
+
+    public void onRemoteChannelDeleted(Long channelId) {
+        timelines.remove(channelId);
+        markers.values().forEach(cached -> cached.channels.remove(channelId));
+        pendingMarkers.keySet().removeIf(key -> key.getChannelId().equals(channelId));
+    }
+
+    public void markRead(Long userId, Long channelId, Long messageId) {
+        // Recent messages are checked against the timeline; older ones need a lookup
+        if (!timeline(channelId).contains(messageId) && !ReadRouting.onPrimary(
+                () -> messageRepository.existsByIdAndChannelId(messageId, channelId))) {
+            throw new RuntimeException("Message not found in this channel");
+        }
+        recordReadAndPublish(userId, channelId, messageId);
+    }
+
+    // Markers still waiting for a flush stay cached, since the database does not have them yet
+    public void evictCaches() {
+        timelines.clear();
+        Set<Long> pendingUsers = new HashSet<>();
+        pendingMarkers.keySet().forEach(key -> pendingUsers.add(key.getUserId()));
+        markers.keySet().retainAll(pendingUsers);
+    }
+
+    // A new member starts with the existing history already read
+    public void markReadToLatest(Long userId, Long channelId) {
+        Long latest = timeline(channelId).latest();
+        if (latest != null) {
+            recordReadAndPublish(userId, channelId, latest);
+        }
+    }
+
+    public ChannelReadState getReadState(Long userId, ChannelSummary channel) {
+        return timeline(channel.getId()).readState(channel, userId, markers(userId).get(channel.getId()));
+    }
+
+    public List<ChannelReadState> getReadStates(Long userId, List<ChannelSummary> channels) {
+        Map<Long, Long> userMarkers = markers(userId);
+        List<ChannelReadState> states = new ArrayList<>(channels.size());
+        for (ChannelSummary channel : channels) {
+            states.add(timeline(channel.getId()).readState(channel, userId, userMarkers.get(channel.getId())));
+        }
+        return states;
+    }
+
+    private void addToTimeline(MessageSummary message) {
+        Set<Long> mentioned = mentionedUserIds(message.getContent());
+        mentioned.remove(message.getSender().getId());
+        timeline(message.getChannelId()).add(message.getId(), mentioned);
+    }
+
+    private void recordReadAndPublish(Long userId, Long channelId, Long messageId) {
+        recordRead(userId, channelId, messageId);
+        clusterEventBus.publish(ClusterEvent.readMarked(userId, channelId, messageId));
+    }
+
+    // Queued before it is cached, so a reload racing with an eviction still sees it through pendingMarkers
+    private void recordRead(Long userId, Long channelId, Long messageId) {
+        pendingMarkers.merge(new ReadMarker.Key(userId, channelId), messageId, Math::max);
+        markers(userId).merge(channelId, messageId, Math::max);
+        contentVersions.readStateChanged(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.read-state.flush-interval-ms:5000}")
+    public void flush() {
+        List<ReadMarker.Key> keys = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (ReadMarker.Key key : pendingMarkers.keySet()) {
+            Long messageId = pendingMarkers.remove(key);
+            if (messageId != null) {
+                keys.add(key);
+                rows.add(new Object[]{messageId, now, key.getUserId(), key.getChannelId()});
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            // GREATEST keeps a marker from moving backwards when several nodes flush the same user
+            int[] updated = jdbcTemplate.batchUpdate("UPDATE read_markers "
+                    + "SET last_read_message_id = GREATEST(last_read_message_id, ?), updated_at = ? "
+                    + "WHERE user_id = ? AND channel_id = ?", rows);
+            List<Object[]> inserts = new ArrayList<>();
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    Object[] row = rows.get(i);
+                    inserts.add(new Object[]{row[2], row[3], row[0], row[1]});
+                }
+            }
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate("INSERT INTO read_markers (user_id, channel_id, last_read_message_id, updated_at) "
+                        + "VALUES (?, ?, ?, ?)", inserts);
+            }
+        } catch (RuntimeException e) {
+            // Requeue so the next flush retries; newer markers already queued win
+            logger.warn("Could not flush {} read markers: {}", rows.size(), e.getMessage());
+            for (int i = 0; i < keys.size(); i++) {
+                pendingMarkers.merge(keys.get(i), (Long) rows.get(i)[0], Math::max);
+            }
+        }
+        evictIdleMarkers(System.currentTimeMillis());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // Database loads stay out of computeIfAbsent: they would hold the map bin and pin a virtual thread's carrier
+    private Map<Long, Long> markers(Long userId) {
+        long now = System.currentTimeMillis();
+        CachedMarkers cached = markers.get(userId);
+        if (cached != null) {
+            cached.lastUsed = now;
+            return cached.channels;
+        }
+        Map<Long, Long> loaded = new ConcurrentHashMap<>();
+        for (ReadMarker marker : ReadRouting.onPrimary(() -> readMarkerRepository.findByUserId(userId))) {
+            loaded.put(marker.getChannelId(), marker.getLastReadMessageId());
+        }
+        // The database does not have markers still waiting for a flush
+        pendingMarkers.forEach((key, messageId) -> {
+            if (key.getUserId().equals(userId)) {
+                loaded.merge(key.getChannelId(), messageId, Math::max);
+            }
+        });
+        if (markers.size() >= maxCachedMarkerUsers) {
+            evictIdleMarkers(now);
+            if (markers.size() >= maxCachedMarkerUsers) {
+                markers.clear();
+            }
+        }
+        // A racing load may win; every caller then merges into the same map
+        cached = markers.putIfAbsent(userId, new CachedMarkers(loaded, now));
+        return cached != null ? cached.channels : loaded;
+    }
+
+    private void evictIdleMarkers(long now) {
+        markers.values().removeIf(cached -> cached.lastUsed <= now - markerIdleMillis);
+    }
+
+    // The load runs under the timeline's lock, so a concurrent add waits for it and nothing is missed
+    private ChannelTimeline timeline(Long channelId) {
+        ChannelTimeline timeline = timelines.computeIfAbsent(channelId, id -> new ChannelTimeline(window, maxMentions));
+        timeline.ensureLoaded(() -> ReadRouting.onPrimary(
+                        () -> messageRepository.findRecentIdsAndContent(channelId, PageRequest.of(0, window))),
+                this::mentionedUserIds);
+        return timeline;
+    }
+
+    private Set<Long> mentionedUserIds(String content) {
+        Set<Long> userIds = new HashSet<>();
+        if (content == null || content.indexOf('@') < 0) {
+            return userIds;
+        }
+        Matcher matcher = MENTION.matcher(content);
+        while (matcher.find()) {
+            AuthenticatedUser user = userService.loadPrincipal(matcher.group(1));
+            if (user != null) {
+                userIds.add(user.getId());
+            }
+        }
+        return userIds;
+    }
+
+    private static final class CachedMarkers {
+        private final Map<Long, Long> channels;
+        private volatile long lastUsed;
+
+        private CachedMarkers(Map<Long, Long> channels, long lastUsed) {
+            this.channels = channels;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private static final class ChannelTimeline {
+        private final int window;
+        private final int maxMentions;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // Ascending message ids of the newest messages
+        private long[] ids = new long[0];
+        // True once older messages exist beyond the window
+        private boolean truncated;
+        private final Map<Long, long[]> mentions = new HashMap<>();
+        private volatile boolean loaded;
+
+        private ChannelTimeline(int window, int maxMentions) {
+            this.window = window;
+            this.maxMentions = maxMentions;
+        }
+
+        // rows are (id, content) pairs, newest first
+        void ensureLoaded(Supplier<List<Object[]>> rows, Function<String, Set<Long>> mentionedUserIds) {
+            if (loaded) {
+                return;
+            }
+            lock.lock();
+            try {
+                if (loaded) {
+                    return;
+                }
+                List<Object[]> newestFirst = rows.get();
+                truncated |= newestFirst.size() == window;
+                for (int i = newestFirst.size() - 1; i >= 0; i--) {
+                    add((Long) newestFirst.get(i)[0], mentionedUserIds.apply((String) newestFirst.get(i)[1]));
+                }
+                loaded = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void add(long messageId, Set<Long> mentionedUserIds) {
+            lock.lock();
+            try {
+                int index = Arrays.binarySearch(ids, messageId);
+                if (index >= 0) {
+                    return;
+                }
+                ids = insert(ids, -index - 1, messageId);
+                if (ids.length > window) {
+                    ids = Arrays.copyOfRange(ids, ids.length - window, ids.length);
+                    truncated = true;
+                }
+                for (Long userId : mentionedUserIds) {
+                    long[] userMentions = mentions.getOrDefault(userId, new long[0]);
+                    userMentions = insert(userMentions, -Arrays.binarySearch(userMentions, messageId) - 1, messageId);
+                    if (userMentions.length > maxMentions) {
+                        userMentions = Arrays.copyOfRange(userMentions, 1, userMentions.length);
+                    }
+                    mentions.put(userId, userMentions);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(long messageId) {
+            lock.lock();
+            try {
+                ids = delete(ids, messageId);
+                mentions.replaceAll((userId, userMentions) -> delete(userMentions, messageId));
+                mentions.values().removeIf(userMentions -> userMentions.length == 0);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean contains(long messageId) {
+            lock.lock();
+            try {
+                return Arrays.binarySearch(ids, messageId) >= 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Long latest() {
+            lock.lock();
+            try {
+                return ids.length == 0 ? null : ids[ids.length - 1];
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        ChannelReadState readState(ChannelSummary channel, Long userId, Long lastRead) {
+            long marker = lastRead == null ? Long.MIN_VALUE : lastRead;
+            lock.lock();
+            try {
+                int unread = ids.length - firstAbove(ids, marker);
+                boolean capped = truncated && (ids.length == 0 || marker < ids[0]);
+                long[] userMentions = mentions.get(userId);
+                int mentionCount = userMentions == null ? 0 : userMentions.length - firstAbove(userMentions, marker);
+                Long latest = ids.length == 0 ? null : ids[ids.length - 1];
+                return new ChannelReadState(channel, lastRead, latest, unread, mentionCount, capped);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private static int firstAbove(long[] sorted, long value) {
+            int index = Arrays.binarySearch(sorted, value);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        private static long[] insert(long[] sorted, int position, long value) {
+            long[] result = new long[sorted.length + 1];
+            System.arraycopy(sorted, 0, result, 0, position);
+            result[position] = value;
+            System.arraycopy(sorted, position, result, position + 1, sorted.length - position);
+            return result;
+        }
+
+        private static long[] delete(long[] sorted, long value) {
+            int index = Arrays.binarySearch(sorted, value);
+            if (index < 0) {
+                return sorted;
+            }
+            long[] result = new long[sorted.length - 1];
+            System.arraycopy(sorted, 0, result, 0, index);
+            System.arraycopy(sorted, index + 1, result, index, sorted.length - index - 1);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,543 @@
+package com.example.slackchat.service;
+
+import com.example.slackchat.dto.MessageSummary;
+import com.example.slackchat.dto.UserSummary;
+import com.example.slackchat.model.Message;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Holds the newest messages of recently read channels so the history endpoint can skip the database.
+ * Each cached channel owns a fixed-size direct buffer outside the GC'd heap that records are written into in place;
+ * only ids and record offsets stay on heap. Writers lock just the channel they touch.
+ */
+@Component
+public class RecentMessageCache {
+
+    private static final int STAMP_STRIPES = 1024;
+    private static final Message.MessageType[] MESSAGE_TYPES = Message.MessageType.values();
+
+    private final int messagesPerChannel;
+    private final int slabBytes;
+    private final int maxSlabs;
+
+    private final ConcurrentHashMap<Long, Slab> slabs = new ConcurrentHashMap<>();
+
+    // Guards slab creation, eviction and the free list; never taken while holding a slab lock
+    private final ReentrantLock allocationLock = new ReentrantLock();
+    private final ArrayDeque<ByteBuffer> freeBuffers = new ArrayDeque<>();
+    private int allocatedBuffers;
+
+    // Bumped by every write so a load that raced with a write is not cached
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RecentMessageCache(@Value("${chat.cache.recent-messages.per-channel:100}") int messagesPerChannel,
+                              @Value("${chat.cache.recent-messages.slab-bytes:131072}") int slabBytes,
+                              @Value("${chat.cache.recent-messages.max-bytes:67108864}") long maxBytes) {
+        this.messagesPerChannel = messagesPerChannel;
+        this.slabBytes = slabBytes;
+        this.maxSlabs = (int) Math.max(1, maxBytes / slabBytes);
+    }
+
+    public int getMessagesPerChannel() {
+        return messagesPerChannel;
+    }
+
+    public List<MessageSummary> get(Long channelId, int limit) {
+        Slab slab = slabs.get(channelId);
+        if (slab != null) {
+            slab.lock.readLock().lock();
+            try {
+                if (!slab.retired && (slab.count >= limit || slab.complete)) {
+                    hits.increment();
+                    slab.lastAccess = System.nanoTime();
+                    return slab.decode(channelId, Math.min(limit, slab.count));
+                }
+            } finally {
+                slab.lock.readLock().unlock();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public long beginLoad(Long channelId) {
+        return stamps.get(stripe(channelId));
+    }
+
+    // newestFirst must be the newest messages of the channel; complete means there are no older ones
+    public void put(Long channelId, List<MessageSummary> newestFirst, boolean complete, long stamp) {
+        List<MessageSummary> window = newestFirst.size() > messagesPerChannel
+                ? newestFirst.subList(0, messagesPerChannel) : newestFirst;
+        List<ByteBuffer> records = new ArrayList<>(window.size());
+        for (MessageSummary message : window) {
+            records.add(encode(message));
+        }
+        if (stamps.get(stripe(channelId)) != stamp) {
+            return;
+        }
+
+        // Writers bump the stamp before looking the slab up, so checking it under the slab lock closes the race
+        Slab slab = acquire(channelId);
+        slab.lock.writeLock().lock();
+        try {
+            if (slab.retired || stamps.get(stripe(channelId)) != stamp) {
+                return;
+            }
+            slab.reset(window, records, complete && window.size() == newestFirst.size());
+            slab.lastAccess = System.nanoTime();
+        } finally {
+            slab.lock.writeLock().unlock();
+        }
+    }
+
+    public void onCreated(MessageSummary message) {
+        ByteBuffer record = encode(message);
+        Slab slab = lockForWrite(message.getChannelId());
+        if (slab == null) {
+            return;
+        }
+        try {
+            slab.insert(message.getId(), record);
+        } finally {
+            slab.lock.writeLock().unlock();
+        }
+    }
+
+    public void onUpdated(MessageSummary message) {
+        ByteBuffer record = encode(message);
+        Slab slab = lockForWrite(message.getChannelId());
+        if (slab == null) {
+            return;
+        }
+        try {
+            slab.replace(message.getId(), record);
+        } finally {
+            slab.lock.writeLock().unlock();
+        }
+    }
+
+    public void onDeleted(Long channelId, Long messageId) {
+        Slab slab = lockForWrite(channelId);
+        if (slab == null) {
+            return;
+        }
+        try {
+            int index = slab.indexOf(messageId);
+            if (index >= 0) {
+                slab.removeAt(index);
+            }
+        } finally {
+            slab.lock.writeLock().unlock();
+        }
+    }
+
+    public void evictChannel(Long channelId) {
+        stamps.incrementAndGet(stripe(channelId));
+        allocationLock.lock();
+        try {
+            Slab removed = slabs.remove(channelId);
+            if (removed != null) {
+                freeBuffers.push(retire(removed));
+            }
+        } finally {
+            allocationLock.unlock();
+        }
+    }
+
+    public void evictAll() {
+        for (int i = 0; i < stamps.length(); i++) {
+            stamps.incrementAndGet(i);
+        }
+        allocationLock.lock();
+        try {
+            Iterator<Slab> iterator = slabs.values().iterator();
+            while (iterator.hasNext()) {
+                Slab slab = iterator.next();
+                iterator.remove();
+                freeBuffers.push(retire(slab));
+            }
+        } finally {
+            allocationLock.unlock();
+        }
+    }
+
+    public Stats getStats() {
+        allocationLock.lock();
+        try {
+            return new Stats(hits.sum(), misses.sum(), evictions.sum(), slabs.size(),
+                    (long) allocatedBuffers * slabBytes);
+        } finally {
+            allocationLock.unlock();
+        }
+    }
+
+    // Returns the channel's live slab with its write lock held, or null if the channel is not cached
+    private Slab lockForWrite(Long channelId) {
+        stamps.incrementAndGet(stripe(channelId));
+        Slab slab = slabs.get(channelId);
+        if (slab == null) {
+            return null;
+        }
+        slab.lock.writeLock().lock();
+        if (slab.retired) {
+            slab.lock.writeLock().unlock();
+            return null;
+        }
+        return slab;
+    }
+
+    private Slab acquire(Long channelId) {
+        Slab slab = slabs.get(channelId);
+        if (slab != null) {
+            return slab;
+        }
+        allocationLock.lock();
+        try {
+            slab = slabs.get(channelId);
+            if (slab != null) {
+                return slab;
+            }
+            // Buffers are recycled rather than released, so direct memory stays flat once the cache is warm
+            ByteBuffer buffer = freeBuffers.poll();
+            if (buffer == null && allocatedBuffers < maxSlabs) {
+                buffer = ByteBuffer.allocateDirect(slabBytes);
+                allocatedBuffers++;
+            }
+            if (buffer == null) {
+                Map.Entry<Long, Slab> eldest = null;
+                for (Map.Entry<Long, Slab> candidate : slabs.entrySet()) {
+                    if (eldest == null || candidate.getValue().lastAccess < eldest.getValue().lastAccess) {
+                        eldest = candidate;
+                    }
+                }
+                slabs.remove(eldest.getKey());
+                buffer = retire(eldest.getValue());
+                evictions.increment();
+            }
+            slab = new Slab(buffer, messagesPerChannel);
+            slabs.put(channelId, slab);
+            return slab;
+        } finally {
+            allocationLock.unlock();
+        }
+    }
+
+    // Caller holds the allocation lock and has unmapped the slab; its buffer may be handed to another channel
+    private static ByteBuffer retire(Slab slab) {
+        slab.lock.writeLock().lock();
+        try {
+            slab.retired = true;
+            return slab.buffer;
+        } finally {
+            slab.lock.writeLock().unlock();
+        }
+    }
+
+    private static int stripe(Long channelId) {
+        return (int) ((channelId ^ (channelId >>> 32)) & (STAMP_STRIPES - 1));
+    }
+
+    private static ByteBuffer encode(MessageSummary message) {
+        UserSummary sender = message.getSender();
+        byte[] username = utf8(sender.getUsername());
+        byte[] displayName = utf8(sender.getDisplayName());
+        byte[] content = utf8(message.getContent());
+        boolean hasUpdatedAt = message.getUpdatedAt() != null;
+
+        int size = 8 + 8 + 12 + 1 + (hasUpdatedAt ? 12 : 0) + 1
+                + stringSize(username) + stringSize(displayName) + stringSize(content);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putLong(message.getId());
+        buffer.putLong(sender.getId());
+        putTimestamp(buffer, message.getCreatedAt());
+        buffer.put((byte) (hasUpdatedAt ? 1 : 0));
+        if (hasUpdatedAt) {
+            putTimestamp(buffer, message.getUpdatedAt());
+        }
+        buffer.put((byte) message.getMessageType().ordinal());
+        putString(buffer, username);
+        putString(buffer, displayName);
+        putString(buffer, content);
+        return buffer.flip();
+    }
+
+    private static MessageSummary decode(Long channelId, ByteBuffer buffer) {
+        long id = buffer.getLong();
+        long senderId = buffer.getLong();
+        LocalDateTime createdAt = getTimestamp(buffer);
+        LocalDateTime updatedAt = buffer.get() == 1 ? getTimestamp(buffer) : null;
+        Message.MessageType messageType = MESSAGE_TYPES[buffer.get()];
+        String username = getString(buffer);
+        String displayName = getString(buffer);
+        String content = getString(buffer);
+        return new MessageSummary(id, channelId, content, createdAt, updatedAt, messageType,
+                new UserSummary(senderId, username, displayName));
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(byte[] value) {
+        return 4 + (value == null ? 0 : value.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        buffer.putInt(value == null ? -1 : value.length);
+        if (value != null) {
+            buffer.put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putTimestamp(ByteBuffer buffer, LocalDateTime timestamp) {
+        buffer.putLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(timestamp.getNano());
+    }
+
+    private static LocalDateTime getTimestamp(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        return LocalDateTime.ofEpochSecond(seconds, buffer.getInt(), ZoneOffset.UTC);
+    }
+
+    // Records are appended at tail and moved down only when tail runs out; ids, offsets and lengths are newest first
+    private static final class Slab {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final ByteBuffer buffer;
+        private final long[] ids;
+        private final int[] offsets;
+        private final int[] lengths;
+        private int count;
+        private int tail;
+        private int liveBytes;
+        private boolean complete;
+        private boolean retired;
+        private volatile long lastAccess = System.nanoTime();
+
+        Slab(ByteBuffer buffer, int messagesPerChannel) {
+            this.buffer = buffer;
+            this.ids = new long[messagesPerChannel];
+            this.offsets = new int[messagesPerChannel];
+            this.lengths = new int[messagesPerChannel];
+        }
+
+        void reset(List<MessageSummary> window, List<ByteBuffer> records, boolean complete) {
+            clear();
+            this.complete = complete;
+            for (int i = 0; i < records.size(); i++) {
+                ByteBuffer record = records.get(i);
+                if (tail + record.remaining() > buffer.capacity()) {
+                    this.complete = false;
+                    return;
+                }
+                write(count, window.get(i).getId(), tail, record);
+                tail += record.remaining();
+                count++;
+            }
+        }
+
+        void insert(long id, ByteBuffer record) {
+            if (indexOf(id) >= 0) {
+                return;
+            }
+            int position = positionOf(id);
+            if (position == count && (!complete || count == ids.length)) {
+                // Older than everything cached; keeping it could leave a gap before it
+                complete = false;
+                return;
+            }
+            if (count == ids.length) {
+                removeAt(count - 1);
+                complete = false;
+            }
+            int offset = allocate(record.remaining());
+            if (offset < 0) {
+                clear();
+                return;
+            }
+            if (position > count) {
+                // Compaction dropped messages newer than this one
+                return;
+            }
+            System.arraycopy(ids, position, ids, position + 1, count - position);
+            System.arraycopy(offsets, position, offsets, position + 1, count - position);
+            System.arraycopy(lengths, position, lengths, position + 1, count - position);
+            write(position, id, offset, record);
+            count++;
+        }
+
+        void replace(long id, ByteBuffer record) {
+            int index = indexOf(id);
+            if (index < 0) {
+                return;
+            }
+            int length = record.remaining();
+            if (length <= lengths[index]) {
+                liveBytes -= lengths[index];
+                write(index, id, offsets[index], record);
+                return;
+            }
+            int offset = allocate(length);
+            if (offset < 0) {
+                clear();
+                return;
+            }
+            // Compaction may have dropped it as the oldest message
+            index = indexOf(id);
+            if (index >= 0) {
+                liveBytes -= lengths[index];
+                write(index, id, offset, record);
+            }
+        }
+
+        void removeAt(int index) {
+            liveBytes -= lengths[index];
+            System.arraycopy(ids, index + 1, ids, index, count - index - 1);
+            System.arraycopy(offsets, index + 1, offsets, index, count - index - 1);
+            System.arraycopy(lengths, index + 1, lengths, index, count - index - 1);
+            count--;
+        }
+
+        int indexOf(long id) {
+            for (int i = 0; i < count; i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        List<MessageSummary> decode(Long channelId, int limit) {
+            List<MessageSummary> messages = new ArrayList<>(limit);
+            for (int i = 0; i < limit; i++) {
+                messages.add(RecentMessageCache.decode(channelId, buffer.slice(offsets[i], lengths[i])));
+            }
+            return messages;
+        }
+
+        private int positionOf(long id) {
+            int position = 0;
+            while (position < count && ids[position] > id) {
+                position++;
+            }
+            return position;
+        }
+
+        private void write(int index, long id, int offset, ByteBuffer record) {
+            buffer.put(offset, record, record.position(), record.remaining());
+            ids[index] = id;
+            offsets[index] = offset;
+            lengths[index] = record.remaining();
+            liveBytes += record.remaining();
+        }
+
+        // Returns where a record of this length can be written, or -1 if it cannot fit even in an empty slab
+        private int allocate(int length) {
+            if (tail + length > buffer.capacity()) {
+                compact(length);
+            }
+            if (tail + length > buffer.capacity()) {
+                return -1;
+            }
+            int offset = tail;
+            tail += length;
+            return offset;
+        }
+
+        // Keeps a quarter of the slab free after compacting so its cost stays amortised over later writes
+        private void compact(int length) {
+            int limit = buffer.capacity() - buffer.capacity() / 4;
+            while (count > 0 && liveBytes + length > limit) {
+                removeAt(count - 1);
+                complete = false;
+            }
+            long[] byOffset = new long[count];
+            for (int i = 0; i < count; i++) {
+                byOffset[i] = (long) offsets[i] << 32 | i;
+            }
+            Arrays.sort(byOffset);
+            int to = 0;
+            for (long packed : byOffset) {
+                int index = (int) packed;
+                // Moving down within the same buffer behaves as if copied through an intermediate buffer
+                buffer.put(to, buffer, offsets[index], lengths[index]);
+                offsets[index] = to;
+                to += lengths[index];
+            }
+            tail = to;
+        }
+
+        private void clear() {
+            count = 0;
+            tail = 0;
+            liveBytes = 0;
+            complete = false;
+        }
+    }
+
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int channels;
+        private final long bytes;
+
+        public Stats(long hits, long misses, long evictions, int channels, long bytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.channels = channels;
+            this.bytes = bytes;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public int getChannels() {
+            return channels;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.example.slackchat.service;
 
+import com.example.slackchat.cluster.ClusterEvent;
+import com.example.slackchat.cluster.ClusterEventBus;
+import com.example.slackchat.datasource.ReadRouting;
 import com.example.slackchat.model.User;
+import com.example.slackchat.security.AuthenticatedUser;
 import com.example.slackchat.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -11,7 +16,10 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class UserService implements UserDetailsService {
@@ -22,6 +30,22 @@ public class UserService implements UserDetailsService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ContentVersions contentVersions;
+
+    @Autowired
+    private ClusterEventBus clusterEventBus;
+
+    @Value("${chat.cache.principals.ttl-ms:300000}")
+    private long principalTtlMillis;
+
+    @Value("${chat.cache.principals.max-entries:10000}")
+    private int maxCachedPrincipals;
+
+    private final Map<String, CachedPrincipal> principals = new ConcurrentHashMap<>();
+    private final LongAdder principalHits = new LongAdder();
+    private final LongAdder principalMisses = new LongAdder();
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
@@ -29,6 +53,51 @@ public class UserService implements UserDetailsService {
         return user;
     }
 
+    public AuthenticatedUser loadPrincipal(String username) {
+        long now = System.currentTimeMillis();
+        CachedPrincipal cached = principals.get(username);
+        if (cached != null && cached.expiresAt > now) {
+            principalHits.increment();
+            return cached.principal;
+        }
+        principalMisses.increment();
+
+        Optional<User> userOpt = userRepository.findByUsername(username);
+        if (userOpt.isEmpty()) {
+            principals.remove(username);
+            return null;
+        }
+        AuthenticatedUser principal = AuthenticatedUser.from(userOpt.get());
+        if (principals.size() >= maxCachedPrincipals) {
+            principals.values().removeIf(entry -> entry.expiresAt <= now);
+            if (principals.size() >= maxCachedPrincipals) {
+                principals.clear();
+            }
+        }
+        principals.put(username, new CachedPrincipal(principal, now + principalTtlMillis));
+        return principal;
+    }
+
+    public void evictPrincipal(String username) {
+        principals.remove(username);
+    }
+
+    public void evictAllPrincipals() {
+        principals.clear();
+    }
+
+    public long getPrincipalCacheHits() {
+        return principalHits.sum();
+    }
+
+    public long getPrincipalCacheMisses() {
+        return principalMisses.sum();
+    }
+
+    public int getPrincipalCacheSize() {
+        return principals.size();
+    }
+
     public User createUser(String username, String email, String password) {
         if (userRepository.existsByUsername(username)) {
             throw new RuntimeException("Username already exists");
@@ -50,7 +119,13 @@ public class UserService implements UserDetailsService {
     }
 
     public Optional<User> findById(Long id) {
-        return userRepository.findById(id);
+        return ReadRouting.onPrimary(() -> userRepository.findById(id));
+    }
+
+    public User getUserById(Long id) {
+        // Fills the second-level cache, so it reads the primary
+        return ReadRouting.onPrimary(() -> userRepository.findById(id))
+                .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
     public List<User> findAllUsers() {
@@ -58,7 +133,11 @@ public class UserService implements UserDetailsService {
     }
 
     public User updateUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        evictPrincipal(saved.getUsername());
+        contentVersions.usersChanged();
+        clusterEventBus.publish(ClusterEvent.userUpdated(saved.getId(), saved.getUsername()));
+        return saved;
     }
 
     public void updateLastActive(String username) {
@@ -80,5 +159,16 @@ public class UserService implements UserDetailsService {
             }
             userRepository.save(user);
         }
+        evictPrincipal(username);
+    }
+
+    private static final class CachedPrincipal {
+        private final AuthenticatedUser principal;
+        private final long expiresAt;
+
+        private CachedPrincipal(AuthenticatedUser principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
     }
 }
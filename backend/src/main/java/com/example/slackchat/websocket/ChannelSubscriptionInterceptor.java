@@ -0,0 +1,74 @@
+package com.example.slackchat.websocket;
+
+import com.example.slackchat.model.Channel;
+import com.example.slackchat.security.AuthenticatedUser;
+import com.example.slackchat.service.ChannelService;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+@Component
+public class ChannelSubscriptionInterceptor implements ChannelInterceptor {
+
+    private final ChannelService channelService;
+
+    public ChannelSubscriptionInterceptor(ChannelService channelService) {
+        this.channelService = channelService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        // Events are only ever published by the server; clients may not broadcast to topics
+        if (accessor.getCommand() == StompCommand.SEND) {
+            throw new MessageDeliveryException("Sending to the broker is not allowed");
+        }
+
+        if (accessor.getCommand() == StompCommand.SUBSCRIBE) {
+            Long channelId = parseChannelId(accessor.getDestination());
+            if (channelId == null) {
+                throw new MessageDeliveryException("Unknown destination: " + accessor.getDestination());
+            }
+            if (!(accessor.getUser() instanceof UsernamePasswordAuthenticationToken authentication)
+                    || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
+                throw new MessageDeliveryException("Unauthenticated subscription");
+            }
+            if (!canSubscribe(channelId, user)) {
+                throw new MessageDeliveryException("You cannot subscribe to this channel");
+            }
+        }
+        return message;
+    }
+
+    private boolean canSubscribe(Long channelId, AuthenticatedUser user) {
+        Optional<Channel> channelOpt = channelService.findById(channelId);
+        if (channelOpt.isEmpty()) {
+            return false;
+        }
+        // Same visibility as the history endpoint: public channels are readable, private ones need membership
+        return !channelOpt.get().isPrivate() || channelService.isMember(channelId, user.getId());
+    }
+
+    private Long parseChannelId(String destination) {
+        if (destination == null || !destination.startsWith(WebSocketConfig.CHANNEL_TOPIC_PREFIX)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(destination.substring(WebSocketConfig.CHANNEL_TOPIC_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
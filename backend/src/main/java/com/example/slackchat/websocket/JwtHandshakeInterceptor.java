@@ -0,0 +1,81 @@
+package com.example.slackchat.websocket;
+
+import com.example.slackchat.security.AuthenticatedUser;
+import com.example.slackchat.security.JwtUtils;
+import com.example.slackchat.security.VerifiedToken;
+import com.example.slackchat.service.UserService;
+import io.jsonwebtoken.JwtException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.security.Principal;
+import java.util.Map;
+
+@Component
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtHandshakeInterceptor.class);
+
+    static final String PRINCIPAL_ATTRIBUTE = "slackchat.principal";
+
+    private final UserService userService;
+    private final JwtUtils jwtUtils;
+
+    public JwtHandshakeInterceptor(UserService userService, JwtUtils jwtUtils) {
+        this.userService = userService;
+        this.jwtUtils = jwtUtils;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        // Browsers cannot set an Authorization header on a WebSocket upgrade, so the token comes as a query parameter
+        String token = null;
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            token = servletRequest.getServletRequest().getParameter("token");
+        }
+
+        if (token == null || token.isBlank()) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        try {
+            VerifiedToken verifiedToken = jwtUtils.verifyToken(token);
+            AuthenticatedUser userDetails = userService.loadPrincipal(verifiedToken.getUsername());
+            if (userDetails == null) {
+                response.setStatusCode(HttpStatus.UNAUTHORIZED);
+                return false;
+            }
+            attributes.put(PRINCIPAL_ATTRIBUTE,
+                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+            return true;
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.warn("Rejected WebSocket handshake: {}", e.getMessage());
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    static class PrincipalHandshakeHandler extends DefaultHandshakeHandler {
+        @Override
+        protected Principal determineUser(ServerHttpRequest request, WebSocketHandler wsHandler,
+                                          Map<String, Object> attributes) {
+            return (Principal) attributes.get(PRINCIPAL_ATTRIBUTE);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.slackchat.websocket;
+
+import com.example.slackchat.dto.MessageEvent;
+import com.example.slackchat.dto.MessageSummary;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class MessageEventPublisher {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public MessageEventPublisher(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    public void publishCreated(MessageSummary message) {
+        publish(new MessageEvent(MessageEvent.EventType.CREATED,
+                message.getChannelId(), message.getId(), message));
+    }
+
+    public void publishUpdated(MessageSummary message) {
+        publish(new MessageEvent(MessageEvent.EventType.UPDATED,
+                message.getChannelId(), message.getId(), message));
+    }
+
+    public void publishDeleted(Long channelId, Long messageId) {
+        publish(new MessageEvent(MessageEvent.EventType.DELETED, channelId, messageId, null));
+    }
+
+    private void publish(MessageEvent event) {
+        messagingTemplate.convertAndSend(WebSocketConfig.CHANNEL_TOPIC_PREFIX + event.getChannelId(), event);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.slackchat.websocket;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    public static final String CHANNEL_TOPIC_PREFIX = "/topic/channels/";
+
+    @Value("${cors.allowed-origins}")
+    private String allowedOrigins;
+
+    private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
+    private final ChannelSubscriptionInterceptor channelSubscriptionInterceptor;
+
+    public WebSocketConfig(JwtHandshakeInterceptor jwtHandshakeInterceptor,
+                           ChannelSubscriptionInterceptor channelSubscriptionInterceptor) {
+        this.jwtHandshakeInterceptor = jwtHandshakeInterceptor;
+        this.channelSubscriptionInterceptor = channelSubscriptionInterceptor;
+    }
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws")
+                .setAllowedOriginPatterns(allowedOrigins.split(","))
+                .setHandshakeHandler(new JwtHandshakeInterceptor.PrincipalHandshakeHandler())
+                .addInterceptors(jwtHandshakeInterceptor);
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/topic");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(channelSubscriptionInterceptor);
+    }
+}
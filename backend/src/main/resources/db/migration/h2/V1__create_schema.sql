@@ -0,0 +1,59 @@
+-- Same tables as the PostgreSQL schema, with messages unpartitioned
+
+CREATE TABLE users (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username     VARCHAR(255) UNIQUE,
+    email        VARCHAR(255) UNIQUE,
+    password     VARCHAR(255),
+    display_name VARCHAR(255),
+    bio          VARCHAR(255),
+    created_at   TIMESTAMP(6),
+    last_active  TIMESTAMP(6),
+    is_online    BOOLEAN
+);
+
+CREATE TABLE channels (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(255) UNIQUE,
+    description VARCHAR(255),
+    is_private  BOOLEAN,
+    created_at  TIMESTAMP(6),
+    created_by  BIGINT REFERENCES users (id)
+);
+
+CREATE TABLE channel_members (
+    channel_id BIGINT NOT NULL REFERENCES channels (id),
+    user_id    BIGINT NOT NULL REFERENCES users (id),
+    PRIMARY KEY (channel_id, user_id)
+);
+
+-- A user's channels
+CREATE INDEX idx_channel_members_user ON channel_members (user_id, channel_id);
+
+CREATE TABLE messages (
+    id           BIGINT NOT NULL PRIMARY KEY,
+    channel_id   BIGINT NOT NULL REFERENCES channels (id),
+    sender_id    BIGINT NOT NULL REFERENCES users (id),
+    content      TEXT,
+    message_type VARCHAR(255) CHECK (message_type IN ('TEXT', 'IMAGE', 'FILE', 'SYSTEM')),
+    created_at   TIMESTAMP(6) NOT NULL,
+    updated_at   TIMESTAMP(6)
+);
+
+-- History pages and cursors, newest or oldest first
+CREATE INDEX idx_messages_channel_created_id ON messages (channel_id, created_at, id);
+-- Read-state timelines, newest id first
+CREATE INDEX idx_messages_channel_id ON messages (channel_id, id);
+-- Archiver's scan for channels with expired messages
+CREATE INDEX idx_messages_created ON messages (created_at);
+CREATE INDEX idx_messages_sender ON messages (sender_id);
+
+CREATE TABLE read_markers (
+    user_id              BIGINT NOT NULL,
+    channel_id           BIGINT NOT NULL,
+    last_read_message_id BIGINT,
+    updated_at           TIMESTAMP(6),
+    PRIMARY KEY (channel_id, user_id)
+);
+
+CREATE INDEX idx_read_markers_user ON read_markers (user_id);
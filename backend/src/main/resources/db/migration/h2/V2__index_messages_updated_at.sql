@@ -0,0 +1,2 @@
+-- Search snapshot catch-up: messages written or edited since the snapshot
+CREATE INDEX idx_messages_updated ON messages (updated_at);
@@ -0,0 +1,127 @@
+package com.example.slackchat;
+
+import com.example.slackchat.dto.MessageSummary;
+import com.example.slackchat.model.Channel;
+import com.example.slackchat.model.Message;
+import com.example.slackchat.model.User;
+import com.example.slackchat.repository.ChannelRepository;
+import com.example.slackchat.repository.MessageRepository;
+import com.example.slackchat.repository.UserRepository;
+import com.example.slackchat.service.MessageService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.LazyInitializationException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Counts the statements and entity loads behind message reads
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class MessageFetchPlanIntegrationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChannelRepository channelRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User alice;
+    private Channel channel;
+    private Message lastMessage;
+
+    @BeforeEach
+    void setUp() {
+        messageRepository.deleteAll();
+        channelRepository.deleteAll();
+        userRepository.deleteAll();
+
+        alice = userRepository.save(new User("alice", "alice@example.com", "password"));
+        User bob = userRepository.save(new User("bob", "bob@example.com", "password"));
+        channel = channelRepository.save(new Channel("general", "General discussion", alice));
+        for (int i = 0; i < 6; i++) {
+            lastMessage = messageRepository.save(new Message("message " + i, i % 2 == 0 ? alice : bob, channel));
+        }
+    }
+
+    @Test
+    void findMessagesBefore_OneQueryWithoutEntities() {
+        // Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        List<MessageSummary> messages = messageService.findMessagesBefore(channel.getId(), null, 50);
+
+        // Then
+        assertEquals(6, messages.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(List.of("bob", "alice"), messages.stream().limit(2)
+                .map(message -> message.getSender().getUsername()).toList());
+    }
+
+    @Test
+    void recentMessageQueries_SameCreatedAt_OrderByIdDescending() {
+        // Given
+        LocalDateTime sameTime = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Message> saved = messageRepository.findAll();
+        saved.forEach(message -> message.setCreatedAt(sameTime));
+        messageRepository.saveAll(saved);
+        List<Long> idsDescending = saved.stream().map(Message::getId)
+                .sorted(Comparator.reverseOrder()).toList();
+
+        // When
+        List<MessageSummary> recent = messageRepository.findRecentMessagesByChannelId(channel.getId(),
+                PageRequest.of(0, 50));
+        List<MessageSummary> page = messageRepository.findByChannelOrderByCreatedAtDesc(channel,
+                PageRequest.of(0, 50)).getContent();
+
+        // Then
+        assertEquals(idsDescending, recent.stream().map(MessageSummary::getId).toList());
+        assertEquals(idsDescending, page.stream().map(MessageSummary::getId).toList());
+    }
+
+    @Test
+    void findById_SenderOutsideTransaction_IsNotLoaded() {
+        // When
+        Message message = messageService.findById(lastMessage.getId()).orElseThrow();
+
+        // Then
+        assertNotNull(message.getSender().getId());
+        assertEquals(channel.getId(), message.getChannel().getId());
+        assertThrows(LazyInitializationException.class, () -> message.getSender().getUsername());
+    }
+
+    @Test
+    void updateMessage_ReturnsMessageWithSender() {
+        // When
+        Message updated = messageService.updateMessage(lastMessage.getId(), "edited");
+
+        // Then
+        MessageSummary summary = MessageSummary.from(updated);
+        assertEquals("edited", summary.getContent());
+        assertEquals("bob", summary.getSender().getUsername());
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.slackchat;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Builds the schema from the H2 migrations on its own database and lets Hibernate validate the entities against it
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migrations",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@ActiveProfiles("test")
+class SchemaMigrationIntegrationTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrate_CreatesIndexedSchema() {
+        // Then
+        assertEquals("2", flyway.info().current().getVersion().getVersion());
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT LOWER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_SCHEMA = 'PUBLIC'", String.class);
+        assertTrue(indexes.containsAll(List.of("idx_messages_channel_created_id", "idx_messages_channel_id",
+                "idx_messages_created", "idx_messages_updated", "idx_messages_sender", "idx_channel_members_user", "idx_read_markers_user")));
+    }
+
+    @Test
+    void historyQuery_UsesChannelTimeIndex() {
+        // When
+        String plan = jdbcTemplate.queryForObject("EXPLAIN SELECT id FROM messages WHERE channel_id = 1 "
+                + "AND (created_at < CURRENT_TIMESTAMP OR (created_at = CURRENT_TIMESTAMP AND id < 5)) "
+                + "ORDER BY created_at DESC, id DESC LIMIT 50", String.class);
+
+        // Then
+        assertTrue(plan.toLowerCase().contains("idx_messages_channel_created_id"), plan);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.slackchat.archive;
+
+import com.example.slackchat.dto.MessageCursor;
+import com.example.slackchat.dto.MessageSummary;
+import com.example.slackchat.dto.UserSummary;
+import com.example.slackchat.model.Message;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageArchiveTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @TempDir
+    Path directory;
+
+    private MessageArchive messageArchive;
+
+    @BeforeEach
+    void setUp() {
+        // Small blocks so segments hold several of them
+        messageArchive = new MessageArchive(directory.toString(), 4);
+        messageArchive.append(1L, messages(1, 10));
+        messageArchive.append(1L, messages(11, 25));
+    }
+
+    @Test
+    void findBefore_WalksAcrossSegmentsNewestFirst() {
+        // When
+        List<MessageSummary> newest = messageArchive.findBefore(1L, null, 3);
+        List<MessageSummary> spanning = messageArchive.findBefore(1L, MessageCursor.of(message(13)), 4);
+
+        // Then
+        assertEquals(List.of(25L, 24L, 23L), ids(newest));
+        assertEquals(List.of(12L, 11L, 10L, 9L), ids(spanning));
+        assertEquals("message 12", spanning.get(0).getContent());
+        assertEquals("user", spanning.get(0).getSender().getUsername());
+    }
+
+    @Test
+    void findAfter_WalksAcrossSegmentsOldestFirst() {
+        // When
+        List<MessageSummary> result = messageArchive.findAfter(1L, MessageCursor.of(message(8)), 5);
+        List<MessageSummary> pastEnd = messageArchive.findAfter(1L, MessageCursor.of(message(25)), 5);
+
+        // Then
+        assertEquals(List.of(9L, 10L, 11L, 12L, 13L), ids(result));
+        assertTrue(pastEnd.isEmpty());
+    }
+
+    @Test
+    void findPage_SkipsNewestMessages() {
+        // When
+        List<MessageSummary> result = messageArchive.findPage(1L, 13, 4);
+
+        // Then
+        assertEquals(List.of(12L, 11L, 10L, 9L), ids(result));
+        assertEquals(25, messageArchive.count(1L));
+    }
+
+    @Test
+    void findByIds_OnlyMatchesGivenChannels() {
+        // Given
+        messageArchive.append(2L, List.of(summary(2L, 100)));
+
+        // When
+        Map<Long, MessageSummary> result = messageArchive.findByIds(List.of(1L), List.of(3L, 20L, 100L, 999L));
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals("message 3", result.get(3L).getContent());
+        assertEquals("message 20", result.get(20L).getContent());
+    }
+
+    @Test
+    void append_OverlappingMessages_Rejected() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> messageArchive.append(1L, messages(20, 30)));
+        assertEquals(25, messageArchive.count(1L));
+    }
+
+    @Test
+    void reopen_LoadsSegmentsAndDropsUnpublishedFiles() throws Exception {
+        // Given
+        Path leftover = Files.writeString(directory.resolve("channel-1").resolve("partial.seg.tmp"), "partial");
+
+        // When
+        MessageArchive reopened = new MessageArchive(directory.toString(), 4);
+
+        // Then
+        assertEquals(25, reopened.count(1L));
+        assertEquals(2, reopened.getStats().getSegments());
+        assertEquals(List.of(25L, 24L), ids(reopened.findBefore(1L, null, 2)));
+        assertEquals(MessageCursor.of(message(25)).encode(), reopened.newestCursor(1L).encode());
+        assertFalse(Files.exists(leftover));
+    }
+
+    @Test
+    void deleteChannel_RemovesSegments() {
+        // When
+        messageArchive.deleteChannel(1L);
+
+        // Then
+        assertFalse(messageArchive.hasArchive(1L));
+        assertFalse(Files.exists(directory.resolve("channel-1")));
+        assertEquals(0, new MessageArchive(directory.toString(), 4).count(1L));
+    }
+
+    private static List<MessageSummary> messages(int fromId, int toId) {
+        List<MessageSummary> messages = new ArrayList<>();
+        for (int id = fromId; id <= toId; id++) {
+            messages.add(message(id));
+        }
+        return messages;
+    }
+
+    private static MessageSummary message(int id) {
+        return summary(1L, id);
+    }
+
+    private static MessageSummary summary(Long channelId, int id) {
+        return new MessageSummary((long) id, channelId, "message " + id, BASE_TIME.plusMinutes(id), null,
+                Message.MessageType.TEXT, new UserSummary(7L, "user", null));
+    }
+
+    private static List<Long> ids(List<MessageSummary> messages) {
+        return messages.stream().map(MessageSummary::getId).toList();
+    }
+}
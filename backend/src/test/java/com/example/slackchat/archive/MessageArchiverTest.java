@@ -0,0 +1,32 @@
+package com.example.slackchat.archive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageArchiverTest {
+
+    @Test
+    void checkSingleNode_ArchiveWithClusterBus_Refused() {
+        // Given
+        MessageArchiver archiver = archiver(true, "postgres");
+
+        // When & Then
+        assertThrows(IllegalStateException.class, archiver::checkSingleNode);
+    }
+
+    @Test
+    void checkSingleNode_ArchiveOnSingleNodeOrClusterWithoutArchive_Allowed() {
+        // When & Then
+        assertDoesNotThrow(() -> archiver(true, "memory").checkSingleNode());
+        assertDoesNotThrow(() -> archiver(false, "postgres").checkSingleNode());
+    }
+
+    private static MessageArchiver archiver(boolean enabled, String clusterBus) {
+        MessageArchiver archiver = new MessageArchiver();
+        ReflectionTestUtils.setField(archiver, "enabled", enabled);
+        ReflectionTestUtils.setField(archiver, "clusterBus", clusterBus);
+        return archiver;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.slackchat.archive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MessagePartitionManagerTest {
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private ResultSet lock;
+
+    @Mock
+    private ResultSet partitions;
+
+    @InjectMocks
+    private MessagePartitionManager messagePartitionManager;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(messagePartitionManager, "monthsAhead", 2);
+    }
+
+    @Test
+    void maintain_CreatesMissingMonthsAndDetachesExpiredOnes() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(messagePartitionManager, "detachAfterMonths", 6);
+        givenLock(true);
+        when(statement.executeQuery(startsWith("SELECT c.relname"))).thenReturn(partitions);
+        when(partitions.next()).thenReturn(true, true, true, false);
+        when(partitions.getString(1)).thenReturn("messages_p202603", "messages_p202604", "messages_p202610");
+
+        // When
+        messagePartitionManager.maintain(connection, YearMonth.of(2026, 10));
+
+        // Then
+        verify(statement).execute(MessagePartitionManager.createStatement("messages_p202611", YearMonth.of(2026, 11)));
+        verify(statement).execute(MessagePartitionManager.createStatement("messages_p202612", YearMonth.of(2026, 12)));
+        verify(statement).execute("ALTER TABLE messages DETACH PARTITION messages_p202603 CONCURRENTLY");
+        verify(statement, never()).execute(contains("messages_p202604 CONCURRENTLY"));
+        verify(statement, never()).execute(contains("FROM ('2026-10-01')"));
+        verify(statement).execute(startsWith("SELECT pg_advisory_unlock"));
+    }
+
+    @Test
+    void maintain_LockHeldByAnotherNode_DoesNothing() throws Exception {
+        // Given
+        givenLock(false);
+
+        // When
+        messagePartitionManager.maintain(connection, YearMonth.of(2026, 10));
+
+        // Then
+        verify(statement, never()).execute(anyString());
+    }
+
+    @Test
+    void createStatement_CoversOneCalendarMonth() {
+        // When & Then
+        assertEquals("CREATE TABLE IF NOT EXISTS messages_p202612 PARTITION OF messages "
+                        + "FOR VALUES FROM ('2026-12-01') TO ('2027-01-01')",
+                MessagePartitionManager.createStatement("messages_p202612", YearMonth.of(2026, 12)));
+    }
+
+    private void givenLock(boolean acquired) throws Exception {
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(startsWith("SELECT pg_try_advisory_lock"))).thenReturn(lock);
+        when(lock.next()).thenReturn(true);
+        when(lock.getBoolean(1)).thenReturn(acquired);
+    }
+}
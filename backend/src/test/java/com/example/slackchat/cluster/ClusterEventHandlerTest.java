@@ -0,0 +1,148 @@
+package com.example.slackchat.cluster;
+
+import com.example.slackchat.datasource.HibernateCaches;
+import com.example.slackchat.datasource.ReadRouting;
+import com.example.slackchat.dto.MessageSummary;
+import com.example.slackchat.dto.UserSummary;
+import com.example.slackchat.model.Message;
+import com.example.slackchat.repository.MessageRepository;
+import com.example.slackchat.search.MessageSearchIndex;
+import com.example.slackchat.service.ChannelMembershipIndex;
+import com.example.slackchat.service.ContentVersions;
+import com.example.slackchat.service.ReadStateService;
+import com.example.slackchat.service.RecentMessageCache;
+import com.example.slackchat.service.UserService;
+import com.example.slackchat.websocket.MessageEventPublisher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClusterEventHandlerTest {
+
+    @Mock
+    private ClusterEventBus clusterEventBus;
+
+    @Mock
+    private RecentMessageCache recentMessageCache;
+
+    @Mock
+    private ReadStateService readStateService;
+
+    @Mock
+    private MessageSearchIndex messageSearchIndex;
+
+    @Mock
+    private ChannelMembershipIndex channelMembershipIndex;
+
+    @Mock
+    private ContentVersions contentVersions;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private MessageEventPublisher messageEventPublisher;
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private HibernateCaches hibernateCaches;
+
+    @InjectMocks
+    private ClusterEventHandler clusterEventHandler;
+
+    @Test
+    void handle_MessageCreated_UpdatesLocalStateAndSubscribers() {
+        // Given
+        MessageSummary message = summary(100L);
+
+        // When
+        clusterEventHandler.handle(ClusterEvent.messageCreated(message));
+
+        // Then
+        verify(recentMessageCache).onCreated(message);
+        verify(readStateService).onRemoteMessageCreated(message);
+        verify(messageSearchIndex).index(100L, 10L, "hello");
+        verify(contentVersions).channelChanged(10L);
+        verify(messageEventPublisher).publishCreated(message);
+        verifyNoInteractions(messageRepository);
+    }
+
+    @Test
+    void handle_MessageWithoutBody_LoadsItFromPrimary() {
+        // Given
+        ClusterEvent event = ClusterEvent.messageUpdated(summary(100L)).withoutMessage();
+        AtomicBoolean pinned = new AtomicBoolean();
+        when(messageRepository.findSummaryById(100L)).thenAnswer(invocation -> {
+            pinned.set(ReadRouting.isPinnedToPrimary());
+            return Optional.of(summary(100L));
+        });
+
+        // When
+        clusterEventHandler.handle(event);
+
+        // Then
+        assertTrue(pinned.get());
+        verify(recentMessageCache).onUpdated(any());
+        verify(messageEventPublisher).publishUpdated(any());
+    }
+
+    @Test
+    void handle_MessageWithoutBodyGone_DropsChannelWindow() {
+        // Given
+        ClusterEvent event = ClusterEvent.messageUpdated(summary(100L)).withoutMessage();
+        when(messageRepository.findSummaryById(100L)).thenReturn(Optional.empty());
+
+        // When
+        clusterEventHandler.handle(event);
+
+        // Then
+        verify(recentMessageCache).evictChannel(10L);
+        verify(contentVersions).channelChanged(10L);
+        verifyNoMoreInteractions(recentMessageCache);
+        verifyNoInteractions(messageEventPublisher);
+    }
+
+    @Test
+    void handle_MemberJoined_AddsMemberAndBumpsVersions() {
+        // When
+        clusterEventHandler.handle(ClusterEvent.memberJoined(10L, 2L));
+
+        // Then
+        verify(channelMembershipIndex).addMember(10L, 2L);
+        verify(hibernateCaches).channelChanged(10L);
+        verify(contentVersions).channelChanged(10L);
+        verify(contentVersions).channelSetChanged(2L);
+        verify(contentVersions).directoryChanged();
+    }
+
+    @Test
+    void handle_Resync_DropsCachedState() {
+        // When
+        clusterEventHandler.handle(ClusterEvent.resync());
+
+        // Then
+        verify(hibernateCaches).evictAll();
+        verify(recentMessageCache).evictAll();
+        verify(channelMembershipIndex).evictAll();
+        verify(readStateService).evictCaches();
+        verify(userService).evictAllPrincipals();
+        verify(contentVersions).invalidateAll();
+    }
+
+    private static MessageSummary summary(Long id) {
+        return new MessageSummary(id, 10L, "hello", LocalDateTime.now(), null, Message.MessageType.TEXT,
+                new UserSummary(1L, "sender", null));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.slackchat.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryClusterEventBusTest {
+
+    @Test
+    void publish_DeliversToOtherNodesOfTheGroupOnly() {
+        // Given
+        InMemoryClusterEventBus first = new InMemoryClusterEventBus("publish-test");
+        InMemoryClusterEventBus second = new InMemoryClusterEventBus("publish-test");
+        InMemoryClusterEventBus alone = new InMemoryClusterEventBus("");
+        List<ClusterEvent> atFirst = new ArrayList<>();
+        List<ClusterEvent> atSecond = new ArrayList<>();
+        first.subscribe(atFirst::add);
+        second.subscribe(atSecond::add);
+
+        // When
+        first.publish(ClusterEvent.memberJoined(10L, 2L));
+        alone.publish(ClusterEvent.resync());
+        second.leave();
+        first.publish(ClusterEvent.memberLeft(10L, 2L));
+
+        // Then
+        assertTrue(atFirst.isEmpty());
+        assertEquals(1, atSecond.size());
+        assertEquals(ClusterEvent.Type.MEMBER_JOINED, atSecond.get(0).getType());
+        first.leave();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.slackchat.cluster;
+
+import com.example.slackchat.dto.MessageSummary;
+import com.example.slackchat.dto.UserSummary;
+import com.example.slackchat.model.Message;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Covers encoding only; the threads are never started, so no database is needed
+class PostgresClusterEventBusTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final PostgresClusterEventBus bus = new PostgresClusterEventBus(null, objectMapper,
+            new SimpleMeterRegistry(), "jdbc:postgresql://localhost/chat", "", "", "chat_events",
+            100, 200, 5, 500, 30000, 30000);
+
+    @Test
+    void encode_PacksEventsIntoPayloadsUnderTheNotifyLimit() throws Exception {
+        // Given
+        List<ClusterEvent> batch = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            batch.add(ClusterEvent.messageCreated(summary(id, "x".repeat(200))));
+        }
+
+        // When
+        List<String> payloads = bus.encode(batch);
+
+        // Then
+        assertTrue(payloads.size() > 1);
+        int events = 0;
+        for (String payload : payloads) {
+            assertTrue(payload.getBytes(StandardCharsets.UTF_8).length < 8000);
+            events += objectMapper.readValue(payload, ClusterEvent[].class).length;
+        }
+        assertEquals(100, events);
+    }
+
+    @Test
+    void encode_OversizedMessage_SentWithoutBody() throws Exception {
+        // Given
+        ClusterEvent event = ClusterEvent.messageCreated(summary(7L, "é".repeat(5000)));
+
+        // When
+        List<String> payloads = bus.encode(List.of(event, ClusterEvent.memberJoined(10L, 2L)));
+
+        // Then
+        assertEquals(1, payloads.size());
+        ClusterEvent[] decoded = objectMapper.readValue(payloads.get(0), ClusterEvent[].class);
+        assertEquals(ClusterEvent.Type.MESSAGE_CREATED, decoded[0].getType());
+        assertEquals(7L, decoded[0].getMessageId());
+        assertNull(decoded[0].getMessage());
+        assertEquals(ClusterEvent.Type.MEMBER_JOINED, decoded[1].getType());
+    }
+
+    @Test
+    void constructor_InvalidChannel_Rejected() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> new PostgresClusterEventBus(null, objectMapper,
+                new SimpleMeterRegistry(), "jdbc:postgresql://localhost/chat", "", "", "events; DROP TABLE users",
+                100, 200, 5, 500, 30000, 30000));
+    }
+
+    private static MessageSummary summary(Long id, String content) {
+        return new MessageSummary(id, 10L, content, LocalDateTime.now(), null, Message.MessageType.TEXT,
+                new UserSummary(1L, "sender", null));
+    }
+}
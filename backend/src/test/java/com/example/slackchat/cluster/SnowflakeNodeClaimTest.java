@@ -0,0 +1,30 @@
+package com.example.slackchat.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Covers configuration checks only; claiming needs a Postgres database
+class SnowflakeNodeClaimTest {
+
+    @Test
+    void parseNodeId_Unset_Refused() {
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> SnowflakeNodeClaim.parseNodeId(null));
+        assertThrows(IllegalStateException.class, () -> SnowflakeNodeClaim.parseNodeId(" "));
+    }
+
+    @Test
+    void parseNodeId_OutOfRange_Refused() {
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> SnowflakeNodeClaim.parseNodeId("1024"));
+        assertThrows(IllegalStateException.class, () -> SnowflakeNodeClaim.parseNodeId("-1"));
+    }
+
+    @Test
+    void parseNodeId_Explicit_Accepted() {
+        // When & Then
+        assertEquals(0, SnowflakeNodeClaim.parseNodeId("0"));
+        assertEquals(17, SnowflakeNodeClaim.parseNodeId(" 17 "));
+    }
+}
@@ -15,10 +15,13 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -145,4 +148,34 @@ class AuthControllerIntegrationTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value("Error: Invalid username or password!"));
     }
+
+    @Test
+    @Transactional
+    void signin_TooManyAttempts_ReturnsTooManyRequests() throws Exception {
+        // Given
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsername("nonexistent");
+        loginRequest.setPassword("password123");
+        String body = objectMapper.writeValueAsString(loginRequest);
+
+        // When: the burst is 10, and slow hashing may refill a token or two meanwhile
+        MvcResult result = null;
+        for (int i = 0; i < 20; i++) {
+            result = mockMvc.perform(post("/api/auth/signin").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andReturn();
+            if (result.getResponse().getStatus() != 400) {
+                break;
+            }
+        }
+
+        // Then
+        assertEquals(429, result.getResponse().getStatus());
+        assertEquals("1", result.getResponse().getHeader("Retry-After"));
+        assertTrue(result.getResponse().getContentAsString().contains("Too many requests"));
+        // Other accounts signing in from the same address are not held back
+        loginRequest.setUsername("someoneelse");
+        mockMvc.perform(post("/api/auth/signin").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isBadRequest());
+    }
 }
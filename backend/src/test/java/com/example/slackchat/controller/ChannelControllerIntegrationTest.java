@@ -2,8 +2,10 @@ package com.example.slackchat.controller;
 
 import com.example.slackchat.dto.ChannelRequest;
 import com.example.slackchat.model.Channel;
+import com.example.slackchat.model.Message;
 import com.example.slackchat.model.User;
 import com.example.slackchat.repository.ChannelRepository;
+import com.example.slackchat.repository.MessageRepository;
 import com.example.slackchat.repository.UserRepository;
 import com.example.slackchat.security.JwtUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -40,6 +42,9 @@ class ChannelControllerIntegrationTest {
     @Autowired
     private ChannelRepository channelRepository;
 
+    @Autowired
+    private MessageRepository messageRepository;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -139,6 +144,44 @@ class ChannelControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].name").value("mychannel"));
     }
 
+    @Test
+    @Transactional
+    void getMyChannels_IfNoneMatch_NotModifiedUntilMembershipChanges() throws Exception {
+        // Given
+        ChannelRequest channelRequest = new ChannelRequest();
+        channelRequest.setName("mine");
+        mockMvc.perform(post("/api/channels")
+                .header("Authorization", "Bearer " + jwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(channelRequest)))
+                .andExpect(status().isOk());
+        String etag = mockMvc.perform(get("/api/channels/my")
+                .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then
+        mockMvc.perform(get("/api/channels/my")
+                .header("Authorization", "Bearer " + jwtToken)
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        User owner = userRepository.save(new User("owner", "owner@example.com", passwordEncoder.encode("password")));
+        Channel other = channelRepository.save(new Channel("other", "Someone else's", owner));
+        mockMvc.perform(post("/api/channels/" + other.getId() + "/join")
+                .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/channels/my")
+                .header("Authorization", "Bearer " + jwtToken)
+                .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
     @Test
     @Transactional
     void joinChannel_ValidChannel_ReturnsSuccess() throws Exception {
@@ -153,7 +196,135 @@ class ChannelControllerIntegrationTest {
         mockMvc.perform(post("/api/channels/" + channel.getId() + "/join")
                 .header("Authorization", "Bearer " + jwtToken))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.name").value("joinable"));
+                .andExpect(jsonPath("$.name").value("joinable"))
+                .andExpect(jsonPath("$.memberCount").value(2))
+                .andExpect(jsonPath("$.members").doesNotExist());
+    }
+
+    // Without a test transaction, so the lazy member set is only reachable inside the service's own transaction
+    @Test
+    void joinAndLeaveChannel_WithoutOpenSession_UpdatesMembers() throws Exception {
+        // Given
+        User anotherUser = userRepository.save(new User("another", "another@example.com", passwordEncoder.encode("password")));
+        Channel channel = channelRepository.save(new Channel("joinable", "Joinable channel", anotherUser));
+
+        // When & Then
+        mockMvc.perform(post("/api/channels/" + channel.getId() + "/join")
+                .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.memberCount").value(2));
+        mockMvc.perform(post("/api/channels/" + channel.getId() + "/leave")
+                .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.memberCount").value(1));
+    }
+
+    @Test
+    @Transactional
+    void getAllChannels_ReturnsSummariesWithoutMembers() throws Exception {
+        // Given
+        Channel channel = new Channel("summary", "Summary channel", testUser);
+        for (int i = 0; i < 3; i++) {
+            channel.getMembers().add(userRepository.save(
+                    new User("member" + i, "member" + i + "@example.com", passwordEncoder.encode("password"))));
+        }
+        channelRepository.save(channel);
+
+        // When & Then
+        mockMvc.perform(get("/api/channels")
+                .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].memberCount").value(4))
+                .andExpect(jsonPath("$[0].isPrivate").value(false))
+                .andExpect(jsonPath("$[0].createdBy.username").value("testuser"))
+                .andExpect(jsonPath("$[0].createdBy.email").doesNotExist())
+                .andExpect(jsonPath("$[0].members").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getChannelMembers_ReturnsPagedMembers() throws Exception {
+        // Given
+        Channel channel = new Channel("paged", "Paged members", testUser);
+        for (int i = 0; i < 4; i++) {
+            channel.getMembers().add(userRepository.save(
+                    new User("member" + i, "member" + i + "@example.com", passwordEncoder.encode("password"))));
+        }
+        channel = channelRepository.save(channel);
+
+        // When & Then
+        mockMvc.perform(get("/api/channels/" + channel.getId() + "/members")
+                .param("page", "1")
+                .param("size", "2")
+                .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(5))
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].username").value("member2"));
+    }
+
+    @Test
+    @Transactional
+    void getChannelMembers_PrivateChannelNotMember_ReturnsError() throws Exception {
+        // Given
+        User owner = userRepository.save(new User("owner", "owner@example.com", passwordEncoder.encode("password")));
+        Channel channel = new Channel("secret", "Private channel", owner);
+        channel.setPrivate(true);
+        channel = channelRepository.save(channel);
+
+        // When & Then
+        mockMvc.perform(get("/api/channels/" + channel.getId() + "/members")
+                .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Error: You are not a member of this channel"));
+    }
+
+    @Test
+    @Transactional
+    void markRead_UpdatesUnreadAndMentionCounts() throws Exception {
+        // Given
+        User author = userRepository.save(new User("author", "author@example.com", passwordEncoder.encode("password")));
+        Channel channel = new Channel("unread", "Unread channel", testUser);
+        channel.getMembers().add(author);
+        channel = channelRepository.save(channel);
+        messageRepository.save(new Message("first", author, channel));
+        Message second = messageRepository.save(new Message("second", author, channel));
+        messageRepository.save(new Message("hey @testuser", author, channel));
+
+        // When & Then
+        mockMvc.perform(get("/api/channels/my/read-state")
+                .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].channel.name").value("unread"))
+                .andExpect(jsonPath("$[0].unreadCount").value(3))
+                .andExpect(jsonPath("$[0].mentionCount").value(1))
+                .andExpect(jsonPath("$[0].unreadCapped").value(false));
+
+        mockMvc.perform(post("/api/channels/" + channel.getId() + "/read")
+                .header("Authorization", "Bearer " + jwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"messageId\":\"" + second.getId() + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastReadMessageId").value(second.getId().toString()))
+                .andExpect(jsonPath("$.unreadCount").value(1))
+                .andExpect(jsonPath("$.mentionCount").value(1));
+    }
+
+    @Test
+    @Transactional
+    void markRead_MessageOfAnotherChannel_ReturnsBadRequest() throws Exception {
+        // Given
+        Channel channel = channelRepository.save(new Channel("mine", "My channel", testUser));
+        Channel other = channelRepository.save(new Channel("other", "Other channel", testUser));
+        Message elsewhere = messageRepository.save(new Message("elsewhere", testUser, other));
+
+        // When & Then
+        mockMvc.perform(post("/api/channels/" + channel.getId() + "/read")
+                .header("Authorization", "Bearer " + jwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"messageId\":\"" + elsewhere.getId() + "\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Error: Message not found in this channel"));
     }
 
     @Test
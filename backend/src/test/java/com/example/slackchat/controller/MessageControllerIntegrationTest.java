@@ -0,0 +1,342 @@
+package com.example.slackchat.controller;
+
+import com.example.slackchat.archive.MessageArchive;
+import com.example.slackchat.archive.MessageArchiver;
+import com.example.slackchat.dto.MessageRequest;
+import com.example.slackchat.model.Channel;
+import com.example.slackchat.model.Message;
+import com.example.slackchat.model.User;
+import com.example.slackchat.repository.ChannelRepository;
+import com.example.slackchat.repository.MessageRepository;
+import com.example.slackchat.repository.UserRepository;
+import com.example.slackchat.search.MessageSearchIndex;
+import com.example.slackchat.security.JwtUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class MessageControllerIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChannelRepository channelRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MessageSearchIndex messageSearchIndex;
+
+    @Autowired
+    private MessageArchive messageArchive;
+
+    @Autowired
+    private MessageArchiver messageArchiver;
+
+    private MockMvc mockMvc;
+    private User testUser;
+    private Channel testChannel;
+    private String jwtToken;
+    private LocalDateTime baseTime;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(context)
+                .apply(springSecurity())
+                .build();
+
+        messageRepository.deleteAll();
+        channelRepository.deleteAll();
+        userRepository.deleteAll();
+
+        testUser = userRepository.save(new User("testuser", "test@example.com", passwordEncoder.encode("password123")));
+        testChannel = channelRepository.save(new Channel("general", "General discussion", testUser));
+        jwtToken = jwtUtils.generateToken(testUser);
+
+        // Five messages one minute apart: "message 0" is the oldest
+        baseTime = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < 5; i++) {
+            Message message = new Message("message " + i, testUser, testChannel);
+            message.setCreatedAt(baseTime.plusMinutes(i));
+            messageRepository.save(message);
+        }
+    }
+
+    @Test
+    void getMessageHistory_WalksBackwardsWithCursor() throws Exception {
+        // First page: the two newest messages
+        JsonNode firstPage = getJson("/api/messages/channel/" + testChannel.getId() + "/history?limit=2");
+        assertEquals("message 4", firstPage.at("/messages/0/content").asText());
+        assertEquals("message 3", firstPage.at("/messages/1/content").asText());
+        assertTrue(firstPage.get("newerCursor").isNull());
+
+        // Second page continues strictly before the cursor
+        JsonNode secondPage = getJson("/api/messages/channel/" + testChannel.getId()
+                + "/history?limit=2&before=" + firstPage.get("olderCursor").asText());
+        assertEquals("message 2", secondPage.at("/messages/0/content").asText());
+        assertEquals("message 1", secondPage.at("/messages/1/content").asText());
+
+        // Last page has no older cursor
+        JsonNode lastPage = getJson("/api/messages/channel/" + testChannel.getId()
+                + "/history?limit=2&before=" + secondPage.get("olderCursor").asText());
+        assertEquals(1, lastPage.get("messages").size());
+        assertEquals("message 0", lastPage.at("/messages/0/content").asText());
+        assertTrue(lastPage.get("olderCursor").isNull());
+
+        // And scrolling forward again from the oldest page
+        JsonNode forwardPage = getJson("/api/messages/channel/" + testChannel.getId()
+                + "/history?limit=2&after=" + lastPage.get("newerCursor").asText());
+        assertEquals("message 2", forwardPage.at("/messages/0/content").asText());
+        assertEquals("message 1", forwardPage.at("/messages/1/content").asText());
+        assertFalse(forwardPage.get("newerCursor").isNull());
+    }
+
+    @AfterEach
+    void tearDown() {
+        // The archive directory outlives the in-memory database
+        messageArchive.deleteChannel(testChannel.getId());
+    }
+
+    @Test
+    void getMessageHistory_ArchivedMessages_ContinuesFromDatabaseIntoArchive() throws Exception {
+        assertEquals(3, messageArchiver.archive(baseTime.plusMinutes(3)));
+        assertEquals(2, messageRepository.count());
+
+        JsonNode firstPage = getJson("/api/messages/channel/" + testChannel.getId() + "/history?limit=2");
+        assertEquals("message 4", firstPage.at("/messages/0/content").asText());
+        assertEquals("message 3", firstPage.at("/messages/1/content").asText());
+
+        JsonNode secondPage = getJson("/api/messages/channel/" + testChannel.getId()
+                + "/history?limit=2&before=" + firstPage.get("olderCursor").asText());
+        assertEquals("message 2", secondPage.at("/messages/0/content").asText());
+        assertEquals("message 1", secondPage.at("/messages/1/content").asText());
+        assertEquals("testuser", secondPage.at("/messages/0/sender/username").asText());
+
+        // Scrolling forward crosses from the archive back into the database
+        JsonNode forwardPage = getJson("/api/messages/channel/" + testChannel.getId()
+                + "/history?limit=3&after=" + secondPage.get("newerCursor").asText());
+        assertEquals(2, forwardPage.get("messages").size());
+        assertEquals("message 4", forwardPage.at("/messages/0/content").asText());
+
+        JsonNode paginated = getJson("/api/messages/channel/" + testChannel.getId() + "/paginated?page=1&size=2");
+        assertEquals(5, paginated.get("totalElements").asInt());
+        assertEquals("message 2", paginated.at("/content/0/content").asText());
+        assertEquals("message 1", paginated.at("/content/1/content").asText());
+    }
+
+    @Test
+    void getMessagesByChannel_IfNoneMatch_NotModifiedUntilChannelChanges() throws Exception {
+        String url = "/api/messages/channel/" + testChannel.getId();
+        String etag = mockMvc.perform(get(url).header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        mockMvc.perform(get(url)
+                .header("Authorization", "Bearer " + jwtToken)
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        MessageRequest request = new MessageRequest();
+        request.setContent("something new");
+        request.setChannelId(testChannel.getId());
+        mockMvc.perform(post("/api/messages")
+                .header("Authorization", "Bearer " + jwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        String newEtag = mockMvc.perform(get(url)
+                .header("Authorization", "Bearer " + jwtToken)
+                .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].content").value("something new"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(etag, newEtag);
+    }
+
+    @Test
+    void exportChannel_StreamsNdjsonOldestFirst() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/messages/channel/" + testChannel.getId() + "/export")
+                .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(5, lines.length);
+        assertEquals("message 0", objectMapper.readTree(lines[0]).get("content").asText());
+        assertEquals("message 4", objectMapper.readTree(lines[4]).get("content").asText());
+        assertEquals("testuser", objectMapper.readTree(lines[4]).at("/sender/username").asText());
+    }
+
+    @Test
+    void exportChannel_GzipWithArchivedMessages_ReturnsWholeHistory() throws Exception {
+        messageArchiver.archive(baseTime.plusMinutes(2));
+
+        MvcResult started = mockMvc.perform(get("/api/messages/channel/" + testChannel.getId() + "/export")
+                .header("Authorization", "Bearer " + jwtToken)
+                .header("Accept-Encoding", "gzip"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] compressed = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String body;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = body.split("\n");
+        assertEquals(5, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals("message " + i, objectMapper.readTree(lines[i]).get("content").asText());
+        }
+    }
+
+    @Test
+    void exportChannel_NonMember_ReturnsError() throws Exception {
+        User outsider = userRepository.save(new User("outsider", "outsider@example.com", passwordEncoder.encode("password123")));
+
+        MvcResult started = mockMvc.perform(get("/api/messages/channel/" + testChannel.getId() + "/export")
+                .header("Authorization", "Bearer " + jwtUtils.generateToken(outsider)))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Error: You are not a member of this channel"));
+    }
+
+    @Test
+    void getMessageHistory_JumpToTimestamp_ReturnsMessagesUpToThatTime() throws Exception {
+        JsonNode page = getJson("/api/messages/channel/" + testChannel.getId()
+                + "/history?limit=10&at=" + baseTime.plusMinutes(2));
+
+        assertEquals(3, page.get("messages").size());
+        assertEquals("message 2", page.at("/messages/0/content").asText());
+        assertFalse(page.get("newerCursor").isNull());
+    }
+
+    @Test
+    void getMessageHistory_InvalidCursor_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/messages/channel/" + testChannel.getId() + "/history?before=garbage")
+                .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Error: Invalid cursor"));
+    }
+
+    @Test
+    void createMessage_Member_ReturnsMessage() throws Exception {
+        MessageRequest request = new MessageRequest();
+        request.setContent("Hello from a member");
+        request.setChannelId(testChannel.getId());
+
+        mockMvc.perform(post("/api/messages")
+                .header("Authorization", "Bearer " + jwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").value("Hello from a member"))
+                .andExpect(jsonPath("$.sender.username").value("testuser"));
+    }
+
+    @Test
+    void createMessage_NonMember_ReturnsError() throws Exception {
+        User outsider = userRepository.save(new User("outsider", "outsider@example.com", passwordEncoder.encode("password123")));
+        MessageRequest request = new MessageRequest();
+        request.setContent("Let me in");
+        request.setChannelId(testChannel.getId());
+
+        mockMvc.perform(post("/api/messages")
+                .header("Authorization", "Bearer " + jwtUtils.generateToken(outsider))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Error: You are not a member of this channel"));
+    }
+
+    @Test
+    void searchMessages_FindsMatchesOnlyInCallersChannels() throws Exception {
+        User outsider = userRepository.save(new User("outsider", "outsider@example.com", passwordEncoder.encode("password123")));
+        Channel otherChannel = channelRepository.save(new Channel("other", "Not ours", outsider));
+        Message hidden = messageRepository.save(new Message("deploy the api tonight", outsider, otherChannel));
+        messageSearchIndex.index(hidden.getId(), otherChannel.getId(), hidden.getContent());
+
+        for (String content : new String[]{"Deploy the API tonight?", "lunch anyone", "api deploy done"}) {
+            MessageRequest request = new MessageRequest();
+            request.setContent(content);
+            request.setChannelId(testChannel.getId());
+            mockMvc.perform(post("/api/messages")
+                    .header("Authorization", "Bearer " + jwtToken)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk());
+        }
+
+        JsonNode firstPage = getJson("/api/messages/search?q=api deploy&limit=1");
+        assertEquals(1, firstPage.get("messages").size());
+        assertEquals("api deploy done", firstPage.at("/messages/0/content").asText());
+
+        JsonNode secondPage = getJson("/api/messages/search?q=api deploy&limit=1&before="
+                + firstPage.get("nextBefore").asText());
+        assertEquals("Deploy the API tonight?", secondPage.at("/messages/0/content").asText());
+
+        JsonNode lastPage = getJson("/api/messages/search?q=api deploy&limit=1&before="
+                + secondPage.get("nextBefore").asText());
+        assertEquals(0, lastPage.get("messages").size());
+        assertTrue(lastPage.get("nextBefore").isNull());
+    }
+
+    private JsonNode getJson(String url) throws Exception {
+        String body = mockMvc.perform(get(url).header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.slackchat.datasource;
+
+import com.example.slackchat.dto.ChannelRequest;
+import com.example.slackchat.model.User;
+import com.example.slackchat.repository.ChannelRepository;
+import com.example.slackchat.repository.UserRepository;
+import com.example.slackchat.security.JwtUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class HibernateCacheIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChannelRepository channelRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private HibernateCaches hibernateCaches;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        channelRepository.deleteAll();
+        userRepository.deleteAll();
+        testUser = userRepository.save(new User("testuser", "test@example.com", passwordEncoder.encode("password123")));
+    }
+
+    @Test
+    void findByUsername_ServesUserFromCacheUntilEvicted() {
+        // Given
+        userRepository.findByUsername("testuser");
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        assertTrue(cache.containsEntity(User.class, testUser.getId()));
+        jdbcTemplate.update("UPDATE users SET email = 'changed@example.com' WHERE id = ?", testUser.getId());
+
+        // When
+        String cached = userRepository.findByUsername("testuser").orElseThrow().getEmail();
+        hibernateCaches.userChanged(testUser.getId());
+        String reloaded = userRepository.findByUsername("testuser").orElseThrow().getEmail();
+
+        // Then
+        assertEquals("test@example.com", cached);
+        assertEquals("changed@example.com", reloaded);
+        assertFalse(meterRegistry.find("cache.gets").tag("cache", "users").meters().isEmpty());
+    }
+
+    @Test
+    void getChannels_AfterJoin_ReturnsNewMemberCount() throws Exception {
+        // Given
+        ChannelRequest channelRequest = new ChannelRequest();
+        channelRequest.setName("general");
+        channelRequest.setDescription("General discussion");
+        mockMvc.perform(post("/api/channels")
+                .header("Authorization", "Bearer " + jwtUtils.generateToken(testUser))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(channelRequest)))
+                .andExpect(status().isOk());
+        Long channelId = channelRepository.findByName("general").orElseThrow().getId();
+        User otherUser = userRepository.save(new User("otheruser", "other@example.com", passwordEncoder.encode("password123")));
+        String otherToken = jwtUtils.generateToken(otherUser);
+        mockMvc.perform(get("/api/channels")
+                .header("Authorization", "Bearer " + otherToken))
+                .andExpect(jsonPath("$[0].memberCount").value(1));
+
+        // When
+        mockMvc.perform(post("/api/channels/" + channelId + "/join")
+                .header("Authorization", "Bearer " + otherToken))
+                .andExpect(status().isOk());
+
+        // Then
+        mockMvc.perform(get("/api/channels")
+                .header("Authorization", "Bearer " + otherToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].memberCount").value(2));
+    }
+}
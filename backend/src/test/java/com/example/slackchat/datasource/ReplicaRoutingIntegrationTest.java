@@ -0,0 +1,102 @@
+package com.example.slackchat.datasource;
+
+import com.example.slackchat.dto.ChannelRequest;
+import com.example.slackchat.model.User;
+import com.example.slackchat.repository.ChannelRepository;
+import com.example.slackchat.repository.UserRepository;
+import com.example.slackchat.security.JwtUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// The "replica" is a second pool on the test database, so it never lags and every read is visible
+@SpringBootTest(properties = {
+        "chat.datasource.replica-urls=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "chat.datasource.sticky-ms=60000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChannelRepository channelRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private String jwtToken;
+
+    @BeforeEach
+    void setUp() {
+        channelRepository.deleteAll();
+        userRepository.deleteAll();
+        User testUser = userRepository.save(new User("testuser", "test@example.com", passwordEncoder.encode("password123")));
+        jwtToken = jwtUtils.generateToken(testUser);
+    }
+
+    @Test
+    void getMyChannels_ReadsFromReplica() throws Exception {
+        // Given
+        double before = replicaReads();
+
+        // When & Then
+        mockMvc.perform(get("/api/channels/my")
+                .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk());
+        assertTrue(replicaReads() > before);
+    }
+
+    @Test
+    void getChannels_AfterWrite_ReadsFromPrimary() throws Exception {
+        // Given
+        ChannelRequest channelRequest = new ChannelRequest();
+        channelRequest.setName("general");
+        channelRequest.setDescription("General discussion");
+        mockMvc.perform(post("/api/channels")
+                .header("Authorization", "Bearer " + jwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(channelRequest)))
+                .andExpect(status().isOk());
+        double before = replicaReads();
+
+        // When & Then
+        mockMvc.perform(get("/api/channels/my")
+                .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("general"));
+        assertEquals(before, replicaReads());
+    }
+
+    private double replicaReads() {
+        return meterRegistry.get("chat.datasource.reads").tag("target", "replica").counter().count();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.slackchat.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private ChatMetrics chatMetrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        chatMetrics = new ChatMetrics(registry, 2);
+    }
+
+    @Test
+    void messageSent_CountsPerChannel() {
+        // When
+        chatMetrics.messageSent(1L, 1_000_000);
+        chatMetrics.messageSent(1L, 3_000_000);
+        chatMetrics.messageSent(2L, 2_000_000);
+
+        // Then
+        assertEquals(2.0, registry.get("chat.messages.sent").tag("channel", "1").counter().count());
+        assertEquals(1.0, registry.get("chat.messages.sent").tag("channel", "2").counter().count());
+        assertEquals(3, registry.get("chat.messages.send").timer().count());
+    }
+
+    @Test
+    void messageSent_BeyondTagLimit_CountsAsOther() {
+        // Given
+        chatMetrics.messageSent(1L, 0);
+        chatMetrics.messageSent(2L, 0);
+
+        // When
+        chatMetrics.messageSent(3L, 0);
+        chatMetrics.messageSent(4L, 0);
+
+        // Then
+        assertEquals(2.0, registry.get("chat.messages.sent").tag("channel", "other").counter().count());
+        assertNull(registry.find("chat.messages.sent").tag("channel", "3").counter());
+    }
+}
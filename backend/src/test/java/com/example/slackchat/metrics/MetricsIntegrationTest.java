@@ -0,0 +1,111 @@
+package com.example.slackchat.metrics;
+
+import com.example.slackchat.dto.MessageRequest;
+import com.example.slackchat.model.Channel;
+import com.example.slackchat.model.User;
+import com.example.slackchat.repository.ChannelRepository;
+import com.example.slackchat.repository.MessageRepository;
+import com.example.slackchat.repository.UserRepository;
+import com.example.slackchat.security.JwtUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureWebMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class MetricsIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChannelRepository channelRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+    private Channel testChannel;
+    private String jwtToken;
+
+    @BeforeEach
+    void setUp() {
+        // MockMvc skips servlet filters unless added, including the one that times requests
+        FilterRegistrationBean<?> observationFilter = context.getBean("webMvcObservationFilter", FilterRegistrationBean.class);
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(context)
+                .addFilters(observationFilter.getFilter())
+                .apply(springSecurity())
+                .build();
+
+        messageRepository.deleteAll();
+        channelRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User testUser = userRepository.save(new User("testuser", "test@example.com", passwordEncoder.encode("password123")));
+        testChannel = channelRepository.save(new Channel("general", "General discussion", testUser));
+        jwtToken = jwtUtils.generateToken(testUser);
+    }
+
+    @Test
+    void prometheus_ExposesHotPathMeters() throws Exception {
+        // Given
+        MessageRequest request = new MessageRequest();
+        request.setContent("hello");
+        request.setChannelId(testChannel.getId());
+        mockMvc.perform(post("/api/messages")
+                .header("Authorization", "Bearer " + jwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/messages/channel/" + testChannel.getId() + "/history")
+                .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk());
+
+        // When & Then
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "http_server_requests_seconds_bucket{application=\"slack-chat-backend-test\"")))
+                .andExpect(content().string(containsString("uri=\"/api/messages/channel/{channelId}/history\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket")))
+                .andExpect(content().string(containsString(
+                        "chat_messages_sent_total{application=\"slack-chat-backend-test\",channel=\""
+                                + testChannel.getId() + "\",} 1.0")))
+                .andExpect(content().string(containsString("chat_jwt_verify_seconds_count")))
+                .andExpect(content().string(containsString("cache_gets_total")))
+                .andExpect(content().string(containsString("hikaricp_connections_pending")));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.slackchat.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeTest {
+
+    @Test
+    void nextId_EncodesTimestampAndNode() {
+        // Given
+        long now = Snowflake.EPOCH_MILLIS + 123_456;
+        Snowflake snowflake = new Snowflake(42, () -> now);
+
+        // When
+        long id = snowflake.nextId();
+
+        // Then
+        assertEquals(now, Snowflake.timestampMillis(id));
+        assertEquals(42, Snowflake.nodeId(id));
+    }
+
+    @Test
+    void nextId_StaysMonotonicWhenSequenceOverflowsOrClockStepsBack() {
+        // Given
+        AtomicLong clock = new AtomicLong(Snowflake.EPOCH_MILLIS + 1_000);
+        Snowflake snowflake = new Snowflake(1, clock::get);
+
+        // When
+        long previous = snowflake.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                clock.addAndGet(-500);
+            }
+            long id = snowflake.nextId();
+
+            // Then
+            assertTrue(id > previous);
+            assertEquals(1, Snowflake.nodeId(id));
+            previous = id;
+        }
+    }
+
+    @Test
+    void nextId_IsUniqueAcrossThreads() {
+        // Given
+        Snowflake snowflake = new Snowflake(7);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        // When
+        IntStream.range(0, 100_000).parallel().forEach(i -> ids.add(snowflake.nextId()));
+
+        // Then
+        assertEquals(100_000, ids.size());
+    }
+
+    @Test
+    void constructor_RejectsOutOfRangeNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new Snowflake(Snowflake.MAX_NODE_ID + 1));
+        assertThrows(IllegalArgumentException.class, () -> new Snowflake(-1));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.slackchat.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private SimpleMeterRegistry registry;
+    private AtomicLong now;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        now = new AtomicLong(1_000 * SECOND);
+    }
+
+    @Test
+    void tryAcquire_BurstUsedUp_RejectsUntilRefilled() {
+        // Given
+        RateLimiter limiter = new RateLimiter("test", 2, 3, 100, now::get, registry);
+
+        // When
+        long[] results = new long[4];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = limiter.tryAcquire(1L);
+        }
+
+        // Then
+        assertArrayEquals(new long[]{0, 0, 0, SECOND / 2}, results);
+        assertEquals(0, limiter.tryAcquire(2L));
+        now.addAndGet(SECOND / 2);
+        assertEquals(0, limiter.tryAcquire(1L));
+        assertTrue(limiter.tryAcquire(1L) > 0);
+        assertEquals(2.0, registry.get("chat.ratelimit.rejected").tag("limit", "test").counter().count());
+    }
+
+    @Test
+    void evictIdle_RemovesOnlyFullBuckets() {
+        // Given
+        RateLimiter limiter = new RateLimiter("test", 1, 5, 100, now::get, registry);
+        limiter.tryAcquire(1L);
+        now.addAndGet(SECOND);
+        limiter.tryAcquire(2L);
+
+        // When
+        limiter.evictIdle();
+
+        // Then
+        assertEquals(1, limiter.getBucketCount());
+        assertEquals(1.0, registry.get("chat.ratelimit.buckets").tag("limit", "test").gauge().value());
+    }
+
+    @Test
+    void tryAcquire_TooManyKeys_LetsNewKeysThroughUntracked() {
+        // Given
+        RateLimiter limiter = new RateLimiter("test", 1, 1, 2, now::get, registry);
+        limiter.tryAcquire(1L);
+        limiter.tryAcquire(2L);
+
+        // When
+        long third = limiter.tryAcquire(3L);
+        long thirdAgain = limiter.tryAcquire(3L);
+
+        // Then
+        assertEquals(0, third);
+        assertEquals(0, thirdAgain);
+        assertEquals(2, limiter.getBucketCount());
+        assertEquals(2.0, registry.get("chat.ratelimit.untracked").tag("limit", "test").counter().count());
+    }
+
+    @Test
+    void tryAcquire_ZeroRate_NeverLimits() {
+        // Given
+        RateLimiter limiter = new RateLimiter("test", 0, 1, 100, now::get, registry);
+
+        // When & Then
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limiter.tryAcquire(1L));
+        }
+        assertEquals(0, limiter.getBucketCount());
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.slackchat.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageSearchIndexTest {
+
+    private MessageSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MessageSearchIndex(10, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        index.shutdown();
+    }
+
+    @Test
+    void search_MatchesAllTermsInCallersChannels() {
+        // Given
+        index.index(1L, 100L, "Deploy the API today");
+        index.index(2L, 100L, "deploy postponed");
+        index.index(3L, 200L, "Deploying? The api is DOWN");
+        index.index(4L, 300L, "deploy the api");
+
+        // When
+        List<Long> hits = index.search(Set.of(100L, 200L), "api DEPLOY", null, 10);
+
+        // Then
+        assertEquals(List.of(1L), hits);
+        assertEquals(List.of(3L), index.search(Set.of(100L, 200L), "deploying api", null, 10));
+        assertTrue(index.search(Set.of(100L), "", null, 10).isEmpty());
+    }
+
+    @Test
+    void search_AfterUpdateAndDelete_ReflectsLatestContent() {
+        // Given
+        index.index(1L, 100L, "lunch at noon");
+        index.index(2L, 100L, "lunch later");
+        index.flush();
+
+        // When
+        index.index(1L, 100L, "dinner at seven");
+        index.remove(2L);
+
+        // Then
+        assertTrue(index.search(Set.of(100L), "lunch", null, 10).isEmpty());
+        assertEquals(List.of(1L), index.search(Set.of(100L), "dinner", null, 10));
+        assertEquals(1, index.getStats().getDocuments());
+    }
+
+    @Test
+    void search_AcrossSealedAndMergedSegments_ReturnsNewestFirstWithPaging() {
+        // Given
+        for (long id = 1; id <= 100; id++) {
+            index.index(id, id % 2 == 0 ? 100L : 200L, "status update " + (id % 3 == 0 ? "fizz" : "plain"));
+        }
+        index.flush();
+        for (long id = 3; id <= 99; id += 6) {
+            index.remove(id);
+        }
+        index.flush();
+
+        // When
+        List<Long> firstPage = index.search(Set.of(100L, 200L), "status fizz", null, 5);
+        List<Long> secondPage = index.search(Set.of(100L, 200L), "status fizz", firstPage.get(4), 5);
+
+        // Then
+        assertEquals(List.of(96L, 90L, 84L, 78L, 72L), firstPage);
+        assertEquals(List.of(66L, 60L, 54L, 48L, 42L), secondPage);
+        assertTrue(index.getStats().getSegments() <= 2);
+        assertEquals(83, index.getStats().getDocuments());
+    }
+
+    @Test
+    void indexIfAbsent_LiveVersionExists_KeepsIt() {
+        // Given
+        index.index(1L, 100L, "edited text");
+
+        // When
+        boolean indexed = index.indexIfAbsent(1L, 100L, "original text");
+
+        // Then
+        assertFalse(indexed);
+        assertTrue(index.search(Set.of(100L), "original", null, 10).isEmpty());
+        assertTrue(index.indexIfAbsent(2L, 100L, "original text"));
+    }
+
+    @Test
+    void restoreSnapshot_RoundTripsSegmentsAndDeletes(@TempDir Path directory) throws InterruptedException {
+        // Given
+        Path snapshot = directory.resolve("search.snapshot");
+        LocalDateTime coveredUntil = LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123456789);
+        for (long id = 1; id <= 25; id++) {
+            index.index(id, id % 2 == 0 ? 100L : 200L, "standup notes " + id);
+        }
+        index.remove(4L);
+        index.writeSnapshot(snapshot, coveredUntil);
+
+        // When
+        MessageSearchIndex restored = new MessageSearchIndex(10, 2);
+        LocalDateTime covered = restored.restoreSnapshot(snapshot);
+
+        // Then
+        try {
+            assertEquals(coveredUntil, covered);
+            assertEquals(24, restored.getStats().getDocuments());
+            assertEquals(index.search(Set.of(100L, 200L), "standup notes", null, 50),
+                    restored.search(Set.of(100L, 200L), "standup notes", null, 50));
+            assertEquals(List.of(6L), restored.search(Set.of(100L), "6", null, 10));
+            assertNull(restored.restoreSnapshot(directory.resolve("missing")));
+        } finally {
+            restored.shutdown();
+        }
+    }
+
+    @Test
+    void refresh_DuringCatchUp_ReplacesRestoredCopyButNotLiveWrites(@TempDir Path directory)
+            throws InterruptedException {
+        // Given
+        Path snapshot = directory.resolve("search.snapshot");
+        MessageSearchIndex previous = new MessageSearchIndex(10, 2);
+        previous.index(1L, 100L, "old draft");
+        previous.index(2L, 100L, "old plan");
+        previous.index(3L, 100L, "old notes");
+        previous.writeSnapshot(snapshot, LocalDateTime.now());
+        previous.shutdown();
+        index.beginCatchUp();
+        index.remove(3L);
+        index.restoreSnapshot(snapshot);
+        index.index(2L, 100L, "live plan");
+
+        // When
+        index.refresh(1L, 100L, "edited draft");
+        index.refresh(2L, 100L, "stale plan");
+        index.refresh(3L, 100L, "old notes");
+        index.endCatchUp();
+
+        // Then
+        assertEquals(List.of(1L), index.search(Set.of(100L), "edited", null, 10));
+        assertEquals(List.of(2L), index.search(Set.of(100L), "live", null, 10));
+        assertTrue(index.search(Set.of(100L), "stale", null, 10).isEmpty());
+        assertTrue(index.search(Set.of(100L), "old", null, 10).isEmpty());
+    }
+
+    @Test
+    void terms_SplitsOnNonAlphanumericsAndLowerCases() {
+        assertEquals(Set.of("héllo", "wörld", "42", "a1"), Tokenizer.terms("Héllo, WÖRLD! 42 ... a1"));
+    }
+}
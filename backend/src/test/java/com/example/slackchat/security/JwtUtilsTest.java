@@ -0,0 +1,91 @@
+package com.example.slackchat.security;
+
+import com.example.slackchat.model.User;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilsTest {
+
+    private static final String SECRET = "testSecretKeyForSlackChatApplicationThatIsLongEnoughForHS256Algorithm";
+
+    private JwtUtils jwtUtils;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = newJwtUtils(86400000L);
+        testUser = new User("testuser", "test@example.com", "password");
+        testUser.setId(1L);
+    }
+
+    @Test
+    void verifyToken_ValidToken_ReturnsClaims() {
+        // Given
+        String token = jwtUtils.generateToken(testUser);
+
+        // When
+        VerifiedToken verified = jwtUtils.verifyToken(token);
+
+        // Then
+        assertEquals("testuser", verified.getUsername());
+        assertNotNull(verified.getIssuedAt());
+        assertTrue(verified.getExpiresAt().isAfter(verified.getIssuedAt()));
+    }
+
+    @Test
+    void verifyToken_SameTokenTwice_ReturnsCachedClaims() {
+        // Given
+        String token = jwtUtils.generateToken(testUser);
+
+        // When
+        VerifiedToken first = jwtUtils.verifyToken(token);
+        VerifiedToken second = jwtUtils.verifyToken(token);
+
+        // Then
+        assertSame(first, second);
+    }
+
+    @Test
+    void verifyToken_TamperedSignature_ThrowsException() {
+        // Given
+        String token = jwtUtils.generateToken(testUser);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        // When & Then
+        assertThrows(JwtException.class, () -> jwtUtils.verifyToken(tampered));
+    }
+
+    @Test
+    void verifyToken_ExpiredToken_ThrowsExpiredException() {
+        // Given
+        String token = newJwtUtils(-1000L).generateToken(testUser);
+
+        // When & Then
+        assertThrows(ExpiredJwtException.class, () -> jwtUtils.verifyToken(token));
+    }
+
+    @Test
+    void validateToken_DifferentUser_ReturnsFalse() {
+        // Given
+        String token = jwtUtils.generateToken(testUser);
+        User otherUser = new User("other", "other@example.com", "password");
+
+        // When & Then
+        assertTrue(jwtUtils.validateToken(token, testUser));
+        assertFalse(jwtUtils.validateToken(token, otherUser));
+    }
+
+    private JwtUtils newJwtUtils(long expiration) {
+        JwtUtils utils = new JwtUtils();
+        ReflectionTestUtils.setField(utils, "secret", SECRET);
+        ReflectionTestUtils.setField(utils, "expiration", expiration);
+        ReflectionTestUtils.setField(utils, "maxCachedTokens", 100);
+        utils.init();
+        return utils;
+    }
+}
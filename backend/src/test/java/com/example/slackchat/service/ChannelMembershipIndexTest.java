@@ -0,0 +1,140 @@
+package com.example.slackchat.service;
+
+import com.example.slackchat.repository.ChannelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChannelMembershipIndexTest {
+
+    @Mock
+    private ChannelRepository channelRepository;
+
+    private ChannelMembershipIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ChannelMembershipIndex(channelRepository, true);
+    }
+
+    @Test
+    void isMember_ColdChannel_LoadsFromRepositoryOnce() {
+        // Given
+        when(channelRepository.findMemberIds(1L)).thenReturn(Arrays.asList(10L, 20L));
+
+        // When & Then
+        assertTrue(index.isMember(1L, 10L));
+        assertFalse(index.isMember(1L, 30L));
+        assertEquals(2, index.getMemberCount(1L));
+        verify(channelRepository, times(1)).findMemberIds(1L);
+    }
+
+    @Test
+    void isMember_UnknownChannel_IsNotCached() {
+        // Given
+        when(channelRepository.findMemberIds(1L)).thenReturn(List.of());
+        when(channelRepository.existsById(1L)).thenReturn(false);
+
+        // When
+        assertFalse(index.isMember(1L, 10L));
+        assertFalse(index.isMember(1L, 10L));
+
+        // Then
+        verify(channelRepository, times(2)).findMemberIds(1L);
+    }
+
+    @Test
+    void channelCreated_AfterProbe_SeedsCreator() {
+        // Given
+        when(channelRepository.findMemberIds(1L)).thenReturn(List.of());
+        when(channelRepository.existsById(1L)).thenReturn(true);
+        assertFalse(index.isMember(1L, 10L));
+
+        // When
+        index.channelCreated(1L, 10L);
+
+        // Then
+        assertTrue(index.isMember(1L, 10L));
+        assertEquals(1, index.getMemberCount(1L));
+    }
+
+    @Test
+    void afterSingletonsInstantiated_WarmsAllChannels() {
+        // Given
+        List<Object[]> rows = Arrays.asList(new Object[]{1L, 10L}, new Object[]{2L, 20L});
+        when(channelRepository.findAllMemberships()).thenReturn(rows);
+
+        // When
+        index.afterSingletonsInstantiated();
+
+        // Then
+        assertTrue(index.isMember(1L, 10L));
+        assertTrue(index.isMember(2L, 20L));
+        assertFalse(index.isMember(2L, 10L));
+        verify(channelRepository, never()).findMemberIds(any());
+    }
+
+    @Test
+    void addAndRemoveMember_LoadedChannel_UpdatesIndex() {
+        // Given
+        when(channelRepository.findMemberIds(1L)).thenReturn(Arrays.asList(10L));
+        index.isMember(1L, 10L);
+
+        // When
+        index.addMember(1L, 20L);
+        index.removeMember(1L, 10L);
+
+        // Then
+        assertTrue(index.isMember(1L, 20L));
+        assertFalse(index.isMember(1L, 10L));
+    }
+
+    @Test
+    void addMember_ColdChannel_DefersToDatabaseLoad() {
+        // Given
+        when(channelRepository.findMemberIds(1L)).thenReturn(Arrays.asList(10L, 20L));
+
+        // When
+        index.addMember(1L, 20L);
+
+        // Then
+        assertTrue(index.isMember(1L, 20L));
+        verify(channelRepository, times(1)).findMemberIds(1L);
+    }
+
+    @Test
+    void addMember_DuringColdLoad_WaitsAndAppliesOnTopOfLoad() throws Exception {
+        // Given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(channelRepository.findMemberIds(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Arrays.asList(10L);
+        });
+        Thread loader = Thread.ofVirtual().start(() -> index.isMember(1L, 10L));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // When
+        Thread joiner = Thread.ofVirtual().start(() -> index.addMember(1L, 20L));
+        release.countDown();
+        loader.join(5000);
+        joiner.join(5000);
+
+        // Then
+        assertTrue(index.isMember(1L, 10L));
+        assertTrue(index.isMember(1L, 20L));
+        verify(channelRepository, times(1)).findMemberIds(1L);
+    }
+}
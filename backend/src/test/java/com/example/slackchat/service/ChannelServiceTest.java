@@ -1,5 +1,8 @@
 package com.example.slackchat.service;
 
+import com.example.slackchat.archive.MessageArchive;
+import com.example.slackchat.cluster.ClusterEventBus;
+import com.example.slackchat.dto.ChannelSummary;
 import com.example.slackchat.model.Channel;
 import com.example.slackchat.model.User;
 import com.example.slackchat.repository.ChannelRepository;
@@ -9,6 +12,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Arrays;
 import java.util.List;
@@ -16,6 +23,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +33,30 @@ class ChannelServiceTest {
     @Mock
     private ChannelRepository channelRepository;
 
+    @Mock
+    private RecentMessageCache recentMessageCache;
+
+    @Mock
+    private ChannelMembershipIndex channelMembershipIndex;
+
+    @Mock
+    private ReadStateService readStateService;
+
+    @Mock
+    private MessageArchive messageArchive;
+
+    @Mock
+    private ContentVersions contentVersions;
+
+    @Mock
+    private ClusterEventBus clusterEventBus;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
     @InjectMocks
     private ChannelService channelService;
 
@@ -106,51 +139,83 @@ class ChannelServiceTest {
     }
 
     @Test
-    void addMemberToChannel_ValidChannel_AddsMember() {
+    void addMemberToChannel_ValidChannel_InsertsMembershipRow() {
         // Given
         User newMember = new User("newuser", "new@example.com", "password");
         newMember.setId(2L);
-        when(channelRepository.findById(1L)).thenReturn(Optional.of(testChannel));
-        when(channelRepository.save(any(Channel.class))).thenReturn(testChannel);
+        givenTransactions();
+        when(channelRepository.existsById(1L)).thenReturn(true);
 
         // When
-        Channel result = channelService.addMemberToChannel(1L, newMember);
+        channelService.addMemberToChannel(1L, newMember);
 
         // Then
-        assertNotNull(result);
-        verify(channelRepository).save(testChannel);
-        assertTrue(testChannel.getMembers().contains(newMember));
+        verify(jdbcTemplate).update(startsWith("INSERT INTO channel_members"), eq(1L), eq(2L), eq(1L), eq(2L));
+        verify(channelRepository, never()).findById(any());
+        verify(channelMembershipIndex).addMember(1L, 2L);
     }
 
     @Test
     void addMemberToChannel_InvalidChannel_ThrowsException() {
         // Given
         User newMember = new User("newuser", "new@example.com", "password");
-        when(channelRepository.findById(999L)).thenReturn(Optional.empty());
+        givenTransactions();
+        when(channelRepository.existsById(999L)).thenReturn(false);
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class,
             () -> channelService.addMemberToChannel(999L, newMember));
         
         assertEquals("Channel not found", exception.getMessage());
+        verifyNoInteractions(jdbcTemplate, channelMembershipIndex);
+    }
+
+    @Test
+    void addMemberToChannel_ConcurrentJoin_TreatedAsMember() {
+        // Given
+        User newMember = new User("newuser", "new@example.com", "password");
+        newMember.setId(2L);
+        when(transactionTemplate.execute(any())).thenThrow(new DuplicateKeyException("duplicate"));
+
+        // When
+        channelService.addMemberToChannel(1L, newMember);
+
+        // Then
+        verify(channelMembershipIndex).addMember(1L, 2L);
     }
 
     @Test
-    void removeMemberFromChannel_ValidChannel_RemovesMember() {
+    void removeMemberFromChannel_ValidChannel_DeletesMembershipRow() {
         // Given
         User memberToRemove = new User("removeuser", "remove@example.com", "password");
         memberToRemove.setId(2L);
-        testChannel.getMembers().add(memberToRemove);
-        
-        when(channelRepository.findById(1L)).thenReturn(Optional.of(testChannel));
-        when(channelRepository.save(any(Channel.class))).thenReturn(testChannel);
+        givenTransactions();
+        when(channelRepository.existsById(1L)).thenReturn(true);
 
         // When
-        Channel result = channelService.removeMemberFromChannel(1L, memberToRemove);
+        channelService.removeMemberFromChannel(1L, memberToRemove);
 
         // Then
-        assertNotNull(result);
-        verify(channelRepository).save(testChannel);
-        assertFalse(testChannel.getMembers().contains(memberToRemove));
+        verify(jdbcTemplate).update(startsWith("DELETE FROM channel_members"), eq(1L), eq(2L));
+        verify(channelMembershipIndex).removeMember(1L, 2L);
+    }
+
+    @Test
+    void findPublicChannelSummaries_CountsMembersFromIndex() {
+        // Given
+        ChannelSummary summary = new ChannelSummary(1L, "general", null, false, null, null, null, null);
+        when(channelRepository.findPublicChannelSummaries()).thenReturn(List.of(summary));
+        when(channelMembershipIndex.getMemberCount(1L)).thenReturn(42L);
+
+        // When
+        List<ChannelSummary> result = channelService.findPublicChannelSummaries();
+
+        // Then
+        assertEquals(42L, result.get(0).getMemberCount());
+    }
+
+    private void givenTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 }
@@ -0,0 +1,83 @@
+package com.example.slackchat.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentVersionsTest {
+
+    private final ContentVersions contentVersions = new ContentVersions();
+
+    @Test
+    void channelTag_ChangesOnlyForBumpedChannel() {
+        // Given
+        String first = contentVersions.channelTag(1L);
+        String other = contentVersions.channelTag(2L);
+
+        // When
+        contentVersions.channelChanged(1L);
+
+        // Then
+        assertNotEquals(first, contentVersions.channelTag(1L));
+        assertEquals(other, contentVersions.channelTag(2L));
+        assertTrue(first.startsWith("\"") && first.endsWith("\""));
+    }
+
+    @Test
+    void usersChanged_ChangesEveryTag() {
+        // Given
+        String channel = contentVersions.channelTag(1L);
+        String directory = contentVersions.directoryTag();
+
+        // When
+        contentVersions.usersChanged();
+
+        // Then
+        assertNotEquals(channel, contentVersions.channelTag(1L));
+        assertNotEquals(directory, contentVersions.directoryTag());
+    }
+
+    @Test
+    void channelSetTag_LoadsChannelIdsOncePerSetVersion() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<List<Long>> channelIds = () -> {
+            loads.incrementAndGet();
+            return List.of(1L, 2L);
+        };
+        String first = contentVersions.channelSetTag(7L, channelIds);
+
+        // When
+        String repeated = contentVersions.channelSetTag(7L, channelIds);
+        contentVersions.channelChanged(2L);
+        String afterMessage = contentVersions.channelSetTag(7L, channelIds);
+        contentVersions.channelSetChanged(7L);
+        String afterJoin = contentVersions.channelSetTag(7L, channelIds);
+
+        // Then
+        assertEquals(first, repeated);
+        assertNotEquals(repeated, afterMessage);
+        assertNotEquals(afterMessage, afterJoin);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void readStateTag_ChangesWhenUserMarksRead() {
+        // Given
+        Supplier<List<Long>> channelIds = () -> List.of(1L);
+        String first = contentVersions.readStateTag(7L, channelIds);
+
+        // When
+        contentVersions.readStateChanged(8L);
+        String otherUserRead = contentVersions.readStateTag(7L, channelIds);
+        contentVersions.readStateChanged(7L);
+
+        // Then
+        assertEquals(first, otherUserRead);
+        assertNotEquals(first, contentVersions.readStateTag(7L, channelIds));
+    }
+}
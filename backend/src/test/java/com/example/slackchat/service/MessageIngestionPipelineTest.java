@@ -0,0 +1,169 @@
+package com.example.slackchat.service;
+
+import com.example.slackchat.model.Channel;
+import com.example.slackchat.model.Message;
+import com.example.slackchat.model.User;
+import com.example.slackchat.repository.MessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MessageIngestionPipelineTest {
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MessageIngestionPipeline pipeline;
+    private User testUser;
+    private Channel testChannel;
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User("testuser", "test@example.com", "password");
+        testChannel = new Channel("general", "General discussion", testUser);
+        pipeline = new MessageIngestionPipeline(messageRepository, new TransactionTemplate(transactionManager),
+                new SimpleMeterRegistry(), 50, 20, 1000);
+        pipeline.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.stop();
+    }
+
+    @Test
+    void submit_ConcurrentMessages_CommitsThemTogether() throws Exception {
+        // Given
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        when(messageRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            firstBatchStarted.countDown();
+            releaseFirstBatch.await(5, TimeUnit.SECONDS);
+            return assignIds(invocation.getArgument(0));
+        });
+
+        // When
+        CompletableFuture<Message> first = pipeline.submit(new Message("first", testUser, testChannel));
+        assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+        List<CompletableFuture<Message>> queued = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            queued.add(pipeline.submit(new Message("queued " + i, testUser, testChannel)));
+        }
+        releaseFirstBatch.countDown();
+
+        // Then
+        assertNotNull(first.get(5, TimeUnit.SECONDS).getId());
+        for (CompletableFuture<Message> future : queued) {
+            assertNotNull(future.get(5, TimeUnit.SECONDS).getId());
+        }
+        verify(messageRepository, times(2)).saveAll(anyList());
+        verify(messageRepository, never()).save(any(Message.class));
+    }
+
+    @Test
+    void submit_BatchFails_RetriesEachMessageOnItsOwn() throws Exception {
+        // Given
+        when(messageRepository.saveAll(anyList())).thenThrow(new RuntimeException("constraint violation"));
+        when(messageRepository.save(any(Message.class))).thenAnswer(invocation -> {
+            Message message = invocation.getArgument(0);
+            if (message.getContent().equals("bad")) {
+                throw new RuntimeException("constraint violation");
+            }
+            return assignIds(List.of(message)).get(0);
+        });
+
+        // When
+        CompletableFuture<Message> bad = pipeline.submit(new Message("bad", testUser, testChannel));
+
+        // Then
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertEquals("constraint violation", failure.getCause().getMessage());
+        Message good = pipeline.submit(new Message("good", testUser, testChannel)).get(5, TimeUnit.SECONDS);
+        assertNotNull(good.getId());
+    }
+
+    @Test
+    void submit_StampedEarlierButQueuedLater_OrderedByCommit() throws Exception {
+        // Given
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        when(messageRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            firstBatchStarted.countDown();
+            releaseFirstBatch.await(5, TimeUnit.SECONDS);
+            return assignIds(invocation.getArgument(0));
+        });
+        Message older = new Message("built first", testUser, testChannel);
+        older.setCreatedAt(LocalDateTime.now().minusMinutes(5));
+
+        // When
+        CompletableFuture<Message> first = pipeline.submit(new Message("queued first", testUser, testChannel));
+        assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Message> second = pipeline.submit(older);
+        releaseFirstBatch.countDown();
+
+        // Then
+        Message committedFirst = first.get(5, TimeUnit.SECONDS);
+        Message committedSecond = second.get(5, TimeUnit.SECONDS);
+        assertTrue(committedSecond.getId() > committedFirst.getId());
+        assertFalse(committedSecond.getCreatedAt().isBefore(committedFirst.getCreatedAt()));
+    }
+
+    @Test
+    void cancel_QueuedMessage_NeverWritten() throws Exception {
+        // Given
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        when(messageRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            firstBatchStarted.countDown();
+            releaseFirstBatch.await(5, TimeUnit.SECONDS);
+            return assignIds(invocation.getArgument(0));
+        });
+        CompletableFuture<Message> first = pipeline.submit(new Message("first", testUser, testChannel));
+        assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Message> queued = pipeline.submit(new Message("queued", testUser, testChannel));
+
+        // When
+        boolean withdrawn = pipeline.cancel(queued);
+        boolean inFlight = pipeline.cancel(first);
+        releaseFirstBatch.countDown();
+
+        // Then
+        assertTrue(withdrawn);
+        assertFalse(inFlight);
+        assertTrue(queued.isCancelled());
+        assertNotNull(first.get(5, TimeUnit.SECONDS).getId());
+        verify(messageRepository, times(1)).saveAll(anyList());
+    }
+
+    private List<Message> assignIds(List<Message> messages) {
+        for (Message message : messages) {
+            message.setId(ids.incrementAndGet());
+        }
+        return messages;
+    }
+}
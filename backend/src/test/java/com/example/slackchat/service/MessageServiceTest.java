@@ -1,9 +1,17 @@
 package com.example.slackchat.service;
 
+import com.example.slackchat.archive.MessageArchive;
+import com.example.slackchat.cluster.ClusterEventBus;
+import com.example.slackchat.dto.MessageCursor;
+import com.example.slackchat.dto.MessageSummary;
+import com.example.slackchat.metrics.ChatMetrics;
 import com.example.slackchat.model.Channel;
 import com.example.slackchat.model.Message;
 import com.example.slackchat.model.User;
 import com.example.slackchat.repository.MessageRepository;
+import com.example.slackchat.search.MessageSearchIndex;
+import com.example.slackchat.websocket.MessageEventPublisher;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,13 +22,19 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -30,6 +44,36 @@ class MessageServiceTest {
     @Mock
     private MessageRepository messageRepository;
 
+    @Mock
+    private RecentMessageCache recentMessageCache;
+
+    @Mock
+    private MessageIngestionPipeline messageIngestionPipeline;
+
+    @Mock
+    private MessageSearchIndex messageSearchIndex;
+
+    @Mock
+    private ReadStateService readStateService;
+
+    @Mock
+    private ChatMetrics chatMetrics;
+
+    @Mock
+    private MessageArchive messageArchive;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ContentVersions contentVersions;
+
+    @Mock
+    private ClusterEventBus clusterEventBus;
+
+    @Mock
+    private MessageEventPublisher messageEventPublisher;
+
     @InjectMocks
     private MessageService messageService;
 
@@ -39,6 +83,8 @@ class MessageServiceTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(messageService, "ingestTimeoutMillis", 5000L);
+
         testUser = new User("testuser", "test@example.com", "password");
         testUser.setId(1L);
         
@@ -52,14 +98,68 @@ class MessageServiceTest {
     @Test
     void createMessage_ValidData_CreatesMessage() {
         // Given
-        when(messageRepository.save(any(Message.class))).thenReturn(testMessage);
+        when(messageIngestionPipeline.submit(any(Message.class)))
+                .thenReturn(CompletableFuture.completedFuture(testMessage));
 
         // When
         Message result = messageService.createMessage("Hello world", testUser, testChannel);
 
         // Then
         assertNotNull(result);
-        verify(messageRepository).save(any(Message.class));
+        verify(messageIngestionPipeline).submit(any(Message.class));
+        verify(recentMessageCache).onCreated(any(MessageSummary.class));
+        verify(messageEventPublisher).publishCreated(any(MessageSummary.class));
+    }
+
+    @Test
+    void createMessage_TimesOutWhileQueued_WithdrawsMessage() {
+        // Given
+        ReflectionTestUtils.setField(messageService, "ingestTimeoutMillis", 10L);
+        CompletableFuture<Message> saved = new CompletableFuture<>();
+        when(messageIngestionPipeline.submit(any(Message.class))).thenReturn(saved);
+        when(messageIngestionPipeline.cancel(saved)).thenReturn(true);
+
+        // When & Then
+        IngestionUnavailableException exception = assertThrows(IngestionUnavailableException.class,
+                () -> messageService.createMessage("Hello world", testUser, testChannel));
+        assertEquals("Timed out saving message", exception.getMessage());
+    }
+
+    @Test
+    void createMessage_CommitsAfterTimeout_StillPublishes() {
+        // Given
+        ReflectionTestUtils.setField(messageService, "ingestTimeoutMillis", 10L);
+        CompletableFuture<Message> saved = new CompletableFuture<>();
+        when(messageIngestionPipeline.submit(any(Message.class))).thenReturn(saved);
+        when(messageIngestionPipeline.cancel(saved)).thenReturn(false);
+        assertThrows(IngestionUnavailableException.class,
+                () -> messageService.createMessage("Hello world", testUser, testChannel));
+
+        // When
+        saved.complete(testMessage);
+
+        // Then
+        verify(recentMessageCache, timeout(1000)).onCreated(any(MessageSummary.class));
+        verify(clusterEventBus, timeout(1000)).publish(any());
+        verify(messageEventPublisher, timeout(1000)).publishCreated(any(MessageSummary.class));
+    }
+
+    @Test
+    void createMessage_SideEffectFails_ReturnsCommittedMessageAndRunsTheRest() {
+        // Given
+        when(messageIngestionPipeline.submit(any(Message.class)))
+                .thenReturn(CompletableFuture.completedFuture(testMessage));
+        doThrow(new IllegalStateException("index full")).when(messageSearchIndex)
+                .index(anyLong(), anyLong(), anyString());
+
+        // When
+        Message result = messageService.createMessage("Hello world", testUser, testChannel);
+
+        // Then
+        assertSame(testMessage, result);
+        verify(clusterEventBus).publish(any());
+        verify(messageEventPublisher).publishCreated(any(MessageSummary.class));
+        verify(chatMetrics).messageSent(eq(1L), anyLong());
     }
 
     @Test
@@ -88,29 +188,45 @@ class MessageServiceTest {
     }
 
     @Test
-    void findMessagesByChannel_ReturnsMessages() {
+    void exportChannel_StreamsAndDetachesMessages() {
         // Given
-        List<Message> messages = Arrays.asList(testMessage);
-        when(messageRepository.findByChannelOrderByCreatedAtAsc(testChannel)).thenReturn(messages);
+        when(messageRepository.streamByChannelId(1L)).thenReturn(Stream.of(testMessage));
+        List<MessageSummary> exported = new ArrayList<>();
 
         // When
-        List<Message> result = messageService.findMessagesByChannel(testChannel);
+        long count = messageService.exportChannel(1L, exported::add);
 
         // Then
-        assertEquals(1, result.size());
-        assertEquals("Hello world", result.get(0).getContent());
+        assertEquals(1, count);
+        assertEquals("Hello world", exported.get(0).getContent());
+        verify(entityManager).detach(testMessage);
+    }
+
+    @Test
+    void exportChannel_RowAlreadyArchived_SkipsIt() {
+        // Given
+        when(messageArchive.newestCursor(1L)).thenReturn(MessageCursor.of(MessageSummary.from(testMessage)));
+        when(messageRepository.streamByChannelId(1L)).thenReturn(Stream.of(testMessage));
+        List<MessageSummary> exported = new ArrayList<>();
+
+        // When
+        long count = messageService.exportChannel(1L, exported::add);
+
+        // Then
+        assertEquals(0, count);
+        assertTrue(exported.isEmpty());
     }
 
     @Test
     void findMessagesByChannelPaginated_ReturnsPagedMessages() {
         // Given
-        List<Message> messages = Arrays.asList(testMessage);
-        Page<Message> page = new PageImpl<>(messages);
+        List<MessageSummary> messages = Arrays.asList(MessageSummary.from(testMessage));
+        Page<MessageSummary> page = new PageImpl<>(messages);
         Pageable pageable = PageRequest.of(0, 20);
         when(messageRepository.findByChannelOrderByCreatedAtDesc(testChannel, pageable)).thenReturn(page);
 
         // When
-        Page<Message> result = messageService.findMessagesByChannelPaginated(testChannel, 0, 20);
+        Page<MessageSummary> result = messageService.findMessagesByChannelPaginated(testChannel, 0, 20);
 
         // Then
         assertEquals(1, result.getContent().size());
@@ -120,7 +236,7 @@ class MessageServiceTest {
     @Test
     void updateMessage_ValidMessage_UpdatesContent() {
         // Given
-        when(messageRepository.findById(1L)).thenReturn(Optional.of(testMessage));
+        when(messageRepository.findWithSenderById(1L)).thenReturn(Optional.of(testMessage));
         when(messageRepository.save(any(Message.class))).thenReturn(testMessage);
 
         // When
@@ -135,7 +251,7 @@ class MessageServiceTest {
     @Test
     void updateMessage_InvalidMessage_ThrowsException() {
         // Given
-        when(messageRepository.findById(999L)).thenReturn(Optional.empty());
+        when(messageRepository.findWithSenderById(999L)).thenReturn(Optional.empty());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class,
@@ -156,15 +272,93 @@ class MessageServiceTest {
     @Test
     void findRecentMessagesByChannelId_ReturnsRecentMessages() {
         // Given
-        List<Message> messages = Arrays.asList(testMessage);
+        List<MessageSummary> messages = Arrays.asList(MessageSummary.from(testMessage));
         Pageable pageable = PageRequest.of(0, 50);
+        when(recentMessageCache.get(1L, 50)).thenReturn(null);
         when(messageRepository.findRecentMessagesByChannelId(eq(1L), any(Pageable.class))).thenReturn(messages);
 
         // When
-        List<Message> result = messageService.findRecentMessagesByChannelId(1L, 50);
+        List<MessageSummary> result = messageService.findRecentMessagesByChannelId(1L, 50);
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals("Hello world", result.get(0).getContent());
+    }
+
+    @Test
+    void findRecentMessagesByChannelId_CacheHit_SkipsRepository() {
+        // Given
+        MessageSummary cachedMessage = MessageSummary.from(testMessage);
+        when(recentMessageCache.get(1L, 50)).thenReturn(Arrays.asList(cachedMessage));
+
+        // When
+        List<MessageSummary> result = messageService.findRecentMessagesByChannelId(1L, 50);
+
+        // Then
+        assertEquals(1, result.size());
+        verify(messageRepository, never()).findRecentMessagesByChannelId(any(), any());
+    }
+
+    @Test
+    void findMessagesBefore_NoCursor_ReturnsLatestMessages() {
+        // Given
+        when(messageRepository.findLatestMessages(eq(1L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(MessageSummary.from(testMessage)));
+
+        // When
+        List<MessageSummary> result = messageService.findMessagesBefore(1L, null, 20);
 
         // Then
         assertEquals(1, result.size());
+        verify(messageRepository, never()).findMessagesBefore(any(), any(), any(), any());
+    }
+
+    @Test
+    void findMessagesBefore_WithCursor_SeeksPastCursor() {
+        // Given
+        MessageCursor cursor = new MessageCursor(testMessage.getCreatedAt(), testMessage.getId());
+        when(messageRepository.findMessagesBefore(eq(1L), eq(testMessage.getCreatedAt()), eq(1L), any(Pageable.class)))
+                .thenReturn(Arrays.asList());
+
+        // When
+        List<MessageSummary> result = messageService.findMessagesBefore(1L, MessageCursor.decode(cursor.encode()), 20);
+
+        // Then
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void findMessagesBefore_ShortHotPage_ContinuesIntoArchive() {
+        // Given
+        MessageSummary archived = new MessageSummary(0L, 1L, "archived", testMessage.getCreatedAt().minusDays(60),
+                null, Message.MessageType.TEXT, null);
+        when(messageRepository.findLatestMessages(eq(1L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(MessageSummary.from(testMessage)));
+        when(messageArchive.hasArchive(1L)).thenReturn(true);
+        when(messageArchive.findBefore(eq(1L), any(MessageCursor.class), eq(19))).thenReturn(List.of(archived));
+
+        // When
+        List<MessageSummary> result = messageService.findMessagesBefore(1L, null, 20);
+
+        // Then
+        assertEquals(2, result.size());
         assertEquals("Hello world", result.get(0).getContent());
+        assertEquals("archived", result.get(1).getContent());
+        verify(messageArchive).findBefore(eq(1L), argThat(cursor -> cursor.getId().equals(1L)), eq(19));
+    }
+
+    @Test
+    void searchMessages_IdMissingFromDatabase_DropsItFromIndex() {
+        // Given
+        when(messageSearchIndex.search(List.of(1L), "hello", null, 10)).thenReturn(List.of(2L, 1L));
+        when(messageRepository.findSummariesByIdIn(List.of(2L, 1L))).thenReturn(List.of(MessageSummary.from(testMessage)));
+
+        // When
+        List<MessageSummary> result = messageService.searchMessages(List.of(1L), "hello", null, 10);
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals(1L, result.get(0).getId());
+        verify(messageSearchIndex).remove(2L);
     }
 }
@@ -0,0 +1,149 @@
+package com.example.slackchat.service;
+
+import com.example.slackchat.datasource.HibernateCaches;
+import com.example.slackchat.dto.PresenceDiff;
+import com.example.slackchat.dto.PresenceSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PresenceServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private HibernateCaches hibernateCaches;
+
+    @InjectMocks
+    private PresenceService presenceService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(presenceService, "timeoutMillis", 1000L);
+        ReflectionTestUtils.setField(presenceService, "maxChanges", 3);
+    }
+
+    @Test
+    void heartbeat_NewUser_GoesOnlineOnce() {
+        // When
+        presenceService.heartbeat(1L, 0);
+        presenceService.heartbeat(1L, 100);
+
+        // Then
+        PresenceSnapshot snapshot = presenceService.snapshot();
+        assertEquals(1, snapshot.getVersion());
+        assertEquals(List.of(1L), snapshot.getOnlineUserIds());
+        PresenceDiff diff = presenceService.changesSince(0);
+        assertFalse(diff.isReset());
+        assertEquals(1, diff.getChanges().size());
+        assertTrue(diff.getChanges().get(0).isOnline());
+    }
+
+    @Test
+    void expireSessions_StaleSession_GoesOffline() {
+        // Given
+        presenceService.heartbeat(1L, 0);
+        presenceService.heartbeat(2L, 0);
+        presenceService.heartbeat(2L, 900);
+
+        // When
+        presenceService.expireSessions(1500);
+
+        // Then
+        assertFalse(presenceService.isOnline(1L));
+        assertTrue(presenceService.isOnline(2L));
+        PresenceDiff diff = presenceService.changesSince(2);
+        assertEquals(3, diff.getVersion());
+        assertEquals(1L, diff.getChanges().get(0).getUserId());
+        assertFalse(diff.getChanges().get(0).isOnline());
+    }
+
+    @Test
+    void changesSince_VersionOlderThanLog_RequestsReset() {
+        // Given
+        for (long userId = 1; userId <= 5; userId++) {
+            presenceService.heartbeat(userId, 0);
+        }
+
+        // When
+        PresenceDiff stale = presenceService.changesSince(1);
+        PresenceDiff recent = presenceService.changesSince(2);
+
+        // Then
+        assertTrue(stale.isReset());
+        assertFalse(recent.isReset());
+        assertEquals(3, recent.getChanges().size());
+    }
+
+    @Test
+    void flush_PendingWrites_SendsOneBatch() {
+        // Given
+        presenceService.heartbeat(1L, 0);
+        presenceService.heartbeat(1L, 10);
+        presenceService.heartbeat(2L, 0);
+        presenceService.disconnect(2L);
+
+        // When
+        presenceService.flush();
+        presenceService.flush();
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+        assertEquals(2, batch.getValue().size());
+        Object[] offline = batch.getValue().stream().filter(row -> row[2].equals(2L)).findFirst().orElseThrow();
+        assertEquals(false, offline[1]);
+        verify(hibernateCaches).usersChanged(argThat(ids -> ids.containsAll(List.of(1L, 2L))));
+    }
+
+    @Test
+    void flush_BatchFails_KeepsWritesForNextFlush() {
+        // Given
+        presenceService.heartbeat(1L, 0);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(new int[]{1});
+
+        // When
+        assertThrows(DataAccessResourceFailureException.class, () -> presenceService.flush());
+        presenceService.flush();
+
+        // Then
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        verify(hibernateCaches, times(1)).usersChanged(List.of(1L));
+    }
+
+    @Test
+    void resetOnlineFlags_OnlyResetsUsersIdleLongerThanTimeout() {
+        // When
+        presenceService.resetOnlineFlags(5000);
+
+        // Then
+        verify(jdbcTemplate).update(contains("last_active < ?"), eq(Timestamp.valueOf(
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(4000), ZoneId.systemDefault()))));
+        verify(hibernateCaches).allUsersChanged();
+    }
+}
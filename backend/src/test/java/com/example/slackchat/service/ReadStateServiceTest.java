@@ -0,0 +1,206 @@
+package com.example.slackchat.service;
+
+import com.example.slackchat.cluster.ClusterEventBus;
+import com.example.slackchat.dto.ChannelReadState;
+import com.example.slackchat.dto.ChannelSummary;
+import com.example.slackchat.dto.MessageSummary;
+import com.example.slackchat.model.Channel;
+import com.example.slackchat.model.Message;
+import com.example.slackchat.model.ReadMarker;
+import com.example.slackchat.model.User;
+import com.example.slackchat.repository.MessageRepository;
+import com.example.slackchat.repository.ReadMarkerRepository;
+import com.example.slackchat.security.AuthenticatedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadStateServiceTest {
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private ReadMarkerRepository readMarkerRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private ContentVersions contentVersions;
+
+    @Mock
+    private ClusterEventBus clusterEventBus;
+
+    @InjectMocks
+    private ReadStateService readStateService;
+
+    private User author;
+    private User reader;
+    private Channel channel;
+    private ChannelSummary summary;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(readStateService, "window", 5);
+        ReflectionTestUtils.setField(readStateService, "maxMentions", 5);
+        ReflectionTestUtils.setField(readStateService, "markerIdleMillis", 60000L);
+        ReflectionTestUtils.setField(readStateService, "maxCachedMarkerUsers", 2);
+        author = new User("author", "author@example.com", "password");
+        author.setId(1L);
+        reader = new User("reader", "reader@example.com", "password");
+        reader.setId(2L);
+        channel = new Channel("general", "General discussion", author);
+        channel.setId(10L);
+        summary = ChannelSummary.from(channel);
+    }
+
+    @Test
+    void onMessageCreated_CountsUnreadAndMentionsAboveMarker() {
+        // Given
+        when(messageRepository.findRecentIdsAndContent(eq(10L), any(Pageable.class))).thenReturn(List.of());
+        when(readMarkerRepository.findByUserId(anyLong())).thenReturn(List.of());
+        when(userService.loadPrincipal("reader")).thenReturn(AuthenticatedUser.from(reader));
+        readStateService.onMessageCreated(message(100L, "hello"));
+        readStateService.onMessageCreated(message(101L, "ping @reader"));
+        readStateService.onMessageCreated(message(102L, "bye"));
+
+        // When
+        ChannelReadState before = readStateService.getReadState(2L, summary);
+        readStateService.markRead(2L, 10L, 101L);
+        ChannelReadState after = readStateService.getReadState(2L, summary);
+
+        // Then
+        assertEquals(3, before.getUnreadCount());
+        assertEquals(1, before.getMentionCount());
+        assertEquals(102L, before.getLatestMessageId());
+        assertEquals(1, after.getUnreadCount());
+        assertEquals(0, after.getMentionCount());
+        assertEquals(0, readStateService.getReadState(1L, summary).getUnreadCount());
+    }
+
+    @Test
+    void getReadState_MoreUnreadThanWindow_ReportsCapped() {
+        // Given
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 9; id >= 5; id--) {
+            rows.add(new Object[]{id, "message " + id});
+        }
+        when(messageRepository.findRecentIdsAndContent(eq(10L), any(Pageable.class))).thenReturn(rows);
+        when(readMarkerRepository.findByUserId(2L)).thenReturn(List.of(new ReadMarker(2L, 10L, 2L)));
+
+        // When
+        ChannelReadState state = readStateService.getReadState(2L, summary);
+        readStateService.markRead(2L, 10L, 7L);
+        ChannelReadState caughtUp = readStateService.getReadState(2L, summary);
+
+        // Then
+        assertEquals(5, state.getUnreadCount());
+        assertTrue(state.isUnreadCapped());
+        assertEquals(2, caughtUp.getUnreadCount());
+        assertFalse(caughtUp.isUnreadCapped());
+    }
+
+    @Test
+    void onMessageDeleted_RemovesFromUnread() {
+        // Given
+        when(messageRepository.findRecentIdsAndContent(eq(10L), any(Pageable.class)))
+                .thenReturn(List.<Object[]>of(new Object[]{6L, "two"}, new Object[]{5L, "one"}));
+        when(readMarkerRepository.findByUserId(2L)).thenReturn(List.of());
+
+        // When
+        readStateService.onMessageDeleted(10L, 6L);
+        readStateService.getReadState(2L, summary);
+        readStateService.onMessageDeleted(10L, 6L);
+
+        // Then
+        ChannelReadState state = readStateService.getReadState(2L, summary);
+        assertEquals(1, state.getUnreadCount());
+        assertEquals(5L, state.getLatestMessageId());
+    }
+
+    @Test
+    void flush_InsertsMarkersWithoutExistingRow() {
+        // Given
+        when(readMarkerRepository.findByUserId(anyLong())).thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenReturn(new int[]{1, 0});
+        when(messageRepository.existsByIdAndChannelId(anyLong(), eq(10L))).thenReturn(true);
+        readStateService.markRead(1L, 10L, 5L);
+        readStateService.markRead(1L, 10L, 7L);
+        readStateService.markRead(2L, 10L, 3L);
+
+        // When
+        readStateService.flush();
+        readStateService.flush();
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("UPDATE"), updates.capture());
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT"), inserts.capture());
+        assertEquals(2, updates.getValue().size());
+        assertEquals(1, inserts.getValue().size());
+        assertTrue(updates.getValue().stream().anyMatch(row -> row[0].equals(7L) && row[2].equals(1L)));
+    }
+
+    @Test
+    void markRead_MessageOfAnotherChannel_Throws() {
+        // Given
+        when(messageRepository.findRecentIdsAndContent(eq(10L), any(Pageable.class))).thenReturn(List.of());
+        when(messageRepository.existsByIdAndChannelId(99L, 10L)).thenReturn(false);
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> readStateService.markRead(2L, 10L, 99L));
+        assertEquals("Message not found in this channel", exception.getMessage());
+        verifyNoInteractions(clusterEventBus, readMarkerRepository);
+    }
+
+    @Test
+    void markers_OverCapacity_DropsIdleUsersAndKeepsUnflushedMarkers() {
+        // Given
+        when(messageRepository.findRecentIdsAndContent(eq(10L), any(Pageable.class)))
+                .thenReturn(List.<Object[]>of(new Object[]{6L, "two"}, new Object[]{5L, "one"}));
+        when(readMarkerRepository.findByUserId(anyLong())).thenReturn(List.of());
+        ReflectionTestUtils.setField(readStateService, "markerIdleMillis", -1L);
+        readStateService.markRead(1L, 10L, 6L);
+        readStateService.getReadState(2L, summary);
+
+        // When
+        readStateService.getReadState(3L, summary);
+        ChannelReadState reloaded = readStateService.getReadState(1L, summary);
+
+        // Then
+        verify(readMarkerRepository, times(2)).findByUserId(1L);
+        assertEquals(6L, reloaded.getLastReadMessageId());
+        assertEquals(0, reloaded.getUnreadCount());
+    }
+
+    private MessageSummary message(Long id, String content) {
+        Message message = new Message(content, author, channel);
+        message.setId(id);
+        return MessageSummary.from(message);
+    }
+}
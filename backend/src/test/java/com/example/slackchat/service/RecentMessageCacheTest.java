@@ -0,0 +1,201 @@
+package com.example.slackchat.service;
+
+import com.example.slackchat.dto.MessageSummary;
+import com.example.slackchat.dto.UserSummary;
+import com.example.slackchat.model.Message;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecentMessageCacheTest {
+
+    private RecentMessageCache cache;
+    private LocalDateTime baseTime;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RecentMessageCache(3, 4096, 1024 * 1024);
+        baseTime = LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123456789);
+    }
+
+    @Test
+    void get_EmptyCache_ReturnsNullAndCountsMiss() {
+        assertNull(cache.get(1L, 10));
+        assertEquals(1, cache.getStats().getMisses());
+    }
+
+    @Test
+    void put_ThenGet_RoundTripsAllFields() {
+        // Given
+        MessageSummary message = new MessageSummary(7L, 1L, "héllo", baseTime, null,
+                Message.MessageType.TEXT, new UserSummary(2L, "alice", null));
+        cache.put(1L, List.of(message), true, cache.beginLoad(1L));
+
+        // When
+        List<MessageSummary> result = cache.get(1L, 50);
+
+        // Then
+        assertEquals(1, result.size());
+        MessageSummary cached = result.get(0);
+        assertEquals(7L, cached.getId());
+        assertEquals(1L, cached.getChannelId());
+        assertEquals("héllo", cached.getContent());
+        assertEquals(baseTime, cached.getCreatedAt());
+        assertNull(cached.getUpdatedAt());
+        assertEquals("alice", cached.getSender().getUsername());
+        assertNull(cached.getSender().getDisplayName());
+        assertEquals(1, cache.getStats().getHits());
+    }
+
+    @Test
+    void get_IncompleteWindowSmallerThanLimit_Misses() {
+        cache.put(1L, newestFirst(1L, 3, 2, 1), false, cache.beginLoad(1L));
+
+        assertNotNull(cache.get(1L, 3));
+        assertNull(cache.get(1L, 4));
+    }
+
+    @Test
+    void onCreated_PrependsAndTrimsToCapacity() {
+        // Given
+        cache.put(1L, newestFirst(1L, 3, 2, 1), false, cache.beginLoad(1L));
+
+        // When
+        cache.onCreated(message(1L, 4));
+
+        // Then
+        List<MessageSummary> result = cache.get(1L, 3);
+        assertEquals(List.of(4L, 3L, 2L), result.stream().map(MessageSummary::getId).toList());
+    }
+
+    @Test
+    void onUpdatedAndOnDeleted_PatchCachedWindow() {
+        // Given
+        cache.put(1L, newestFirst(1L, 2, 1), true, cache.beginLoad(1L));
+        MessageSummary edited = message(1L, 1);
+        edited.setContent("edited");
+        edited.setUpdatedAt(baseTime.plusHours(1));
+
+        // When
+        cache.onUpdated(edited);
+        cache.onDeleted(1L, 2L);
+
+        // Then
+        List<MessageSummary> result = cache.get(1L, 10);
+        assertEquals(1, result.size());
+        assertEquals("edited", result.get(0).getContent());
+        assertEquals(baseTime.plusHours(1), result.get(0).getUpdatedAt());
+    }
+
+    @Test
+    void put_WriteDuringLoad_IsNotCached() {
+        // Given
+        long stamp = cache.beginLoad(1L);
+        cache.onCreated(message(1L, 3));
+
+        // When
+        cache.put(1L, newestFirst(1L, 2, 1), true, stamp);
+
+        // Then
+        assertNull(cache.get(1L, 1));
+    }
+
+    @Test
+    void put_OverMemoryCap_EvictsLeastRecentlyUsedChannel() {
+        // Given
+        cache = new RecentMessageCache(3, 4096, 4096 * 2);
+        cache.put(1L, newestFirst(1L, 1), true, cache.beginLoad(1L));
+        cache.put(2L, newestFirst(2L, 1), true, cache.beginLoad(2L));
+        cache.get(1L, 1);
+
+        // When
+        cache.put(3L, newestFirst(3L, 1), true, cache.beginLoad(3L));
+
+        // Then
+        assertNotNull(cache.get(1L, 1));
+        assertNull(cache.get(2L, 1));
+        assertNotNull(cache.get(3L, 1));
+        assertEquals(1, cache.getStats().getEvictions());
+        assertEquals(4096 * 2, cache.getStats().getBytes());
+    }
+
+    @Test
+    void onCreated_OutOfOrder_InsertsByIdNewestFirst() {
+        // Given
+        cache.put(1L, newestFirst(1L, 2, 1), true, cache.beginLoad(1L));
+        cache.onCreated(message(1L, 5));
+
+        // When
+        cache.onCreated(message(1L, 4));
+
+        // Then
+        List<MessageSummary> result = cache.get(1L, 3);
+        assertEquals(List.of(5L, 4L, 2L), result.stream().map(MessageSummary::getId).toList());
+    }
+
+    @Test
+    void onCreated_OlderThanFullWindow_IsNotCached() {
+        // Given
+        cache.put(1L, newestFirst(1L, 5, 4, 3), true, cache.beginLoad(1L));
+
+        // When
+        cache.onCreated(message(1L, 2));
+
+        // Then
+        assertEquals(List.of(5L, 4L, 3L), cache.get(1L, 3).stream().map(MessageSummary::getId).toList());
+        assertNull(cache.get(1L, 4));
+    }
+
+    @Test
+    void onUpdated_RepeatedGrowingEdits_CompactSlabInPlace() {
+        // Given
+        cache = new RecentMessageCache(3, 1024, 1024 * 1024);
+        cache.put(1L, newestFirst(1L, 3, 2, 1), true, cache.beginLoad(1L));
+        MessageSummary edited = message(1L, 2);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            edited.setContent("edited ".repeat(i % 10 + 1));
+            cache.onUpdated(edited);
+        }
+
+        // Then
+        List<MessageSummary> result = cache.get(1L, 3);
+        assertEquals(List.of(3L, 2L, 1L), result.stream().map(MessageSummary::getId).toList());
+        assertEquals("edited ".repeat(10), result.get(1).getContent());
+        assertEquals("message 1", result.get(2).getContent());
+    }
+
+    @Test
+    void onCreated_RecordLargerThanSlab_DropsWindow() {
+        // Given
+        cache = new RecentMessageCache(3, 256, 1024 * 1024);
+        cache.put(1L, newestFirst(1L, 2, 1), true, cache.beginLoad(1L));
+        MessageSummary large = message(1L, 3);
+        large.setContent("x".repeat(512));
+
+        // When
+        cache.onCreated(large);
+
+        // Then
+        assertNull(cache.get(1L, 1));
+    }
+
+    private List<MessageSummary> newestFirst(Long channelId, long... ids) {
+        List<MessageSummary> messages = new ArrayList<>();
+        for (long id : ids) {
+            messages.add(message(channelId, id));
+        }
+        return messages;
+    }
+
+    private MessageSummary message(Long channelId, long id) {
+        return new MessageSummary(id, channelId, "message " + id, baseTime.plusMinutes(id), baseTime.plusMinutes(id),
+                Message.MessageType.TEXT, new UserSummary(1L, "testuser", "Test User"));
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.slackchat.service;
 
+import com.example.slackchat.cluster.ClusterEventBus;
 import com.example.slackchat.model.User;
 import com.example.slackchat.repository.UserRepository;
+import com.example.slackchat.security.AuthenticatedUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +13,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Optional;
 
@@ -28,6 +31,12 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private ContentVersions contentVersions;
+
+    @Mock
+    private ClusterEventBus clusterEventBus;
+
     @InjectMocks
     private UserService userService;
 
@@ -133,4 +142,49 @@ class UserServiceTest {
         verify(userRepository).save(testUser);
         assertTrue(testUser.isOnline());
     }
+
+    @Test
+    void loadPrincipal_RepeatedLookups_QueriesRepositoryOnce() {
+        // Given
+        ReflectionTestUtils.setField(userService, "principalTtlMillis", 60000L);
+        ReflectionTestUtils.setField(userService, "maxCachedPrincipals", 100);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        // When
+        AuthenticatedUser first = userService.loadPrincipal("testuser");
+        AuthenticatedUser second = userService.loadPrincipal("testuser");
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1L, first.getId());
+        verify(userRepository, times(1)).findByUsername("testuser");
+    }
+
+    @Test
+    void loadPrincipal_AfterUpdateUser_ReloadsFromRepository() {
+        // Given
+        ReflectionTestUtils.setField(userService, "principalTtlMillis", 60000L);
+        ReflectionTestUtils.setField(userService, "maxCachedPrincipals", 100);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(userRepository.save(testUser)).thenReturn(testUser);
+        userService.loadPrincipal("testuser");
+
+        // When
+        testUser.setDisplayName("Renamed");
+        userService.updateUser(testUser);
+        AuthenticatedUser reloaded = userService.loadPrincipal("testuser");
+
+        // Then
+        assertEquals("Renamed", reloaded.getDisplayName());
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    void loadPrincipal_UserNotExists_ReturnsNull() {
+        // Given
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        // When & Then
+        assertNull(userService.loadPrincipal("ghost"));
+    }
 }
@@ -0,0 +1,135 @@
+package com.example.slackchat.websocket;
+
+import com.example.slackchat.dto.MessageRequest;
+import com.example.slackchat.model.Channel;
+import com.example.slackchat.model.User;
+import com.example.slackchat.repository.ChannelRepository;
+import com.example.slackchat.repository.MessageRepository;
+import com.example.slackchat.repository.UserRepository;
+import com.example.slackchat.security.JwtUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class MessageEventWebSocketIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChannelRepository channelRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    private WebSocketStompClient stompClient;
+    private Channel channel;
+    private String jwtToken;
+
+    @BeforeEach
+    void setUp() {
+        messageRepository.deleteAll();
+        channelRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = userRepository.save(new User("wsuser", "ws@example.com", passwordEncoder.encode("password123")));
+        channel = channelRepository.save(new Channel("realtime", "Realtime channel", user));
+        jwtToken = jwtUtils.generateToken(user);
+
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stompClient.stop();
+    }
+
+    @Test
+    void createMessage_SubscribedClient_ReceivesCreatedEvent() throws Exception {
+        // Given
+        StompSession session = connect(jwtToken);
+        BlockingQueue<Map<?, ?>> events = new LinkedBlockingQueue<>();
+        session.subscribe(WebSocketConfig.CHANNEL_TOPIC_PREFIX + channel.getId(), new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                events.add((Map<?, ?>) payload);
+            }
+        });
+        // Give the broker a moment to register the subscription
+        Thread.sleep(200);
+
+        MessageRequest request = new MessageRequest();
+        request.setContent("Hello subscribers");
+        request.setChannelId(channel.getId());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtToken);
+
+        // When
+        ResponseEntity<String> response = restTemplate.postForEntity("/api/messages",
+                new HttpEntity<>(request, headers), String.class);
+
+        // Then
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        Map<?, ?> event = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals("CREATED", event.get("type"));
+        assertEquals(channel.getId().intValue(), event.get("channelId"));
+        assertNotNull(event.get("messageId"));
+    }
+
+    @Test
+    void connect_InvalidToken_RejectsHandshake() {
+        assertThrows(ExecutionException.class, () -> connect("not-a-token"));
+    }
+
+    private StompSession connect(String token) throws Exception {
+        return stompClient
+                .connectAsync("ws://localhost:" + port + "/ws?token=" + token, new StompSessionHandlerAdapter() {})
+                .get(5, TimeUnit.SECONDS);
+    }
+}
@@ -19,7 +19,7 @@ import {
   Toolbar
 } from '@mui/material';
 import { Add as AddIcon, Tag as TagIcon, Lock as LockIcon } from '@mui/icons-material';
-import { Channel, CreateChannelRequest } from '../../types/types';
+import { Channel, ChannelReadState, CreateChannelRequest } from '../../types/types';
 import { channelService } from '../../services/channelService';
 
 interface ChannelListProps {
@@ -30,6 +30,7 @@ interface ChannelListProps {
 const ChannelList: React.FC<ChannelListProps> = ({ selectedChannel, onChannelSelect }) => {
   const [myChannels, setMyChannels] = useState<Channel[]>([]);
   const [publicChannels, setPublicChannels] = useState<Channel[]>([]);
+  const [readStates, setReadStates] = useState<Record<number, ChannelReadState>>({});
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
   const [createDialogOpen, setCreateDialogOpen] = useState(false);
@@ -44,11 +45,12 @@ const ChannelList: React.FC<ChannelListProps> = ({ selectedChannel, onChannelSel
   const loadChannels = async () => {
     try {
       setLoading(true);
-      const [myChannelsData, publicChannelsData] = await Promise.all([
-        channelService.getMyChannels(),
+      const [readStateData, publicChannelsData] = await Promise.all([
+        channelService.getMyReadState(),
         channelService.getAllChannels()
       ]);
-      setMyChannels(myChannelsData);
+      setMyChannels(readStateData.map((state) => state.channel));
+      setReadStates(Object.fromEntries(readStateData.map((state) => [state.channel.id, state])));
       setPublicChannels(publicChannelsData);
     } catch (err: any) {
       setError('Failed to load channels');
@@ -58,6 +60,19 @@ const ChannelList: React.FC<ChannelListProps> = ({ selectedChannel, onChannelSel
     }
   };
 
+  const handleSelectChannel = async (channel: Channel) => {
+    onChannelSelect(channel);
+    const state = readStates[channel.id];
+    if (state?.latestMessageId && state.unreadCount > 0) {
+      try {
+        const updated = await channelService.markRead(channel.id, state.latestMessageId);
+        setReadStates((previous) => ({ ...previous, [channel.id]: updated }));
+      } catch (err: any) {
+        console.error('Error marking channel read:', err);
+      }
+    }
+  };
+
   const handleCreateChannel = async () => {
     if (!newChannelName.trim()) {
       setCreateError('Channel name is required');
@@ -132,7 +147,7 @@ const ChannelList: React.FC<ChannelListProps> = ({ selectedChannel, onChannelSel
             <ListItem key={channel.id} disablePadding>
               <ListItemButton
                 selected={selectedChannel?.id === channel.id}
-                onClick={() => onChannelSelect(channel)}
+                onClick={() => handleSelectChannel(channel)}
               >
                 <TagIcon sx={{ mr: 1, fontSize: 16 }} />
                 <ListItemText 
@@ -140,6 +155,14 @@ const ChannelList: React.FC<ChannelListProps> = ({ selectedChannel, onChannelSel
                   secondary={channel.description}
                 />
                 {channel.isPrivate && <LockIcon sx={{ fontSize: 16, ml: 1 }} />}
+                {readStates[channel.id]?.unreadCount > 0 && (
+                  <Chip
+                    size="small"
+                    color={readStates[channel.id].mentionCount > 0 ? 'error' : 'default'}
+                    label={`${readStates[channel.id].unreadCount}${readStates[channel.id].unreadCapped ? '+' : ''}`}
+                    sx={{ ml: 1 }}
+                  />
+                )}
               </ListItemButton>
             </ListItem>
           ))}
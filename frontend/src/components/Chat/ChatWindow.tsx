@@ -14,6 +14,7 @@ import {
 import { Send as SendIcon, Person as PersonIcon } from '@mui/icons-material';
 import { Channel, Message, CreateMessageRequest } from '../../types/types';
 import { messageService } from '../../services/messageService';
+import { realtimeService } from '../../services/realtimeService';
 import { useAuth } from '../../contexts/AuthContext';
 
 interface ChatWindowProps {
@@ -33,6 +34,20 @@ const ChatWindow: React.FC<ChatWindowProps> = ({ channel }) => {
     loadMessages();
   }, [channel.id]);
 
+  useEffect(() => {
+    return realtimeService.subscribeToChannel(channel.id, (event) => {
+      if (event.type === 'CREATED' && event.message) {
+        const created = event.message;
+        setMessages(prev => prev.some(m => m.id === created.id) ? prev : [...prev, created]);
+      } else if (event.type === 'UPDATED' && event.message) {
+        const updated = event.message;
+        setMessages(prev => prev.map(m => m.id === updated.id ? updated : m));
+      } else if (event.type === 'DELETED') {
+        setMessages(prev => prev.filter(m => m.id !== event.messageId));
+      }
+    });
+  }, [channel.id]);
+
   useEffect(() => {
     scrollToBottom();
   }, [messages]);
@@ -70,7 +85,7 @@ const ChatWindow: React.FC<ChatWindowProps> = ({ channel }) => {
       };
 
       const sentMessage = await messageService.createMessage(messageData);
-      setMessages(prev => [...prev, sentMessage]);
+      setMessages(prev => prev.some(m => m.id === sentMessage.id) ? prev : [...prev, sentMessage]);
       setNewMessage('');
     } catch (err: any) {
       setError('Failed to send message');
@@ -136,7 +151,7 @@ const ChatWindow: React.FC<ChatWindowProps> = ({ channel }) => {
         )}
         <Box sx={{ mt: 1 }}>
           <Chip 
-            label={`${channel.members.length} members`} 
+            label={`${channel.memberCount} members`} 
             size="small" 
             variant="outlined" 
           />
@@ -1,5 +1,6 @@
 import React, { createContext, useContext, useState, useEffect, ReactNode } from 'react';
 import { authService, User } from '../services/authService';
+import { presenceService } from '../services/presenceService';
 
 interface AuthContextType {
   user: User | null;
@@ -44,6 +45,13 @@ export const AuthProvider: React.FC<AuthProviderProps> = ({ children }) => {
     initializeAuth();
   }, []);
 
+  useEffect(() => {
+    if (!user) {
+      return;
+    }
+    return presenceService.startHeartbeats();
+  }, [user]);
+
   const login = async (username: string, password: string) => {
     const response = await authService.login(username, password);
     localStorage.setItem('token', response.accessToken);
@@ -1,5 +1,5 @@
 import axios from 'axios';
-import { Channel, CreateChannelRequest } from '../types/types';
+import { Channel, ChannelReadState, CreateChannelRequest, Page, UserSummary } from '../types/types';
 import { authService } from './authService';
 
 const API_URL = '/api/channels';
@@ -19,6 +19,20 @@ class ChannelService {
     return response.data;
   }
 
+  async getMyReadState(): Promise<ChannelReadState[]> {
+    const response = await axios.get(`${API_URL}/my/read-state`, {
+      headers: authService.getAuthHeader()
+    });
+    return response.data;
+  }
+
+  async markRead(channelId: number, messageId: string): Promise<ChannelReadState> {
+    const response = await axios.post(`${API_URL}/${channelId}/read`, { messageId }, {
+      headers: authService.getAuthHeader()
+    });
+    return response.data;
+  }
+
   async getChannelById(id: number): Promise<Channel> {
     const response = await axios.get(`${API_URL}/${id}`, {
       headers: authService.getAuthHeader()
@@ -26,6 +40,14 @@ class ChannelService {
     return response.data;
   }
 
+  async getChannelMembers(channelId: number, page: number = 0, size: number = 50): Promise<Page<UserSummary>> {
+    const response = await axios.get(`${API_URL}/${channelId}/members`, {
+      headers: authService.getAuthHeader(),
+      params: { page, size }
+    });
+    return response.data;
+  }
+
   async createChannel(channelData: CreateChannelRequest): Promise<Channel> {
     const response = await axios.post(API_URL, channelData, {
       headers: authService.getAuthHeader()
@@ -1,5 +1,5 @@
 import axios from 'axios';
-import { Message, CreateMessageRequest } from '../types/types';
+import { Message, MessageHistory, MessageSearchResult, CreateMessageRequest } from '../types/types';
 import { authService } from './authService';
 
 const API_URL = '/api/messages';
@@ -25,6 +25,29 @@ class MessageService {
     return response.data;
   }
 
+  async getMessageHistory(
+    channelId: number,
+    cursor: { before?: string; after?: string; at?: string } = {},
+    limit: number = 50
+  ): Promise<MessageHistory> {
+    const response = await axios.get(`${API_URL}/channel/${channelId}/history`, {
+      params: { ...cursor, limit },
+      headers: authService.getAuthHeader()
+    });
+    return response.data;
+  }
+
+  async searchMessages(
+    query: string,
+    options: { channelId?: number; before?: string; limit?: number } = {}
+  ): Promise<MessageSearchResult> {
+    const response = await axios.get(`${API_URL}/search`, {
+      params: { q: query, ...options },
+      headers: authService.getAuthHeader()
+    });
+    return response.data;
+  }
+
   async createMessage(messageData: CreateMessageRequest): Promise<Message> {
     const response = await axios.post(API_URL, messageData, {
       headers: authService.getAuthHeader()
@@ -32,7 +55,7 @@ class MessageService {
     return response.data;
   }
 
-  async updateMessage(messageId: number, content: string): Promise<Message> {
+  async updateMessage(messageId: string, content: string): Promise<Message> {
     const response = await axios.put(`${API_URL}/${messageId}`, 
       { content, channelId: 0 }, // channelId not used for updates
       {
@@ -42,7 +65,7 @@ class MessageService {
     return response.data;
   }
 
-  async deleteMessage(messageId: number): Promise<void> {
+  async deleteMessage(messageId: string): Promise<void> {
     await axios.delete(`${API_URL}/${messageId}`, {
       headers: authService.getAuthHeader()
     });
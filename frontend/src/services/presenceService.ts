@@ -0,0 +1,39 @@
+import axios from 'axios';
+import { PresenceDiff, PresenceSnapshot } from '../types/types';
+import { authService } from './authService';
+
+const API_URL = '/api/presence';
+const HEARTBEAT_INTERVAL_MS = 30000;
+
+class PresenceService {
+  async sendHeartbeat(): Promise<void> {
+    await axios.post(`${API_URL}/heartbeat`, {}, {
+      headers: authService.getAuthHeader()
+    });
+  }
+
+  async getSnapshot(): Promise<PresenceSnapshot> {
+    const response = await axios.get(API_URL, {
+      headers: authService.getAuthHeader()
+    });
+    return response.data;
+  }
+
+  async getChanges(since: number): Promise<PresenceDiff> {
+    const response = await axios.get(`${API_URL}/changes`, {
+      headers: authService.getAuthHeader(),
+      params: { since }
+    });
+    return response.data;
+  }
+
+  // Returns a function that stops the heartbeats
+  startHeartbeats(): () => void {
+    const beat = () => this.sendHeartbeat().catch(() => undefined);
+    beat();
+    const timer = window.setInterval(beat, HEARTBEAT_INTERVAL_MS);
+    return () => window.clearInterval(timer);
+  }
+}
+
+export const presenceService = new PresenceService();
@@ -0,0 +1,120 @@
+import { MessageEvent as ChatMessageEvent } from '../types/types';
+
+type EventHandler = (event: ChatMessageEvent) => void;
+
+interface Subscription {
+  destination: string;
+  handler: EventHandler;
+}
+
+const RECONNECT_DELAY_MS = 2000;
+
+// Minimal STOMP 1.2 client over the browser WebSocket, covering only what the chat needs:
+// CONNECT, SUBSCRIBE/UNSUBSCRIBE and incoming MESSAGE frames.
+class RealtimeService {
+  private socket: WebSocket | null = null;
+  private connected = false;
+  private nextId = 0;
+  private subscriptions = new Map<string, Subscription>();
+  private reconnectTimer: ReturnType<typeof setTimeout> | null = null;
+
+  subscribeToChannel(channelId: number, handler: EventHandler): () => void {
+    const id = `sub-${this.nextId++}`;
+    const subscription = { destination: `/topic/channels/${channelId}`, handler };
+    this.subscriptions.set(id, subscription);
+
+    if (this.connected) {
+      this.sendSubscribe(id, subscription);
+    } else {
+      this.connect();
+    }
+
+    return () => {
+      this.subscriptions.delete(id);
+      if (this.connected) {
+        this.sendFrame('UNSUBSCRIBE', { id });
+      }
+      if (this.subscriptions.size === 0) {
+        this.disconnect();
+      }
+    };
+  }
+
+  private connect() {
+    const token = localStorage.getItem('token');
+    if (this.socket || !token) {
+      return;
+    }
+
+    const scheme = window.location.protocol === 'https:' ? 'wss' : 'ws';
+    const socket = new WebSocket(`${scheme}://${window.location.host}/ws?token=${encodeURIComponent(token)}`);
+    this.socket = socket;
+
+    socket.onopen = () => {
+      this.sendFrame('CONNECT', { 'accept-version': '1.2', host: window.location.hostname, 'heart-beat': '0,0' });
+    };
+    socket.onmessage = (event) => this.handleData(event.data as string);
+    socket.onclose = () => {
+      this.socket = null;
+      this.connected = false;
+      if (this.subscriptions.size > 0 && !this.reconnectTimer) {
+        this.reconnectTimer = setTimeout(() => {
+          this.reconnectTimer = null;
+          this.connect();
+        }, RECONNECT_DELAY_MS);
+      }
+    };
+  }
+
+  private disconnect() {
+    if (this.reconnectTimer) {
+      clearTimeout(this.reconnectTimer);
+      this.reconnectTimer = null;
+    }
+    if (this.socket) {
+      this.socket.close();
+      this.socket = null;
+    }
+    this.connected = false;
+  }
+
+  private handleData(data: string) {
+    data.split('\0').filter(frame => frame.trim().length > 0).forEach(frame => {
+      const headerEnd = frame.indexOf('\n\n');
+      const head = frame.substring(0, headerEnd).replace(/^\n+/, '').split('\n');
+      const body = frame.substring(headerEnd + 2);
+      const command = head[0];
+      const headers: Record<string, string> = {};
+      head.slice(1).forEach(line => {
+        const separator = line.indexOf(':');
+        headers[line.substring(0, separator)] = line.substring(separator + 1);
+      });
+
+      if (command === 'CONNECTED') {
+        this.connected = true;
+        this.subscriptions.forEach((subscription, id) => this.sendSubscribe(id, subscription));
+      } else if (command === 'MESSAGE') {
+        const subscription = this.subscriptions.get(headers['subscription']);
+        if (subscription) {
+          subscription.handler(JSON.parse(body));
+        }
+      } else if (command === 'ERROR') {
+        console.error('Realtime error:', headers['message']);
+      }
+    });
+  }
+
+  private sendSubscribe(id: string, subscription: Subscription) {
+    this.sendFrame('SUBSCRIBE', { id, destination: subscription.destination });
+  }
+
+  private sendFrame(command: string, headers: Record<string, string>) {
+    if (!this.socket || this.socket.readyState !== WebSocket.OPEN) {
+      return;
+    }
+    const headerLines = Object.entries(headers).map(([key, value]) => `${key}:${value}`).join('\n');
+    this.socket.send(`${command}\n${headerLines}\n\n\0`);
+  }
+}
+
+export const realtimeService = new RealtimeService();
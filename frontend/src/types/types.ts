@@ -14,20 +14,56 @@ export interface Channel {
   description?: string;
   isPrivate: boolean;
   createdAt: string;
-  createdBy: User;
-  members: User[];
+  createdBy?: UserSummary;
+  memberCount: number;
 }
 
-export interface Message {
+export interface ChannelReadState {
+  channel: Channel;
+  lastReadMessageId?: string;
+  latestMessageId?: string;
+  unreadCount: number;
+  mentionCount: number;
+  // More unread messages than unreadCount, e.g. render "99+"
+  unreadCapped: boolean;
+}
+
+export interface Page<T> {
+  content: T[];
+  totalElements: number;
+  totalPages: number;
+  number: number;
+  size: number;
+}
+
+export interface UserSummary {
   id: number;
+  username: string;
+  displayName?: string;
+}
+
+export interface Message {
+  // Serialized as a string: 64-bit ids do not fit in a JavaScript number
+  id: string;
+  channelId: number;
   content: string;
   createdAt: string;
   updatedAt: string;
-  sender: User;
-  channel: Channel;
+  sender: UserSummary;
   messageType: 'TEXT' | 'IMAGE' | 'FILE' | 'SYSTEM';
 }
 
+export interface MessageHistory {
+  messages: Message[];
+  olderCursor: string | null;
+  newerCursor: string | null;
+}
+
+export interface MessageSearchResult {
+  messages: Message[];
+  nextBefore: string | null;
+}
+
 export interface CreateChannelRequest {
   name: string;
   description?: string;
@@ -38,3 +74,26 @@ export interface CreateMessageRequest {
   content: string;
   channelId: number;
 }
+
+export interface MessageEvent {
+  type: 'CREATED' | 'UPDATED' | 'DELETED';
+  channelId: number;
+  messageId: string;
+  message?: Message;
+}
+
+export interface PresenceSnapshot {
+  version: number;
+  onlineUserIds: number[];
+}
+
+export interface PresenceChange {
+  userId: number;
+  online: boolean;
+}
+
+export interface PresenceDiff {
+  version: number;
+  reset: boolean;
+  changes: PresenceChange[];
+}